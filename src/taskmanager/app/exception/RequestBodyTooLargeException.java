@@ -0,0 +1,9 @@
+package taskmanager.app.exception;
+
+public class RequestBodyTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RequestBodyTooLargeException(String message) {
+        super(message);
+    }
+}
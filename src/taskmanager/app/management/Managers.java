@@ -1,14 +1,19 @@
 package taskmanager.app.management;
 
 import taskmanager.app.service.history.InMemoryHistoryManager;
+import taskmanager.app.service.history.SessionHistoryManager;
 import taskmanager.app.service.manager.FileBackedTasksManager;
 
 import java.nio.file.Path;
 
 
 public class Managers {
+    /**
+     * Менеджер задач по умолчанию: состояние и история просмотров восстанавливаются
+     * из {@code tasks.csv} и его журнала, поэтому переживают перезапуск
+     */
     public static TaskManager getDefault() {
-        return new FileBackedTasksManager(Path.of("tasks.csv"));
+        return FileBackedTasksManager.loadFromFile(Path.of("tasks.csv"), new SessionHistoryManager());
     }
 
     public static InMemoryHistoryManager getDefaultHistory() {
@@ -3,9 +3,13 @@ package taskmanager.app.management;
 import taskmanager.app.entity.Epic;
 import taskmanager.app.entity.SubTask;
 import taskmanager.app.entity.Task;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
+import taskmanager.app.service.events.ChangeEventBus;
+import taskmanager.app.util.BatchItemResult;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -35,10 +39,58 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    /**
+     * Возвращает страницу задач в порядке возрастания id.
+     *
+     * @param afterId id последней задачи предыдущей страницы, 0 - с начала
+     * @param limit   максимальный размер страницы (больше нуля)
+     * @return задачи с id больше afterId
+     */
+    List<Task> getTasksPage(int afterId, int limit);
+
+    /**
+     * Возвращает страницу эпиков в порядке возрастания id.
+     *
+     * @param afterId id последнего эпика предыдущей страницы, 0 - с начала
+     * @param limit   максимальный размер страницы (больше нуля)
+     * @return эпики с id больше afterId
+     */
+    List<Epic> getEpicsPage(int afterId, int limit);
+
+    /**
+     * Возвращает страницу подзадач в порядке возрастания id.
+     *
+     * @param afterId id последней подзадачи предыдущей страницы, 0 - с начала
+     * @param limit   максимальный размер страницы (больше нуля)
+     * @return подзадачи с id больше afterId
+     */
+    List<SubTask> getSubTasksPage(int afterId, int limit);
+
+    /**
+     * Возвращает страницу приоритетного списка в порядке времени начала и id.
+     *
+     * @param afterStartTime время начала последней задачи предыдущей страницы, null - с начала
+     * @param afterId        id последней задачи предыдущей страницы
+     * @param limit          максимальный размер страницы (больше нуля)
+     * @return задачи, следующие за указанной в приоритетном порядке
+     */
+    List<Task> getPrioritizedTasksPage(LocalDateTime afterStartTime, int afterId, int limit);
+
     void updateTask(Task task) throws IOException;
 
     void updateSubTask(SubTask subTask) throws IOException;
 
+    /**
+     * Применяет пакет задач, эпиков или подзадач как единое целое.
+     * Элемент с id существующей задачи или подзадачи того же типа обновляет ее, остальные создаются.
+     * Если хотя бы один элемент не проходит проверку, уже примененные элементы отменяются.
+     * Изменения сохраняются один раз после применения всего пакета.
+     *
+     * @param items элементы пакета
+     * @return результаты по каждому элементу в порядке пакета
+     */
+    List<BatchItemResult> applyBatch(List<? extends Task> items) throws IOException;
+
     void deleteAllTasks() throws IOException;
 
     void deleteTaskById(int id) throws IOException;
@@ -53,5 +105,40 @@ public interface TaskManager {
 
     int generateId();
 
+    /**
+     * Возвращает версию состояния менеджера.
+     * Версия монотонно растет при каждом изменении задач, эпиков или подзадач,
+     * поэтому совпадение версий означает, что данные не менялись.
+     *
+     * @return текущая версия
+     */
+    long getModificationVersion();
+
+    /**
+     * Возвращает версию коллекции задач указанного типа: общую версию
+     * на момент последнего изменения этой коллекции.
+     *
+     * @param type тип задач
+     * @return версия коллекции
+     */
+    long getModificationVersion(TaskType type);
+
+    /**
+     * Возвращает шину событий изменения задач, эпиков и подзадач.
+     *
+     * @return шина событий менеджера
+     */
+    ChangeEventBus getChangeEventBus();
+
     boolean isTasksOverlap(Task task1, Task task2);
+
+    /**
+     * Гарантирует, что все изменения записаны на постоянный носитель.
+     * Вызывается при остановке сервера после завершения всех запросов.
+     * Менеджеры без постоянного хранения ничего не делают.
+     *
+     * @throws IOException если данные не удалось записать
+     */
+    default void flush() throws IOException {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package taskmanager.app.server;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Базовый потоковый адаптер Gson для задач, эпиков и подзадач.
+ * Поля записываются и читаются напрямую, без рефлексии.
+ *
+ * <p>Схема JSON (поля со значением null не записываются):
+ * <ul>
+ *   <li>{@code id} - число, 0 или отсутствует у новой задачи</li>
+ *   <li>{@code name}, {@code description} - строки</li>
+ *   <li>{@code status} - {@code NEW}, {@code IN_PROGRESS} или {@code DONE}, по умолчанию {@code NEW}</li>
+ *   <li>{@code startTime} - строка ISO 8601 {@code yyyy-MM-ddTHH:mm:ss}</li>
+ *   <li>{@code duration} - длительность в минутах</li>
+ *   <li>{@code epicId} - только у подзадачи: id эпика</li>
+ *   <li>{@code subTaskIds} - только у эпика: массив id подзадач</li>
+ *   <li>{@code endTime} - только у эпика: строка ISO 8601</li>
+ * </ul>
+ * Поля записываются в указанном порядке, неизвестные поля при чтении пропускаются.
+ * В двоичном формате CBOR ключи те же, а {@code startTime} и {@code endTime} - целое
+ * число минут от начала эпохи (см. {@link LocalDateTimeAdapter}).
+ * Запись выполняется по фактическому классу объекта, поэтому эпики и подзадачи
+ * в списке задач сохраняют свои поля.
+ *
+ * @param <T> тип читаемых объектов
+ */
+public abstract class BaseTaskAdapter<T extends Task> extends TypeAdapter<T> {
+    private final LocalDateTimeAdapter dateTimeAdapter = new LocalDateTimeAdapter();
+    private final DurationAdapter durationAdapter = new DurationAdapter();
+
+    /**
+     * Сериализует задачу, эпик или подзадачу в JSON.
+     *
+     * @param out писатель JSON для записи значения
+     * @param task задача для сериализации, может быть null
+     * @throws IOException если произошла ошибка ввода-вывода при записи
+     */
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        out.name("name").value(task.getName());
+        out.name("description").value(task.getDescription());
+        StatusTask status = task.getStatus();
+        out.name("status");
+        if (status == null) {
+            out.nullValue();
+        } else {
+            out.value(status.name());
+        }
+        out.name("startTime");
+        dateTimeAdapter.write(out, task.getStartTime());
+        out.name("duration");
+        durationAdapter.write(out, task.getDuration());
+
+        if (task instanceof SubTask subTask) {
+            out.name("epicId").value(subTask.getEpicId());
+        } else if (task instanceof Epic epic) {
+            out.name("subTaskIds").beginArray();
+            for (int subTaskId : epic.getSubTaskIds()) {
+                out.value(subTaskId);
+            }
+            out.endArray();
+            out.name("endTime");
+            dateTimeAdapter.write(out, epic.getEndTime());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Десериализует объект из JSON.
+     *
+     * @param in читатель JSON для чтения значения
+     * @return созданный объект или null, если значение null
+     * @throws IOException если произошла ошибка ввода-вывода при чтении
+     * @throws JsonSyntaxException если значение поля имеет неверный формат
+     */
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> fields.id = in.nextInt();
+                case "name" -> fields.name = in.nextString();
+                case "description" -> fields.description = in.nextString();
+                case "status" -> fields.status = parseStatus(in.nextString());
+                case "startTime" -> fields.startTime = dateTimeAdapter.read(in);
+                case "duration" -> fields.duration = durationAdapter.read(in);
+                case "epicId" -> fields.epicId = in.nextInt();
+                case "endTime" -> fields.endTime = dateTimeAdapter.read(in);
+                case "subTaskIds" -> {
+                    fields.subTaskIds = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        fields.subTaskIds.add(in.nextInt());
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return create(fields);
+    }
+
+    /**
+     * Создает объект из прочитанных полей
+     *
+     * @param fields значения полей JSON
+     * @return созданный объект
+     */
+    protected abstract T create(Fields fields);
+
+    private static StatusTask parseStatus(String value) {
+        try {
+            return StatusTask.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Неизвестный статус задачи: " + value, e);
+        }
+    }
+
+    /**
+     * Значения полей JSON, прочитанные до создания объекта
+     */
+    protected static final class Fields {
+        int id;
+        String name;
+        String description;
+        StatusTask status = StatusTask.NEW;
+        LocalDateTime startTime;
+        Duration duration;
+        int epicId;
+        List<Integer> subTaskIds;
+        LocalDateTime endTime;
+    }
+}
@@ -0,0 +1,105 @@
+package taskmanager.app.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Определение идентичности клиента HTTP запроса.
+ * Клиент определяется в порядке приоритета по заголовку {@code X-Client-Id},
+ * cookie {@code KANBAN_SESSION} или токену из заголовка {@code Authorization: Bearer}.
+ * Значения cookie и токена - секреты клиента, поэтому в идентификатор попадает не само
+ * значение, а его хэш: идентификатор хранится в памяти и в журнале истории на диске.
+ */
+public final class ClientIdentity {
+    /**
+     * Заголовок с явным идентификатором клиента
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    /**
+     * Cookie с идентификатором сессии
+     */
+    public static final String SESSION_COOKIE = "KANBAN_SESSION";
+    /**
+     * Максимальная длина идентификатора, более длинные значения игнорируются
+     */
+    static final int MAX_IDENTITY_LENGTH = 128;
+    private static final String BEARER_PREFIX = "Bearer ";
+    /**
+     * Число байт хэша SHA-256, сохраняемых в идентификаторе
+     */
+    private static final int DIGEST_BYTES = 16;
+
+    private ClientIdentity() {
+    }
+
+    /**
+     * Определяет идентичность клиента запроса.
+     *
+     * @param exchange HTTP обмен
+     * @return идентификатор клиента с префиксом источника или null, если клиент анонимный
+     */
+    public static String resolve(HttpExchange exchange) {
+        Headers headers = exchange.getRequestHeaders();
+        if (headers == null) {
+            return null;
+        }
+
+        String clientId = headers.getFirst(CLIENT_ID_HEADER);
+        if (isValid(clientId)) {
+            return "id:" + clientId.trim();
+        }
+
+        String session = findCookie(headers, SESSION_COOKIE);
+        if (isValid(session)) {
+            return "session:" + digest(session);
+        }
+
+        String authorization = headers.getFirst("Authorization");
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            String token = authorization.substring(BEARER_PREFIX.length()).trim();
+            if (isValid(token)) {
+                return "token:" + digest(token);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ищет значение cookie во всех заголовках {@code Cookie} запроса
+     */
+    private static String findCookie(Headers headers, String name) {
+        if (headers.get("Cookie") == null) {
+            return null;
+        }
+        for (String header : headers.get("Cookie")) {
+            for (String pair : header.split(";")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).trim().equals(name)) {
+                    return pair.substring(eq + 1).trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return первые байты хэша SHA-256 значения в шестнадцатеричном виде
+     */
+    static String digest(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, DIGEST_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static boolean isValid(String identity) {
+        return identity != null && !identity.isBlank() && identity.length() <= MAX_IDENTITY_LENGTH;
+    }
+}
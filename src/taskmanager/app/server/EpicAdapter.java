@@ -0,0 +1,29 @@
+package taskmanager.app.server;
+
+import taskmanager.app.entity.Epic;
+
+/**
+ * Адаптер Gson для эпиков.
+ * Схема JSON описана в {@link BaseTaskAdapter}.
+ */
+public class EpicAdapter extends BaseTaskAdapter<Epic> {
+
+    /**
+     * Создает эпик из прочитанных полей.
+     *
+     * @throws IllegalArgumentException если id подзадачи не положительный
+     */
+    @Override
+    protected Epic create(Fields fields) {
+        Epic epic = new Epic(fields.name, fields.description);
+        epic.setId(fields.id);
+        epic.setStatus(fields.status);
+        epic.setStartTime(fields.startTime);
+        epic.setDuration(fields.duration);
+        epic.setEndTime(fields.endTime);
+        if (fields.subTaskIds != null) {
+            fields.subTaskIds.forEach(epic::addSubTaskId);
+        }
+        return epic;
+    }
+}
@@ -2,15 +2,32 @@ package taskmanager.app.server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
 import taskmanager.app.management.Managers;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.filters.AdmissionFilter;
+import taskmanager.app.server.filters.ClientSessionFilter;
+import taskmanager.app.server.filters.DrainFilter;
+import taskmanager.app.server.filters.RateLimitFilter;
 import taskmanager.app.server.handlers.*;
+import taskmanager.app.server.nio.NioHttpServer;
+import taskmanager.app.service.manager.ConcurrentTaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP сервер для управления задачами.
@@ -19,15 +36,29 @@ import java.time.LocalDateTime;
  *
  * <p>Сервер использует стандартный порт 8080 и поддерживает следующие endpoints:
  * <ul>
- *   <li>{@code /tasks} - управление задачами</li>
+ *   <li>{@code /tasks} - управление задачами, {@code /tasks/batch} - пакетная загрузка</li>
  *   <li>{@code /epics} - управление эпиками</li>
- *   <li>{@code /subtasks} - управление подзадачами</li>
+ *   <li>{@code /subtasks} - управление подзадачами, {@code /subtasks/batch} - пакетная загрузка</li>
  *   <li>{@code /history} - получение истории просмотров</li>
  *   <li>{@code /prioritized} - получение приоритетного списка задач</li>
+ *   <li>{@code /changes} - лента изменений (SSE или long-poll)</li>
  * </ul>
  *
  * <p>Сервер автоматически регистрирует адаптеры для сериализации/десериализации
  * объектов {@link LocalDateTime} и {@link Duration}.
+ *
+ * <p>Запросы обрабатываются параллельно: в виртуальных потоках или в ограниченном
+ * пуле платформенных потоков (см. {@link ServerConfig}). Менеджер задач оборачивается
+ * в {@link ConcurrentTaskManager}, поэтому обработчики могут обращаться к нему одновременно.
+ * Число одновременных запросов к каждой группе маршрутов ограничивается {@link AdmissionFilter}:
+ * при перегрузке лишние запросы сразу получают 503 вместо ожидания в очереди.
+ * Перед ним {@link RateLimitFilter} ограничивает частоту запросов каждого клиента (429).
+ * Вместо стандартного сервера можно включить неблокирующий {@link NioHttpServer}
+ * ({@link ServerConfig#setNioServer}): маршруты и фильтры при этом те же.
+ *
+ * <p>Остановка плавная ({@link #stop(Duration)}): новые запросы получают 503, выполняемые
+ * дожидаются завершения в пределах отведенного времени, после чего данные менеджера
+ * записываются на диск. Так перезапуск экземпляра не теряет принятых изменений.
  */
 public class HttpTaskServer {
     private static final int DEFAULT_PORT = 8080;
@@ -35,6 +66,11 @@ public class HttpTaskServer {
     private final TaskManager taskManager;
     private final Gson gson;
     private final int port;
+    private final ServerConfig config;
+    private final ExecutorService executor;
+    private final ClientSessionFilter sessionFilter = new ClientSessionFilter();
+    private final DrainFilter drainFilter = new DrainFilter();
+    private ChangesHandler changesHandler;
 
     /**
      * Создает новый экземпляр HTTP сервера задач на порту по умолчанию.
@@ -50,22 +86,39 @@ public class HttpTaskServer {
      * @throws IOException если произошла ошибка при создании HTTP сервера
      */
     public HttpTaskServer(TaskManager taskManager, int port) throws IOException {
-        this.taskManager = taskManager;
+        this(taskManager, port, ServerConfig.fromSystemProperties());
+    }
+
+    /**
+     * Создает новый экземпляр HTTP сервера задач с указанными настройками.
+     *
+     * @param taskManager менеджер задач
+     * @param port        порт сервера
+     * @param config      настройки сервера
+     * @throws IOException если произошла ошибка при создании HTTP сервера
+     */
+    public HttpTaskServer(TaskManager taskManager, int port, ServerConfig config) throws IOException {
+        this.taskManager = ConcurrentTaskManager.wrap(taskManager);
         this.gson = createGson();
         this.port = port;
-        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.config = config;
+        this.server = createServer(new InetSocketAddress(port), config);
+        this.executor = createExecutor(config);
+        this.server.setExecutor(executor);
         configureRoutes();
     }
 
     /**
      * Конструктор по умолчанию - использует Managers.getDefault() и порт по умолчанию.
+     * Задачи и история восстанавливаются из tasks.csv, поэтому перезапуск их не теряет.
      */
     public HttpTaskServer() throws IOException {
         this(Managers.getDefault());
     }
 
     /**
-     * Конструктор по умолчанию с указанием порта
+     * Конструктор по умолчанию с указанием порта.
+     * Как и {@link #HttpTaskServer()}, восстанавливает состояние из tasks.csv.
      */
     public HttpTaskServer(int port) throws IOException {
         this(Managers.getDefault(), port);
@@ -73,27 +126,93 @@ public class HttpTaskServer {
 
     /**
      * Создает и настраивает экземпляр Gson с адаптерами для специальных типов.
+     * Вывод компактный; форматированный JSON обработчики выдают по запросу клиента.
+     * Задачи, эпики и подзадачи сериализуются собственными адаптерами без рефлексии,
+     * схема JSON описана в {@link BaseTaskAdapter}.
      *
-     * @return настроенный экземпляр Gson с поддержкой LocalDateTime и Duration
+     * @return настроенный экземпляр Gson с поддержкой задач, LocalDateTime и Duration
      */
     private Gson createGson() {
         return new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .setPrettyPrinting()
+                .registerTypeAdapter(Task.class, new TaskAdapter())
+                .registerTypeAdapter(Epic.class, new EpicAdapter())
+                .registerTypeAdapter(SubTask.class, new SubTaskAdapter())
                 .create();
     }
 
+    /**
+     * Создает HTTP сервер: стандартный или неблокирующий {@link NioHttpServer}.
+     *
+     * @param address адрес сервера
+     * @param config  настройки сервера
+     * @return HTTP сервер, привязанный к адресу
+     * @throws IOException если не удалось открыть сокет
+     */
+    private static HttpServer createServer(InetSocketAddress address, ServerConfig config) throws IOException {
+        if (config.isNioServer()) {
+            return NioHttpServer.create(address, config.getBacklog(), config);
+        }
+        return HttpServer.create(address, config.getBacklog());
+    }
+
+    /**
+     * Создает исполнитель запросов: поток на запрос или ограниченный пул.
+     * При заполненной очереди пула запрос выполняется в потоке диспетчера,
+     * что притормаживает прием новых подключений вместо отказа. У NIO сервера поток
+     * диспетчера обслуживает все соединения, поэтому там лишний запрос получает 503.
+     *
+     * @param config настройки сервера
+     * @return исполнитель запросов
+     */
+    private static ExecutorService createExecutor(ServerConfig config) {
+        if (config.isVirtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return new ThreadPoolExecutor(config.getWorkerThreads(), config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getWorkerQueueCapacity()),
+                config.isNioServer() ? new ThreadPoolExecutor.AbortPolicy() : new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     /**
      * Настраивает маршруты HTTP сервера.
      * Регистрирует обработчики для различных endpoints API.
      */
     private void configureRoutes() {
-        server.createContext("/tasks", new TasksHandler(taskManager, gson));
-        server.createContext("/epics", new EpicsHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        createContext("/tasks", new TasksHandler(taskManager, gson, config), true);
+        createContext("/epics", new EpicsHandler(taskManager, gson, config), true);
+        createContext("/subtasks", new SubtasksHandler(taskManager, gson, config), true);
+        createContext("/history", new HistoryHandler(taskManager, gson, config), true);
+        createContext("/prioritized", new PrioritizedHandler(taskManager, gson, config), true);
+        changesHandler = new ChangesHandler(taskManager, gson, config);
+        // Подписки на изменения живут долго и почти не нагружают сервер: их время ответа
+        // исказило бы адаптивное ограничение, поэтому лента не ограничивается.
+        // Они ничего не меняют, поэтому и при остановке их завершения не ждут
+        createContext("/changes", changesHandler, false);
+    }
+
+    /**
+     * Регистрирует обработчик и общие фильтры для указанного пути.
+     *
+     * @param path      путь endpoint
+     * @param handler   обработчик запросов
+     * @param admission ограничивать частоту запросов клиентов и число одновременных запросов,
+     *                  если это включено в настройках, и дожидаться запросов при остановке
+     */
+    private void createContext(String path, HttpHandler handler, boolean admission) {
+        List<Filter> filters = server.createContext(path, handler).getFilters();
+        if (admission) {
+            filters.add(drainFilter);
+        }
+        if (admission && config.isRateLimitEnabled()) {
+            filters.add(new RateLimitFilter(config, path));
+        }
+        if (admission && config.isAdmissionControlEnabled()) {
+            filters.add(new AdmissionFilter(config, path));
+        }
+        filters.add(sessionFilter);
     }
 
     /**
@@ -106,11 +225,53 @@ public class HttpTaskServer {
     }
 
     /**
-     * Останавливает HTTP сервер.
-     * Сервер прекращает принимать новые подключения и завершает работу.
+     * Плавно останавливает HTTP сервер за время из настроек.
+     *
+     * @see #stop(Duration)
      */
     public void stop() {
+        stop(Duration.ofSeconds(config.getShutdownTimeoutSeconds()));
+    }
+
+    /**
+     * Плавно останавливает HTTP сервер.
+     * Новые запросы получают 503, потоки изменений закрываются, выполняемые запросы
+     * дожидаются завершения, но не дольше указанного времени. Затем сервер закрывает
+     * подключения, а менеджер задач записывает данные на диск.
+     *
+     * @param timeout наибольшее время ожидания выполняемых запросов
+     */
+    public void stop(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        drainFilter.startDraining();
+        changesHandler.closeStreams();
+        boolean interrupted = false;
+        try {
+            if (!drainFilter.awaitDrained(timeout.toNanos())) {
+                System.err.println("Не дождались завершения запросов при остановке: " + drainFilter.getInFlight());
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+
+        // Оставшиеся задачи - ожидания ленты изменений или запросы, не успевшие к сроку:
+        // их прерываем и даем завершиться в пределах оставшегося времени
         server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+
+        try {
+            taskManager.flush();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось записать данные при остановке: " + e.getMessage());
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
         System.out.println("HTTP менеджера задач остановлен");
     }
 
@@ -127,7 +288,8 @@ public class HttpTaskServer {
 
     /**
      * Основной метод для запуска HTTP сервера задач.
-     * Создает экземпляр сервера, запускает его и регистрирует хуки для graceful shutdown.
+     * Создает экземпляр сервера, запускает его и регистрирует хук плавной остановки:
+     * при завершении процесса сервер дожидается выполняемых запросов и записывает данные на диск.
      *
      * @param args аргументы командной строки (не используются)
      */
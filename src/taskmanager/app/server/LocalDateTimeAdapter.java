@@ -4,18 +4,53 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import taskmanager.app.server.cbor.BinaryFormatWriter;
+import taskmanager.app.server.cbor.CborWriter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Адаптер Gson для сериализации и десериализации объектов {@link LocalDateTime}.
  * Преобразует дату и время в строку формата ISO 8601 (yyyy-MM-dd'T'HH:mm:ss)
  * при сериализации в JSON и обратно при десериализации.
+ *
+ * <p>Отформатированные значения запоминаются в небольшом общем кэше прямого отображения:
+ * время начала и окончания задач повторяется от ответа к ответу, и повторное
+ * форматирование заменяется одним сравнением. Кэш используется без блокировок:
+ * элемент неизменяем, а потеря записи при гонке приводит лишь к повторному форматированию.
+ *
+ * <p>В двоичном формате ({@link CborWriter}, в том числе за оберткой,
+ * см. {@link BinaryFormatWriter}) дата и время записываются целым числом минут
+ * от начала эпохи 1970-01-01T00:00 без учета часового пояса; секунды отбрасываются.
+ * При чтении число принимается как такое же количество минут.
  */
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int CACHE_BITS = 10;
+    private static final CachedValue[] cache = new CachedValue[1 << CACHE_BITS];
+
+    private record CachedValue(LocalDateTime dateTime, String formatted) {
+    }
+
+    /**
+     * Форматирует дату и время в строку ISO 8601, используя кэш
+     *
+     * @param value дата и время
+     * @return строка формата yyyy-MM-dd'T'HH:mm:ss
+     */
+    static String format(LocalDateTime value) {
+        int index = (value.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - CACHE_BITS);
+        CachedValue cached = cache[index];
+        if (cached != null && cached.dateTime().equals(value)) {
+            return cached.formatted();
+        }
+        String formatted = value.format(formatter);
+        cache[index] = new CachedValue(value, formatted);
+        return formatted;
+    }
 
     /**
      * Сериализует объект {@link LocalDateTime} в JSON.
@@ -29,14 +64,16 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     public void write(JsonWriter out, LocalDateTime value) throws IOException {
         if (value == null) {
             out.nullValue();
+        } else if (BinaryFormatWriter.isBinaryFormat(out)) {
+            out.value(Math.floorDiv(value.toEpochSecond(ZoneOffset.UTC), 60));
         } else {
-            out.value(value.format(formatter));
+            out.value(format(value));
         }
     }
 
     /**
      * Десериализует объект {@link LocalDateTime} из JSON.
-     * Читает значение как строку в формате ISO 8601 и создает объект LocalDateTime.
+     * Читает значение как строку в формате ISO 8601 или как число минут от начала эпохи.
      *
      * @param in читатель JSON для чтения значения
      * @return объект LocalDateTime, созданный из строкового представления,
@@ -50,6 +87,9 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
             in.nextNull();
             return null;
         }
+        if (in.peek() == JsonToken.NUMBER) {
+            return LocalDateTime.ofEpochSecond(Math.multiplyExact(in.nextLong(), 60), 0, ZoneOffset.UTC);
+        }
 
         String value = in.nextString();
         if (value == null || value.isEmpty()) {
@@ -0,0 +1,534 @@
+package taskmanager.app.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Настройки HTTP сервера задач.
+ * Значения по умолчанию подходят для большинства случаев; их можно переопределить
+ * сеттерами или системными свойствами с префиксом {@code taskserver.}.
+ */
+public class ServerConfig {
+    private static final String PROPERTY_PREFIX = "taskserver.";
+
+    /**
+     * Обрабатывать каждый запрос в отдельном виртуальном потоке
+     */
+    private boolean virtualThreads = true;
+    /**
+     * Размер пула платформенных потоков, если виртуальные потоки отключены
+     */
+    private int workerThreads = Runtime.getRuntime().availableProcessors() * 2;
+    /**
+     * Емкость очереди запросов пула платформенных потоков
+     */
+    private int workerQueueCapacity = 1_000;
+    /**
+     * Сжимать ответы, если клиент поддерживает gzip или deflate
+     */
+    private boolean compressionEnabled = true;
+    /**
+     * Минимальный размер тела ответа в байтах, начиная с которого он сжимается
+     */
+    private int compressionMinSize = 1_024;
+    /**
+     * Уровень сжатия от 1 (быстрее) до 9 (компактнее)
+     */
+    private int compressionLevel = 6;
+    /**
+     * Длина очереди входящих подключений, ожидающих приема
+     */
+    private int backlog = 128;
+    /**
+     * Ограничивать число одновременно обрабатываемых запросов по группам маршрутов
+     */
+    private boolean admissionControlEnabled = true;
+    /**
+     * Наибольшее число одновременных запросов на чтение в группе маршрутов
+     */
+    private int readConcurrencyLimit = 256;
+    /**
+     * Наибольшее число одновременных запросов на изменение в группе маршрутов
+     */
+    private int writeConcurrencyLimit = 64;
+    /**
+     * Ограничения отдельных групп маршрутов: путь группы -> {чтение, изменение}
+     */
+    private final Map<String, int[]> routeConcurrencyLimits = new HashMap<>();
+    /**
+     * Подстраивать ограничение под наблюдаемое время ответа
+     */
+    private boolean adaptiveConcurrency = true;
+    /**
+     * Во сколько раз сглаженное время ответа может превысить базовое до снижения ограничения
+     */
+    private double latencyTolerance = 2.0;
+    /**
+     * Значение заголовка Retry-After в секундах при отказе 503
+     */
+    private int retryAfterSeconds = 1;
+    /**
+     * Ограничивать частоту запросов каждого клиента
+     */
+    private boolean rateLimitEnabled = true;
+    /**
+     * Запросов на чтение в секунду на клиента в группе маршрутов
+     */
+    private double readRateLimit = 500;
+    /**
+     * Наибольшее число запросов на чтение подряд
+     */
+    private int readBurst = 1_000;
+    /**
+     * Запросов на изменение в секунду на клиента в группе маршрутов
+     */
+    private double writeRateLimit = 100;
+    /**
+     * Наибольшее число запросов на изменение подряд
+     */
+    private int writeBurst = 200;
+    /**
+     * Частота отдельных групп маршрутов: путь группы -> {чтение/с, чтение подряд, изменение/с, изменение подряд}
+     */
+    private final Map<String, double[]> routeRateLimits = new HashMap<>();
+    /**
+     * Наибольшее число клиентов, для которых хранятся корзины токенов в одной группе маршрутов
+     */
+    private int rateLimitMaxClients = 10_000;
+    /**
+     * Во сколько раз общий бюджет одного IP адреса больше бюджета клиента:
+     * столько клиентов за одним адресом (например, за NAT) не мешают друг другу
+     */
+    private int rateLimitClientsPerIp = 8;
+    /**
+     * Наибольшее время плавной остановки: ожидание выполняемых запросов, в секундах
+     */
+    private int shutdownTimeoutSeconds = 10;
+    /**
+     * Кэшировать готовые ответы на частые запросы чтения
+     */
+    private boolean responseCacheEnabled = true;
+    /**
+     * Наибольший объем кэша ответов одной группы маршрутов, в байтах
+     */
+    private long responseCacheMaxBytes = 16L * 1024 * 1024;
+    /**
+     * Наибольший размер одного кэшируемого ответа, в байтах; большие ответы отправляются потоком
+     */
+    private int responseCacheMaxEntryBytes = 1024 * 1024;
+    /**
+     * Объединять одинаковые одновременные запросы чтения в одно построение ответа
+     */
+    private boolean requestCoalescingEnabled = true;
+    /**
+     * Наибольший размер тела запроса, в байтах; запрос с большим телом получает 413
+     */
+    private int maxRequestBodyBytes = 4 * 1024 * 1024;
+    /**
+     * Использовать неблокирующий NIO сервер вместо стандартного {@code com.sun.net.httpserver}
+     */
+    private boolean nioServer = false;
+    /**
+     * Время простоя, после которого NIO сервер закрывает соединение, в секундах
+     */
+    private int keepAliveTimeoutSeconds = 30;
+    /**
+     * Время, за которое клиент NIO сервера должен передать запрос целиком, в секундах.
+     * Отсчитывается от первого байта запроса и не продлевается новыми данными,
+     * поэтому медленная передача по байту не удерживает соединение дольше этого срока
+     */
+    private int requestReadTimeoutSeconds = 10;
+
+    /**
+     * Создает настройки, переопределяя значения по умолчанию системными свойствами.
+     *
+     * @return настройки сервера
+     */
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+        config.setVirtualThreads(Boolean.parseBoolean(
+                System.getProperty(PROPERTY_PREFIX + "virtualThreads", String.valueOf(config.virtualThreads))));
+        config.setWorkerThreads(Integer.getInteger(PROPERTY_PREFIX + "workerThreads", config.workerThreads));
+        config.setWorkerQueueCapacity(
+                Integer.getInteger(PROPERTY_PREFIX + "workerQueueCapacity", config.workerQueueCapacity));
+        config.setCompressionEnabled(Boolean.parseBoolean(
+                System.getProperty(PROPERTY_PREFIX + "compression", String.valueOf(config.compressionEnabled))));
+        config.setCompressionMinSize(
+                Integer.getInteger(PROPERTY_PREFIX + "compressionMinSize", config.compressionMinSize));
+        config.setCompressionLevel(
+                Integer.getInteger(PROPERTY_PREFIX + "compressionLevel", config.compressionLevel));
+        config.setBacklog(Integer.getInteger(PROPERTY_PREFIX + "backlog", config.backlog));
+        config.setAdmissionControlEnabled(Boolean.parseBoolean(System.getProperty(
+                PROPERTY_PREFIX + "admissionControl", String.valueOf(config.admissionControlEnabled))));
+        config.setReadConcurrencyLimit(
+                Integer.getInteger(PROPERTY_PREFIX + "readConcurrencyLimit", config.readConcurrencyLimit));
+        config.setWriteConcurrencyLimit(
+                Integer.getInteger(PROPERTY_PREFIX + "writeConcurrencyLimit", config.writeConcurrencyLimit));
+        config.setAdaptiveConcurrency(Boolean.parseBoolean(System.getProperty(
+                PROPERTY_PREFIX + "adaptiveConcurrency", String.valueOf(config.adaptiveConcurrency))));
+        config.setLatencyTolerance(Double.parseDouble(System.getProperty(
+                PROPERTY_PREFIX + "latencyTolerance", String.valueOf(config.latencyTolerance))));
+        config.setRetryAfterSeconds(
+                Integer.getInteger(PROPERTY_PREFIX + "retryAfterSeconds", config.retryAfterSeconds));
+        config.setRateLimitEnabled(Boolean.parseBoolean(
+                System.getProperty(PROPERTY_PREFIX + "rateLimit", String.valueOf(config.rateLimitEnabled))));
+        config.setReadRateLimit(Double.parseDouble(
+                System.getProperty(PROPERTY_PREFIX + "readRateLimit", String.valueOf(config.readRateLimit))));
+        config.setReadBurst(Integer.getInteger(PROPERTY_PREFIX + "readBurst", config.readBurst));
+        config.setWriteRateLimit(Double.parseDouble(
+                System.getProperty(PROPERTY_PREFIX + "writeRateLimit", String.valueOf(config.writeRateLimit))));
+        config.setWriteBurst(Integer.getInteger(PROPERTY_PREFIX + "writeBurst", config.writeBurst));
+        config.setRateLimitMaxClients(
+                Integer.getInteger(PROPERTY_PREFIX + "rateLimitMaxClients", config.rateLimitMaxClients));
+        config.setRateLimitClientsPerIp(
+                Integer.getInteger(PROPERTY_PREFIX + "rateLimitClientsPerIp", config.rateLimitClientsPerIp));
+        config.setShutdownTimeoutSeconds(
+                Integer.getInteger(PROPERTY_PREFIX + "shutdownTimeoutSeconds", config.shutdownTimeoutSeconds));
+        config.setResponseCacheEnabled(Boolean.parseBoolean(
+                System.getProperty(PROPERTY_PREFIX + "responseCache", String.valueOf(config.responseCacheEnabled))));
+        config.setResponseCacheMaxBytes(
+                Long.getLong(PROPERTY_PREFIX + "responseCacheMaxBytes", config.responseCacheMaxBytes));
+        config.setResponseCacheMaxEntryBytes(
+                Integer.getInteger(PROPERTY_PREFIX + "responseCacheMaxEntryBytes", config.responseCacheMaxEntryBytes));
+        config.setRequestCoalescingEnabled(Boolean.parseBoolean(System.getProperty(
+                PROPERTY_PREFIX + "requestCoalescing", String.valueOf(config.requestCoalescingEnabled))));
+        config.setMaxRequestBodyBytes(
+                Integer.getInteger(PROPERTY_PREFIX + "maxRequestBodyBytes", config.maxRequestBodyBytes));
+        config.setNioServer(Boolean.parseBoolean(
+                System.getProperty(PROPERTY_PREFIX + "nio", String.valueOf(config.nioServer))));
+        config.setKeepAliveTimeoutSeconds(
+                Integer.getInteger(PROPERTY_PREFIX + "keepAliveTimeoutSeconds", config.keepAliveTimeoutSeconds));
+        config.setRequestReadTimeoutSeconds(Integer.getInteger(
+                PROPERTY_PREFIX + "requestReadTimeoutSeconds", config.requestReadTimeoutSeconds));
+        return config;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = requirePositive(workerThreads, "Размер пула потоков");
+    }
+
+    public int getWorkerQueueCapacity() {
+        return workerQueueCapacity;
+    }
+
+    public void setWorkerQueueCapacity(int workerQueueCapacity) {
+        this.workerQueueCapacity = requirePositive(workerQueueCapacity, "Емкость очереди запросов");
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    public void setCompressionMinSize(int compressionMinSize) {
+        if (compressionMinSize < 0) {
+            throw new IllegalArgumentException("Минимальный размер сжимаемого ответа не может быть отрицательным");
+        }
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Уровень сжатия должен быть от "
+                    + Deflater.BEST_SPEED + " до " + Deflater.BEST_COMPRESSION);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = requirePositive(backlog, "Длина очереди подключений");
+    }
+
+    public boolean isAdmissionControlEnabled() {
+        return admissionControlEnabled;
+    }
+
+    public void setAdmissionControlEnabled(boolean admissionControlEnabled) {
+        this.admissionControlEnabled = admissionControlEnabled;
+    }
+
+    public int getReadConcurrencyLimit() {
+        return readConcurrencyLimit;
+    }
+
+    public void setReadConcurrencyLimit(int readConcurrencyLimit) {
+        this.readConcurrencyLimit = requirePositive(readConcurrencyLimit, "Ограничение запросов на чтение");
+    }
+
+    public int getWriteConcurrencyLimit() {
+        return writeConcurrencyLimit;
+    }
+
+    public void setWriteConcurrencyLimit(int writeConcurrencyLimit) {
+        this.writeConcurrencyLimit = requirePositive(writeConcurrencyLimit, "Ограничение запросов на изменение");
+    }
+
+    /**
+     * Задает ограничения одновременных запросов для отдельной группы маршрутов.
+     *
+     * @param route      путь группы, например {@code /tasks}
+     * @param readLimit  ограничение запросов на чтение
+     * @param writeLimit ограничение запросов на изменение
+     */
+    public void setRouteConcurrencyLimits(String route, int readLimit, int writeLimit) {
+        routeConcurrencyLimits.put(route, new int[]{
+                requirePositive(readLimit, "Ограничение запросов на чтение"),
+                requirePositive(writeLimit, "Ограничение запросов на изменение")});
+    }
+
+    /**
+     * @param route путь группы маршрутов
+     * @return ограничение запросов на чтение для группы или общее
+     */
+    public int getReadConcurrencyLimit(String route) {
+        int[] limits = routeConcurrencyLimits.get(route);
+        return limits != null ? limits[0] : readConcurrencyLimit;
+    }
+
+    /**
+     * @param route путь группы маршрутов
+     * @return ограничение запросов на изменение для группы или общее
+     */
+    public int getWriteConcurrencyLimit(String route) {
+        int[] limits = routeConcurrencyLimits.get(route);
+        return limits != null ? limits[1] : writeConcurrencyLimit;
+    }
+
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        if (!(latencyTolerance > 1.0)) {
+            throw new IllegalArgumentException("Допуск времени ответа должен быть больше 1");
+        }
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = requirePositive(retryAfterSeconds, "Задержка повтора запроса");
+    }
+
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    public void setRateLimitEnabled(boolean rateLimitEnabled) {
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    public double getReadRateLimit() {
+        return readRateLimit;
+    }
+
+    public void setReadRateLimit(double readRateLimit) {
+        this.readRateLimit = requirePositiveRate(readRateLimit);
+    }
+
+    public int getReadBurst() {
+        return readBurst;
+    }
+
+    public void setReadBurst(int readBurst) {
+        this.readBurst = requirePositive(readBurst, "Емкость корзины чтения");
+    }
+
+    public double getWriteRateLimit() {
+        return writeRateLimit;
+    }
+
+    public void setWriteRateLimit(double writeRateLimit) {
+        this.writeRateLimit = requirePositiveRate(writeRateLimit);
+    }
+
+    public int getWriteBurst() {
+        return writeBurst;
+    }
+
+    public void setWriteBurst(int writeBurst) {
+        this.writeBurst = requirePositive(writeBurst, "Емкость корзины изменений");
+    }
+
+    /**
+     * Задает частоту запросов одного клиента для отдельной группы маршрутов.
+     *
+     * @param route      путь группы, например {@code /subtasks}
+     * @param readRate   запросов на чтение в секунду
+     * @param readBurst  наибольшее число запросов на чтение подряд
+     * @param writeRate  запросов на изменение в секунду
+     * @param writeBurst наибольшее число запросов на изменение подряд
+     */
+    public void setRouteRateLimits(String route, double readRate, int readBurst, double writeRate, int writeBurst) {
+        routeRateLimits.put(route, new double[]{
+                requirePositiveRate(readRate), requirePositive(readBurst, "Емкость корзины чтения"),
+                requirePositiveRate(writeRate), requirePositive(writeBurst, "Емкость корзины изменений")});
+    }
+
+    public double getReadRateLimit(String route) {
+        double[] limits = routeRateLimits.get(route);
+        return limits != null ? limits[0] : readRateLimit;
+    }
+
+    public int getReadBurst(String route) {
+        double[] limits = routeRateLimits.get(route);
+        return limits != null ? (int) limits[1] : readBurst;
+    }
+
+    public double getWriteRateLimit(String route) {
+        double[] limits = routeRateLimits.get(route);
+        return limits != null ? limits[2] : writeRateLimit;
+    }
+
+    public int getWriteBurst(String route) {
+        double[] limits = routeRateLimits.get(route);
+        return limits != null ? (int) limits[3] : writeBurst;
+    }
+
+    public int getRateLimitMaxClients() {
+        return rateLimitMaxClients;
+    }
+
+    public void setRateLimitMaxClients(int rateLimitMaxClients) {
+        this.rateLimitMaxClients = requirePositive(rateLimitMaxClients, "Число отслеживаемых клиентов");
+    }
+
+    public int getRateLimitClientsPerIp() {
+        return rateLimitClientsPerIp;
+    }
+
+    public void setRateLimitClientsPerIp(int rateLimitClientsPerIp) {
+        this.rateLimitClientsPerIp = requirePositive(rateLimitClientsPerIp, "Число клиентов на IP адрес");
+    }
+
+    public int getShutdownTimeoutSeconds() {
+        return shutdownTimeoutSeconds;
+    }
+
+    public void setShutdownTimeoutSeconds(int shutdownTimeoutSeconds) {
+        if (shutdownTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Время остановки не может быть отрицательным");
+        }
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+
+    public void setResponseCacheEnabled(boolean responseCacheEnabled) {
+        this.responseCacheEnabled = responseCacheEnabled;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public void setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+        if (responseCacheMaxBytes <= 0) {
+            throw new IllegalArgumentException("Объем кэша ответов должен быть больше нуля");
+        }
+        this.responseCacheMaxBytes = responseCacheMaxBytes;
+    }
+
+    public int getResponseCacheMaxEntryBytes() {
+        return responseCacheMaxEntryBytes;
+    }
+
+    public void setResponseCacheMaxEntryBytes(int responseCacheMaxEntryBytes) {
+        this.responseCacheMaxEntryBytes = requirePositive(responseCacheMaxEntryBytes, "Размер кэшируемого ответа");
+    }
+
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescingEnabled;
+    }
+
+    public void setRequestCoalescingEnabled(boolean requestCoalescingEnabled) {
+        this.requestCoalescingEnabled = requestCoalescingEnabled;
+    }
+
+    public int getMaxRequestBodyBytes() {
+        return maxRequestBodyBytes;
+    }
+
+    public void setMaxRequestBodyBytes(int maxRequestBodyBytes) {
+        this.maxRequestBodyBytes = requirePositive(maxRequestBodyBytes, "Наибольшая длина тела запроса");
+    }
+
+    public boolean isNioServer() {
+        return nioServer;
+    }
+
+    public void setNioServer(boolean nioServer) {
+        this.nioServer = nioServer;
+    }
+
+    public int getKeepAliveTimeoutSeconds() {
+        return keepAliveTimeoutSeconds;
+    }
+
+    public void setKeepAliveTimeoutSeconds(int keepAliveTimeoutSeconds) {
+        this.keepAliveTimeoutSeconds = requirePositive(keepAliveTimeoutSeconds, "Длительность простоя соединения");
+    }
+
+    public int getRequestReadTimeoutSeconds() {
+        return requestReadTimeoutSeconds;
+    }
+
+    public void setRequestReadTimeoutSeconds(int requestReadTimeoutSeconds) {
+        this.requestReadTimeoutSeconds = requirePositive(requestReadTimeoutSeconds, "Длительность чтения запроса");
+    }
+
+    private static double requirePositiveRate(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Частота запросов должна быть больше нуля");
+        }
+        return rate;
+    }
+
+    static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " должна быть больше нуля");
+        }
+        return value;
+    }
+}
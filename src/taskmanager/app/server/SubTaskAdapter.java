@@ -0,0 +1,16 @@
+package taskmanager.app.server;
+
+import taskmanager.app.entity.SubTask;
+
+/**
+ * Адаптер Gson для подзадач.
+ * Схема JSON описана в {@link BaseTaskAdapter}.
+ */
+public class SubTaskAdapter extends BaseTaskAdapter<SubTask> {
+
+    @Override
+    protected SubTask create(Fields fields) {
+        return new SubTask(fields.id, fields.name, fields.description, fields.status,
+                fields.duration, fields.startTime, fields.epicId);
+    }
+}
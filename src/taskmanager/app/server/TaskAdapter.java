@@ -0,0 +1,16 @@
+package taskmanager.app.server;
+
+import taskmanager.app.entity.Task;
+
+/**
+ * Адаптер Gson для задач.
+ * Схема JSON описана в {@link BaseTaskAdapter}.
+ */
+public class TaskAdapter extends BaseTaskAdapter<Task> {
+
+    @Override
+    protected Task create(Fields fields) {
+        return new Task(fields.id, fields.name, fields.description, fields.status,
+                fields.duration, fields.startTime);
+    }
+}
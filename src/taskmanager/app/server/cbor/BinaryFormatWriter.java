@@ -0,0 +1,25 @@
+package taskmanager.app.server.cbor;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Писатель, сообщающий адаптерам Gson, что значения записываются в двоичный формат.
+ * Адаптер по нему выбирает компактное представление значения (например, число вместо строки).
+ * Обертки над писателем реализуют интерфейс, передавая ответ нижележащего писателя,
+ * поэтому формат распознается и сквозь них.
+ */
+public interface BinaryFormatWriter {
+
+    /**
+     * @return true, если значения попадают в двоичный формат
+     */
+    boolean isBinaryFormat();
+
+    /**
+     * @param out писатель, переданный адаптеру
+     * @return true, если писатель (или обернутый им писатель) двоичный
+     */
+    static boolean isBinaryFormat(JsonWriter out) {
+        return out instanceof BinaryFormatWriter writer && writer.isBinaryFormat();
+    }
+}
@@ -0,0 +1,40 @@
+package taskmanager.app.server.cbor;
+
+/**
+ * Константы кодирования CBOR (RFC 8949), используемые писателем и читателем
+ */
+public final class Cbor {
+    /**
+     * Медиа-тип CBOR
+     */
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+    static final int MAJOR_SIMPLE = 7;
+
+    static final int INFO_UINT8 = 24;
+    static final int INFO_UINT16 = 25;
+    static final int INFO_UINT32 = 26;
+    static final int INFO_UINT64 = 27;
+    static final int INFO_INDEFINITE = 31;
+
+    static final int FALSE = 0xF4;
+    static final int TRUE = 0xF5;
+    static final int NULL = 0xF6;
+    static final int UNDEFINED = 0xF7;
+    static final int FLOAT16 = 0xF9;
+    static final int FLOAT32 = 0xFA;
+    static final int FLOAT64 = 0xFB;
+    static final int BREAK = 0xFF;
+    static final int ARRAY_INDEFINITE = (MAJOR_ARRAY << 5) | INFO_INDEFINITE;
+    static final int MAP_INDEFINITE = (MAJOR_MAP << 5) | INFO_INDEFINITE;
+
+    private Cbor() {
+    }
+}
@@ -0,0 +1,459 @@
+package taskmanager.app.server.cbor;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Читатель CBOR (RFC 8949) с интерфейсом {@link JsonReader}.
+ * Позволяет разбирать двоичные запросы теми же адаптерами Gson, что и JSON.
+ *
+ * <p>Поддерживаются массивы и объекты определенной и неопределенной длины, целые числа,
+ * float16/32/64, текстовые строки (в том числе по частям), true, false, null и undefined.
+ * Теги пропускаются, ключи объектов должны быть текстовыми строками, байтовые строки
+ * не поддерживаются. Несколько значений подряд читаются как последовательность CBOR (RFC 8742).
+ * Нарушение формата приводит к {@link MalformedJsonException}, обрыв данных - к {@link EOFException}.
+ *
+ * <p>Экземпляр не потокобезопасен.
+ */
+public class CborReader extends JsonReader {
+    /**
+     * Наибольшая глубина вложенности массивов и объектов
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+    private static final int INDEFINITE = -1;
+
+    private final InputStream in;
+    /**
+     * Оставшееся число элементов открытых контейнеров (ключи и значения считаются отдельно)
+     * или {@link #INDEFINITE}
+     */
+    private long[] remaining = new long[8];
+    /**
+     * Число прочитанных элементов открытых контейнеров
+     */
+    private int[] positions = new int[8];
+    private boolean[] maps = new boolean[8];
+    private String[] names = new String[8];
+    private int depth;
+    /**
+     * Прочитанный, но еще не разобранный начальный байт элемента или -1
+     */
+    private int head = -1;
+    private JsonToken peeked;
+    private boolean started;
+
+    /**
+     * @param in поток с данными CBOR; небуферизованный поток оборачивается в буфер
+     */
+    public CborReader(InputStream in) {
+        super(UNREADABLE_READER);
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        if (depth > 0) {
+            boolean map = maps[depth - 1];
+            long left = remaining[depth - 1];
+            if (left == 0) {
+                return peeked = map ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+            }
+            int b = readHead();
+            if (left == INDEFINITE && b == Cbor.BREAK) {
+                if (map && (positions[depth - 1] & 1) != 0) {
+                    throw syntaxError("Поле без значения");
+                }
+                head = -1;
+                return peeked = map ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+            }
+            if (map && (positions[depth - 1] & 1) == 0) {
+                if (b >>> 5 != Cbor.MAJOR_TEXT) {
+                    throw syntaxError("Ключ объекта должен быть строкой");
+                }
+                return peeked = JsonToken.NAME;
+            }
+        } else if (head < 0) {
+            int b = in.read();
+            if (b < 0) {
+                if (!started) {
+                    throw new EOFException("Пустой документ CBOR");
+                }
+                return peeked = JsonToken.END_DOCUMENT;
+            }
+            head = b;
+            started = true;
+        }
+        return peeked = valueToken();
+    }
+
+    /**
+     * Определяет тип значения по начальному байту, пропуская теги
+     */
+    private JsonToken valueToken() throws IOException {
+        while (head >>> 5 == Cbor.MAJOR_TAG) {
+            readArgument(head);
+            head = -1;
+            readHead();
+        }
+        return switch (head >>> 5) {
+            case Cbor.MAJOR_UNSIGNED, Cbor.MAJOR_NEGATIVE -> JsonToken.NUMBER;
+            case Cbor.MAJOR_TEXT -> JsonToken.STRING;
+            case Cbor.MAJOR_ARRAY -> JsonToken.BEGIN_ARRAY;
+            case Cbor.MAJOR_MAP -> JsonToken.BEGIN_OBJECT;
+            case Cbor.MAJOR_BYTES -> throw syntaxError("Байтовые строки не поддерживаются");
+            default -> switch (head) {
+                case Cbor.FALSE, Cbor.TRUE -> JsonToken.BOOLEAN;
+                case Cbor.NULL, Cbor.UNDEFINED -> JsonToken.NULL;
+                case Cbor.FLOAT16, Cbor.FLOAT32, Cbor.FLOAT64 -> JsonToken.NUMBER;
+                default -> throw syntaxError("Неподдерживаемый элемент 0x" + Integer.toHexString(head));
+            };
+        };
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        push(false, consume(JsonToken.BEGIN_ARRAY), 1);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        consume(JsonToken.END_ARRAY);
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        push(true, consume(JsonToken.BEGIN_OBJECT), 2);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        consume(JsonToken.END_OBJECT);
+        depth--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        String name = readText(consume(JsonToken.NAME));
+        names[depth - 1] = name;
+        afterItem();
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        String value;
+        if (token == JsonToken.STRING) {
+            value = readText(consume(JsonToken.STRING));
+        } else if (token == JsonToken.NUMBER) {
+            int b = consume(JsonToken.NUMBER);
+            value = isFloat(b) ? Double.toString(readFloat(b)) : Long.toString(readInteger(b));
+        } else {
+            throw unexpected(JsonToken.STRING, token);
+        }
+        afterItem();
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        boolean value = consume(JsonToken.BOOLEAN) == Cbor.TRUE;
+        afterItem();
+        return value;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        consume(JsonToken.NULL);
+        afterItem();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        if (peek() == JsonToken.STRING) {
+            return Double.parseDouble(nextString());
+        }
+        int b = consume(JsonToken.NUMBER);
+        double value = isFloat(b) ? readFloat(b) : readInteger(b);
+        afterItem();
+        return value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        if (peek() == JsonToken.STRING) {
+            return Long.parseLong(nextString());
+        }
+        int b = consume(JsonToken.NUMBER);
+        long value;
+        if (isFloat(b)) {
+            double number = readFloat(b);
+            value = (long) number;
+            if (value != number) {
+                throw new NumberFormatException("Ожидалось целое число, найдено " + number + " в " + getPath());
+            }
+        } else {
+            value = readInteger(b);
+        }
+        afterItem();
+        return value;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("Число " + value + " не помещается в int в " + getPath());
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_ARRAY -> {
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case BEGIN_OBJECT -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case NAME -> nextName();
+            case STRING -> nextString();
+            case NUMBER -> nextDouble();
+            case BOOLEAN -> nextBoolean();
+            case NULL -> nextNull();
+            case END_ARRAY, END_OBJECT -> throw new IllegalStateException("Нечего пропускать в " + getPath());
+            case END_DOCUMENT -> {
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        head = -1;
+        depth = 0;
+        in.close();
+    }
+
+    @Override
+    public String getPath() {
+        StringBuilder path = new StringBuilder("$");
+        for (int i = 0; i < depth; i++) {
+            if (maps[i]) {
+                if (names[i] != null) {
+                    path.append('.').append(names[i]);
+                }
+            } else {
+                path.append('[').append(positions[i]).append(']');
+            }
+        }
+        return path.toString();
+    }
+
+    @Override
+    public String getPreviousPath() {
+        return getPath();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " в " + getPath();
+    }
+
+    /**
+     * Проверяет, что следующий элемент имеет ожидаемый тип, и забирает его начальный байт
+     */
+    private int consume(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw unexpected(expected, token);
+        }
+        int b = head;
+        head = -1;
+        peeked = null;
+        return b;
+    }
+
+    /**
+     * Открывает контейнер
+     *
+     * @param itemsPerEntry 1 для массива, 2 для объекта (ключ и значение)
+     */
+    private void push(boolean map, int b, int itemsPerEntry) throws IOException {
+        long size = INDEFINITE;
+        if ((b & 0x1F) != Cbor.INFO_INDEFINITE) {
+            size = readArgument(b);
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw syntaxError("Слишком большой контейнер");
+            }
+            size *= itemsPerEntry;
+        }
+        afterItem();
+        if (depth == MAX_DEPTH) {
+            throw syntaxError("Превышена глубина вложенности " + MAX_DEPTH);
+        }
+        if (depth == remaining.length) {
+            int capacity = depth * 2;
+            remaining = Arrays.copyOf(remaining, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            maps = Arrays.copyOf(maps, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        remaining[depth] = size;
+        positions[depth] = 0;
+        maps[depth] = map;
+        names[depth] = null;
+        depth++;
+    }
+
+    /**
+     * Учитывает прочитанный элемент в текущем контейнере
+     */
+    private void afterItem() {
+        if (depth > 0) {
+            positions[depth - 1]++;
+            if (remaining[depth - 1] > 0) {
+                remaining[depth - 1]--;
+            }
+        }
+    }
+
+    /**
+     * Читает начальный байт следующего элемента внутри контейнера
+     */
+    private int readHead() throws IOException {
+        if (head < 0) {
+            head = readByte();
+        }
+        return head;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Неожиданный конец данных CBOR в " + getPath());
+        }
+        return b;
+    }
+
+    /**
+     * Читает аргумент заголовка; для 8-байтового аргумента больше Long.MAX_VALUE результат отрицательный
+     */
+    private long readArgument(int b) throws IOException {
+        int info = b & 0x1F;
+        if (info < Cbor.INFO_UINT8) {
+            return info;
+        }
+        return switch (info) {
+            case Cbor.INFO_UINT8 -> readUnsigned(1);
+            case Cbor.INFO_UINT16 -> readUnsigned(2);
+            case Cbor.INFO_UINT32 -> readUnsigned(4);
+            case Cbor.INFO_UINT64 -> readUnsigned(8);
+            default -> throw syntaxError("Некорректный заголовок элемента 0x" + Integer.toHexString(b));
+        };
+    }
+
+    private long readUnsigned(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private static boolean isFloat(int b) {
+        return b == Cbor.FLOAT16 || b == Cbor.FLOAT32 || b == Cbor.FLOAT64;
+    }
+
+    private long readInteger(int b) throws IOException {
+        long argument = readArgument(b);
+        if (argument < 0) {
+            throw new NumberFormatException("Число не помещается в long в " + getPath());
+        }
+        return b >>> 5 == Cbor.MAJOR_NEGATIVE ? -1 - argument : argument;
+    }
+
+    private double readFloat(int b) throws IOException {
+        return switch (b) {
+            case Cbor.FLOAT16 -> Float.float16ToFloat((short) readUnsigned(2));
+            case Cbor.FLOAT32 -> Float.intBitsToFloat((int) readUnsigned(4));
+            default -> Double.longBitsToDouble(readUnsigned(8));
+        };
+    }
+
+    private String readText(int b) throws IOException {
+        if ((b & 0x1F) != Cbor.INFO_INDEFINITE) {
+            return new String(readChunk(b), StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        for (int chunk = readByte(); chunk != Cbor.BREAK; chunk = readByte()) {
+            if (chunk >>> 5 != Cbor.MAJOR_TEXT || (chunk & 0x1F) == Cbor.INFO_INDEFINITE) {
+                throw syntaxError("Некорректная часть строки");
+            }
+            text.writeBytes(readChunk(chunk));
+        }
+        return text.toString(StandardCharsets.UTF_8);
+    }
+
+    private byte[] readChunk(int b) throws IOException {
+        long length = readArgument(b);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw syntaxError("Слишком длинная строка");
+        }
+        byte[] bytes = in.readNBytes((int) length);
+        if (bytes.length < length) {
+            throw new EOFException("Неожиданный конец данных CBOR в " + getPath());
+        }
+        return bytes;
+    }
+
+    private IllegalStateException unexpected(JsonToken expected, JsonToken actual) {
+        return new IllegalStateException("Ожидалось " + expected + ", но найдено " + actual + " в " + getPath());
+    }
+
+    private MalformedJsonException syntaxError(String message) {
+        return new MalformedJsonException(message + " в " + getPath());
+    }
+}
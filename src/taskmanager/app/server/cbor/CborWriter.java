@@ -0,0 +1,271 @@
+package taskmanager.app.server.cbor;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Писатель CBOR (RFC 8949) с интерфейсом {@link JsonWriter}.
+ * Позволяет сериализовать объекты теми же адаптерами Gson, что и JSON,
+ * но в компактное двоичное представление.
+ *
+ * <p>Массивы и объекты записываются с неопределенной длиной, поэтому вывод идет потоком
+ * без предварительного подсчета элементов. Целые числа кодируются минимальным
+ * числом байт, дробные - как float64. Поля со значением null пропускаются,
+ * если не включена сериализация null.
+ *
+ * <p>Экземпляр не потокобезопасен.
+ */
+public class CborWriter extends JsonWriter implements BinaryFormatWriter {
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final OutputStream out;
+    private final byte[] scratch = new byte[9];
+    /**
+     * Имя поля, которое будет записано вместе со следующим значением
+     */
+    private String deferredName;
+    private int depth;
+    private boolean closed;
+
+    /**
+     * @param out поток для записи; для частых мелких записей поток должен быть буферизован
+     */
+    public CborWriter(OutputStream out) {
+        super(UNWRITABLE_WRITER);
+        this.out = out;
+    }
+
+    @Override
+    public boolean isBinaryFormat() {
+        return true;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        out.write(Cbor.ARRAY_INDEFINITE);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return endContainer();
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        out.write(Cbor.MAP_INDEFINITE);
+        depth++;
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return endContainer();
+    }
+
+    private JsonWriter endContainer() throws IOException {
+        if (depth == 0 || deferredName != null) {
+            throw new IllegalStateException("Нет открытого массива или объекта");
+        }
+        out.write(Cbor.BREAK);
+        depth--;
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) {
+        if (name == null) {
+            throw new NullPointerException("Имя поля не может быть null");
+        }
+        if (deferredName != null || depth == 0) {
+            throw new IllegalStateException("Имя поля вне объекта или без значения");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    /**
+     * Строка JSON в CBOR не разбирается и записывается как текст
+     */
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        return value(value);
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        out.write(Cbor.NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        out.write(value ? Cbor.TRUE : Cbor.FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Числовые значения должны быть конечными, получено " + value);
+        }
+        writeDeferredName();
+        long bits = Double.doubleToLongBits(value);
+        scratch[0] = (byte) Cbor.FLOAT64;
+        for (int i = 8; i >= 1; i--) {
+            scratch[i] = (byte) bits;
+            bits >>>= 8;
+        }
+        out.write(scratch, 0, 9);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        if (value >= 0) {
+            writeHead(Cbor.MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(Cbor.MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            return value(value.longValue());
+        }
+        if (value instanceof BigInteger bigInteger && bigInteger.bitLength() < Long.SIZE) {
+            return value(bigInteger.longValue());
+        }
+        if (!(value instanceof Double || value instanceof Float || value instanceof BigDecimal)) {
+            // LazilyParsedNumber и прочие числа из исходного текста
+            try {
+                return value(Long.parseLong(value.toString()));
+            } catch (NumberFormatException e) {
+                // дробное число
+            }
+        }
+        return value(value.doubleValue());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Закрывает поток записи
+     *
+     * @throws IOException если документ не завершен или произошла ошибка ввода-вывода
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.close();
+        if (depth > 0) {
+            throw new IOException("Незавершенный документ CBOR");
+        }
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            String name = deferredName;
+            deferredName = null;
+            writeText(name);
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(Cbor.MAJOR_TEXT, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Записывает заголовок элемента: старший тип и аргумент минимальной длины
+     */
+    private void writeHead(int majorType, long argument) throws IOException {
+        int major = majorType << 5;
+        if (argument < 24) {
+            out.write(major | (int) argument);
+            return;
+        }
+        int length;
+        if (argument < 0x100L) {
+            scratch[0] = (byte) (major | Cbor.INFO_UINT8);
+            length = 1;
+        } else if (argument < 0x10000L) {
+            scratch[0] = (byte) (major | Cbor.INFO_UINT16);
+            length = 2;
+        } else if (argument < 0x100000000L) {
+            scratch[0] = (byte) (major | Cbor.INFO_UINT32);
+            length = 4;
+        } else {
+            scratch[0] = (byte) (major | Cbor.INFO_UINT64);
+            length = 8;
+        }
+        for (int i = length; i >= 1; i--) {
+            scratch[i] = (byte) argument;
+            argument >>>= 8;
+        }
+        out.write(scratch, 0, length + 1);
+    }
+}
@@ -0,0 +1,104 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр допуска запросов к группе маршрутов.
+ * Чтение (GET, HEAD) и изменение ограничиваются отдельными {@link ConcurrencyLimiter}:
+ * медленные записи не занимают места быстрых чтений. Запрос сверх ограничения не ставится
+ * в очередь, а сразу получает 503 с заголовком {@code Retry-After}, поэтому при всплеске
+ * нагрузки время ответа принятых запросов остается ограниченным.
+ */
+public class AdmissionFilter extends Filter {
+    private static final byte[] OVERLOADED_BODY =
+            "{\"error\":\"Сервер перегружен, повторите запрос позже\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final String route;
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+    private final String retryAfter;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param config настройки сервера
+     * @param route  путь группы маршрутов, например {@code /tasks}
+     */
+    public AdmissionFilter(ServerConfig config, String route) {
+        this.route = route;
+        this.readLimiter = new ConcurrencyLimiter(config.getReadConcurrencyLimit(route),
+                config.isAdaptiveConcurrency(), config.getLatencyTolerance());
+        this.writeLimiter = new ConcurrencyLimiter(config.getWriteConcurrencyLimit(route),
+                config.isAdaptiveConcurrency(), config.getLatencyTolerance());
+        this.retryAfter = String.valueOf(config.getRetryAfterSeconds());
+    }
+
+    /**
+     * Пропускает запрос к обработчику, если в его группе есть свободное место, иначе отвечает 503.
+     *
+     * @param exchange HTTP обмен
+     * @param chain    цепочка фильтров и обработчик
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        ConcurrencyLimiter limiter = isRead(exchange.getRequestMethod()) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            reject(exchange);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            limiter.release(System.nanoTime() - started);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            exchange.sendResponseHeaders(503, OVERLOADED_BODY.length);
+            OutputStream body = exchange.getResponseBody();
+            body.write(OVERLOADED_BODY);
+        }
+    }
+
+    /**
+     * @return ограничитель запросов на чтение
+     */
+    public ConcurrencyLimiter getReadLimiter() {
+        return readLimiter;
+    }
+
+    /**
+     * @return ограничитель запросов на изменение
+     */
+    public ConcurrencyLimiter getWriteLimiter() {
+        return writeLimiter;
+    }
+
+    /**
+     * @return число запросов, отклоненных с 503
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String description() {
+        return "Ограничение одновременных запросов к " + route;
+    }
+}
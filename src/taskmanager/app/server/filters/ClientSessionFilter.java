@@ -0,0 +1,38 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import taskmanager.app.server.ClientIdentity;
+import taskmanager.app.service.history.SessionHistoryManager;
+
+import java.io.IOException;
+
+/**
+ * Фильтр, привязывающий клиента запроса к потоку обработки.
+ * Благодаря привязке {@link SessionHistoryManager} ведет отдельную историю
+ * просмотров для каждого клиента, а GET /history возвращает историю вызывающего клиента.
+ */
+public class ClientSessionFilter extends Filter {
+
+    /**
+     * Привязывает идентичность клиента на время обработки запроса.
+     *
+     * @param exchange HTTP обмен
+     * @param chain    цепочка фильтров и обработчик
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        SessionHistoryManager.bindSession(ClientIdentity.resolve(exchange));
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            SessionHistoryManager.unbindSession();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Привязка клиента запроса к истории просмотров";
+    }
+}
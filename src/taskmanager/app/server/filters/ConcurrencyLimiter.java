@@ -0,0 +1,155 @@
+package taskmanager.app.server.filters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ограничитель числа одновременно выполняемых запросов.
+ * Запрос сверх ограничения не ждет в очереди, а сразу получает отказ.
+ *
+ * <p>В адаптивном режиме ограничение подстраивается под время ответа:
+ * сглаженное время сравнивается с базовым - минимальным временем за последнее окно замеров.
+ * Если сглаженное время превышает базовое больше чем в допустимое число раз, ограничение
+ * мультипликативно снижается, иначе при загрузке не меньше половины ограничения - увеличивается
+ * на единицу, но не выше настроенного максимума. Так очередь внутри сервера остается короткой,
+ * а время ответа принятых запросов - ограниченным. Первые замеры только прогревают статистику,
+ * а снижения разнесены на несколько замеров, чтобы одиночные медленные запросы
+ * не обваливали ограничение.
+ *
+ * <p>Захват и освобождение выполняются без блокировок; пересчет ограничения пропускается,
+ * если его уже выполняет другой поток.
+ */
+public class ConcurrencyLimiter {
+    /**
+     * Вес нового замера в сглаженном времени ответа
+     */
+    private static final double SMOOTHING = 0.2;
+    /**
+     * Множитель снижения ограничения при перегрузке
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+    /**
+     * Число замеров в окне базового времени ответа
+     */
+    private static final int BASELINE_WINDOW = 500;
+    /**
+     * Разница во времени ответа, не считающаяся перегрузкой: защищает от шума на быстрых запросах
+     */
+    private static final long LATENCY_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * Число первых замеров, по которым только набирается статистика: на прогреве JVM
+     * время ответа случайно и не должно приводить к отказам
+     */
+    private static final int WARMUP_SAMPLES = 20;
+    /**
+     * Наименьшее число замеров между снижениями ограничения, чтобы сглаженное время
+     * успело отразить результат предыдущего снижения
+     */
+    private static final int DECREASE_INTERVAL = 10;
+    private static final int MIN_LIMIT = 1;
+
+    private final int maxLimit;
+    private final boolean adaptive;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+    // Состояние пересчета ограничения, изменяется под updateLock
+    private double smoothedLatency;
+    private long baselineLatency = Long.MAX_VALUE;
+    private long windowMinLatency = Long.MAX_VALUE;
+    private int windowSamples;
+    private long samples;
+    private long lastDecreaseSample;
+
+    /**
+     * @param maxLimit  наибольшее ограничение, с него начинается работа
+     * @param adaptive  подстраивать ограничение под время ответа
+     * @param tolerance допустимое отношение сглаженного времени ответа к базовому
+     */
+    public ConcurrencyLimiter(int maxLimit, boolean adaptive, double tolerance) {
+        if (maxLimit < MIN_LIMIT) {
+            throw new IllegalArgumentException("Ограничение должно быть больше нуля");
+        }
+        this.maxLimit = maxLimit;
+        this.adaptive = adaptive;
+        this.tolerance = tolerance;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Пытается занять место для запроса
+     *
+     * @return true, если запрос можно выполнять; тогда обязательно вызвать {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место, занятое запросом, и учитывает время его выполнения
+     *
+     * @param latencyNanos время выполнения запроса в наносекундах
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (!adaptive || !updateLock.tryLock()) {
+            return;
+        }
+        try {
+            updateLimit(latencyNanos, inFlightBefore);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void updateLimit(long latency, int inFlightBefore) {
+        smoothedLatency = smoothedLatency == 0 ? latency : smoothedLatency + (latency - smoothedLatency) * SMOOTHING;
+        windowMinLatency = Math.min(windowMinLatency, latency);
+        samples++;
+        if (++windowSamples >= BASELINE_WINDOW || samples <= WARMUP_SAMPLES) {
+            baselineLatency = windowMinLatency;
+            if (samples > WARMUP_SAMPLES) {
+                windowMinLatency = Long.MAX_VALUE;
+            }
+            windowSamples = 0;
+        }
+        if (samples < WARMUP_SAMPLES) {
+            return;
+        }
+
+        int current = limit;
+        if (smoothedLatency > baselineLatency * tolerance + LATENCY_SLACK_NANOS) {
+            if (samples - lastDecreaseSample >= DECREASE_INTERVAL) {
+                limit = Math.max(MIN_LIMIT, (int) (current * BACKOFF_RATIO));
+                lastDecreaseSample = samples;
+            }
+        } else if (inFlightBefore * 2 >= current && current < maxLimit) {
+            limit = current + 1;
+        }
+    }
+
+    /**
+     * @return текущее ограничение числа одновременных запросов
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return число выполняемых сейчас запросов
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,108 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фильтр для плавной остановки сервера.
+ * Считает выполняемые запросы; после {@link #startDraining()} новые запросы получают 503
+ * с {@code Connection: close}, чтобы клиент или балансировщик повторил их на другом экземпляре,
+ * а {@link #awaitDrained(long)} дожидается завершения уже принятых.
+ */
+public class DrainFilter extends Filter {
+    private static final byte[] SHUTTING_DOWN_BODY =
+            "{\"error\":\"Сервер останавливается, повторите запрос позже\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object drainedMonitor = new Object();
+    private volatile boolean draining;
+
+    /**
+     * Выполняет запрос, если остановка еще не началась, иначе отвечает 503.
+     *
+     * @param exchange HTTP обмен
+     * @param chain    цепочка фильтров и обработчик
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        // Счетчик увеличивается до проверки флага: запрос, прошедший проверку,
+        // гарантированно виден в awaitDrained
+        inFlight.incrementAndGet();
+        try {
+            if (draining) {
+                reject(exchange);
+                return;
+            }
+            chain.doFilter(exchange);
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && draining) {
+                synchronized (drainedMonitor) {
+                    drainedMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static void reject(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(503, SHUTTING_DOWN_BODY.length);
+            exchange.getResponseBody().write(SHUTTING_DOWN_BODY);
+        }
+    }
+
+    /**
+     * Прекращает прием новых запросов
+     */
+    public void startDraining() {
+        draining = true;
+    }
+
+    /**
+     * Дожидается завершения выполняемых запросов
+     *
+     * @param timeoutNanos наибольшее время ожидания в наносекундах
+     * @return true, если все запросы завершились за отведенное время
+     * @throws InterruptedException если ожидание прервано
+     */
+    public boolean awaitDrained(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (drainedMonitor) {
+            while (inFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(drainedMonitor, remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true, если остановка началась
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * @return число выполняемых запросов
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String description() {
+        return "Учет выполняемых запросов для плавной остановки";
+    }
+}
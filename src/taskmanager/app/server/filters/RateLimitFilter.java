@@ -0,0 +1,176 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import taskmanager.app.server.ClientIdentity;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр, ограничивающий частоту запросов каждого клиента к группе маршрутов.
+ * Клиент определяется через {@link ClientIdentity}, анонимный - по IP адресу.
+ * Идентичность задает сам клиент, поэтому поверх корзин клиентов действует общий
+ * потолок IP адреса ({@link ServerConfig#getRateLimitClientsPerIp()} бюджетов клиента):
+ * смена {@code X-Client-Id} на каждый запрос не обходит ограничение. Корзина клиента
+ * заводится только после проверки потолка, так что такой клиент не вытесняет из LRU остальных.
+ * У каждого клиента две {@link TokenBucket}: для чтения (GET, HEAD) и для изменений,
+ * поэтому частые записи одного скрипта не лишают его чтения, а чтение не расходует бюджет записей.
+ * Запрос сверх бюджета получает 429 с заголовком {@code Retry-After}.
+ *
+ * <p>Корзины хранятся в LRU активных клиентов ограниченного размера, разбитом на сегменты
+ * со своей блокировкой: поиск клиента блокирует только его сегмент, а сама корзина
+ * обновляется без блокировок. Вытесненный клиент при следующем запросе получает полную корзину.
+ */
+public class RateLimitFilter extends Filter {
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"Слишком много запросов, повторите позже\"}".getBytes(StandardCharsets.UTF_8);
+    private static final int STRIPES = 16;
+    private static final String ANONYMOUS = "anonymous";
+    private static final String IP_PREFIX = "ip:";
+    private static final String IP_CEILING_PREFIX = "ip-ceiling:";
+
+    private final String route;
+    private final double readRate;
+    private final int readBurst;
+    private final double writeRate;
+    private final int writeBurst;
+    private final int clientsPerIp;
+    private final ClientStripe[] stripes = new ClientStripe[STRIPES];
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param config настройки сервера
+     * @param route  путь группы маршрутов, например {@code /subtasks}
+     */
+    public RateLimitFilter(ServerConfig config, String route) {
+        this.route = route;
+        this.readRate = config.getReadRateLimit(route);
+        this.readBurst = config.getReadBurst(route);
+        this.writeRate = config.getWriteRateLimit(route);
+        this.writeBurst = config.getWriteBurst(route);
+        this.clientsPerIp = config.getRateLimitClientsPerIp();
+        int stripeCapacity = Math.max(1, config.getRateLimitMaxClients() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ClientStripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Пропускает запрос, если у клиента есть токен, иначе отвечает 429.
+     *
+     * @param exchange HTTP обмен
+     * @param chain    цепочка фильтров и обработчик
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        boolean read = "GET".equals(exchange.getRequestMethod()) || "HEAD".equals(exchange.getRequestMethod());
+        String ip = remoteIp(exchange);
+        long waitNanos = bucketsOf(IP_CEILING_PREFIX + ip, clientsPerIp).select(read).tryConsume();
+        if (waitNanos <= 0) {
+            String identity = ClientIdentity.resolve(exchange);
+            String client = identity != null ? identity : IP_PREFIX + ip;
+            waitNanos = bucketsOf(client, 1).select(read).tryConsume();
+        }
+        if (waitNanos > 0) {
+            rejected.increment();
+            reject(exchange, waitNanos);
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    private static String remoteIp(HttpExchange exchange) {
+        InetSocketAddress address = exchange.getRemoteAddress();
+        return address != null && address.getAddress() != null
+                ? address.getAddress().getHostAddress() : ANONYMOUS;
+    }
+
+    /**
+     * @param key        ключ клиента или потолка IP адреса
+     * @param multiplier во сколько раз бюджет корзин больше бюджета клиента
+     */
+    private ClientBuckets bucketsOf(String key, int multiplier) {
+        int hash = key.hashCode();
+        ClientStripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            ClientBuckets buckets = stripe.get(key);
+            if (buckets == null) {
+                buckets = new ClientBuckets(new TokenBucket(readRate * multiplier, scale(readBurst, multiplier)),
+                        new TokenBucket(writeRate * multiplier, scale(writeBurst, multiplier)));
+                stripe.put(key, buckets);
+            }
+            return buckets;
+        }
+    }
+
+    private static int scale(int burst, int multiplier) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) burst * multiplier);
+    }
+
+    private static void reject(HttpExchange exchange, long waitNanos) throws IOException {
+        try (exchange) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(seconds));
+            exchange.sendResponseHeaders(429, TOO_MANY_REQUESTS_BODY.length);
+            exchange.getResponseBody().write(TOO_MANY_REQUESTS_BODY);
+        }
+    }
+
+    /**
+     * @return число запросов, отклоненных с 429
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return число отслеживаемых клиентов вместе с потолками их IP адресов
+     */
+    public int getTrackedClients() {
+        int clients = 0;
+        for (ClientStripe stripe : stripes) {
+            synchronized (stripe) {
+                clients += stripe.size();
+            }
+        }
+        return clients;
+    }
+
+    @Override
+    public String description() {
+        return "Ограничение частоты запросов клиентов к " + route;
+    }
+
+    private record ClientBuckets(TokenBucket read, TokenBucket write) {
+        TokenBucket select(boolean read) {
+            return read ? this.read : this.write;
+        }
+    }
+
+    /**
+     * Сегмент LRU клиентов в порядке последнего обращения
+     */
+    private static final class ClientStripe extends LinkedHashMap<String, ClientBuckets> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        ClientStripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ClientBuckets> eldest) {
+            return size() > capacity;
+        }
+    }
+}
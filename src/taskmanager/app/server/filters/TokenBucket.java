@@ -0,0 +1,66 @@
+package taskmanager.app.server.filters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок.
+ * Реализована как алгоритм GCRA: вместо числа токенов хранится одно значение -
+ * теоретическое время прихода следующего запроса. Каждый запрос сдвигает его на интервал
+ * между токенами; запрос отклоняется, если это время уходит в будущее дальше, чем позволяет
+ * емкость корзины. Это эквивалентно корзине с заданной скоростью пополнения и емкостью,
+ * но состояние обновляется одной операцией compareAndSet.
+ */
+public class TokenBucket {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    /**
+     * Теоретическое время прихода следующего запроса в нс по {@link System#nanoTime()}
+     */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param tokensPerSecond скорость пополнения корзины
+     * @param capacity        емкость корзины - наибольшее число запросов подряд
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        this(tokensPerSecond, capacity, System.nanoTime());
+    }
+
+    /**
+     * @param now текущее время в нс, с которого корзина считается полной
+     */
+    TokenBucket(double tokensPerSecond, int capacity, long now) {
+        if (!(tokensPerSecond > 0) || capacity <= 0) {
+            throw new IllegalArgumentException("Скорость и емкость корзины токенов должны быть больше нуля");
+        }
+        this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / tokensPerSecond));
+        this.toleranceNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Пытается взять токен
+     *
+     * @return 0, если токен получен, иначе время в нс до появления следующего токена
+     */
+    public long tryConsume() {
+        return tryConsume(System.nanoTime());
+    }
+
+    long tryConsume(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival - now, 0) + now + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
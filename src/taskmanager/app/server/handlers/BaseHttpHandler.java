@@ -1,14 +1,44 @@
 package taskmanager.app.server.handlers;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import taskmanager.app.entity.Task;
+import taskmanager.app.exception.RequestBodyTooLargeException;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
+import taskmanager.app.server.cbor.Cbor;
+import taskmanager.app.server.cbor.CborReader;
+import taskmanager.app.server.cbor.CborWriter;
+import taskmanager.app.server.nio.NioHttpExchange;
+import taskmanager.app.util.BatchItemResult;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Абстрактный базовый класс для обработчиков HTTP запросов.
@@ -16,20 +46,375 @@ import java.nio.charset.StandardCharsets;
  * включая чтение тела запроса, отправку ответов с различными статус-кодами
  * и извлечение параметров из пути URL.
  * Все конкретные обработчики должны наследоваться от этого класса.
+ *
+ * <p>Наследники регистрируют маршруты в {@link #router} при создании. Запрос к неизвестному
+ * пути получает 404, к известному пути с незарегистрированным методом - 405 с заголовком
+ * {@code Allow}, с нечисловым идентификатором в пути - 400.
+ *
+ * <p>Ответы сериализуются в компактный JSON. Форматированный JSON отправляется,
+ * если клиент запросил его параметром {@code ?pretty=true} или параметром
+ * медиа-типа в заголовке {@code Accept: application/json; pretty=true}.
+ *
+ * <p>Списки поддерживают постраничную выдачу: параметр {@code limit} задает размер
+ * страницы, {@code cursor} - курсор из заголовка {@value #NEXT_CURSOR_HEADER}
+ * предыдущего ответа. Заголовок отсутствует на последней странице.
+ *
+ * <p>Списки снабжаются заголовком {@code ETag}, построенным из версии данных менеджера.
+ * Если клиент присылает ту же метку в {@code If-None-Match}, отвечает 304 без тела.
+ *
+ * <p>Ответы от заданного в {@link ServerConfig} размера сжимаются gzip или deflate,
+ * если клиент указал поддержку в {@code Accept-Encoding}.
+ *
+ * <p>{@code POST .../}{@value #BATCH_PATH} принимает пакет элементов JSON-массивом
+ * или потоком NDJSON (по объекту на строку) и применяет его как единое целое.
+ *
+ * <p>GET запросы принимают параметр {@code fields=id,name,status}: в ответе остаются только
+ * перечисленные поля объекта или элементов списка. Поля отбрасываются при потоковой записи.
+ *
+ * <p>Кроме JSON поддерживается двоичный формат CBOR ({@value Cbor#MEDIA_TYPE}) с той же
+ * моделью данных: тело запроса разбирается как CBOR при соответствующем {@code Content-Type},
+ * ответ кодируется в CBOR, если клиент указал этот тип в {@code Accept}, а при отсутствии
+ * {@code Accept} - если запрос прислан в CBOR. Пакет в CBOR - массив или последовательность значений.
+ *
+ * <p>Тело запроса разбирается прямо из потока, не собираясь в память целиком. Размер тела
+ * ограничен {@link ServerConfig#getMaxRequestBodyBytes()}: запрос с большим заявленным
+ * {@code Content-Length} получает 413 до чтения тела, а тело без длины - как только превысит предел.
  */
 public abstract class BaseHttpHandler implements HttpHandler {
+    /**
+     * Имя параметра запроса и медиа-типа для форматированного JSON
+     */
+    public static final String PRETTY_PARAMETER = "pretty";
+    /**
+     * Заголовок ответа с курсором следующей страницы
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /**
+     * Размер страницы, если передан только курсор
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    /**
+     * Максимальный размер страницы
+     */
+    public static final int MAX_PAGE_SIZE = 1_000;
+    /**
+     * Последний сегмент пути пакетной загрузки
+     */
+    public static final String BATCH_PATH = "batch";
+    /**
+     * Параметр запроса со списком оставляемых полей через запятую
+     */
+    public static final String FIELDS_PARAMETER = "fields";
+    /**
+     * Метка запуска сервера: версии менеджера начинаются заново после перезапуска,
+     * поэтому метки прежнего процесса не должны совпадать с новыми
+     */
+    private static final String INSTANCE_TAG = Long.toString(System.currentTimeMillis(), 36);
+    /**
+     * Размер буфера потоковой записи ответа
+     */
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+    /**
+     * Заголовки запроса, от которых зависит представление ответа
+     */
+    private static final String VARY = "Accept, Accept-Encoding";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /**
+     * Маршруты обработчика; заполняются в конструкторе наследника
+     */
+    protected final Router router = new Router();
     protected final TaskManager taskManager;
     protected final Gson gson;
+    /**
+     * Экземпляр Gson с форматированием, разделяющий настройки основного
+     */
+    protected final Gson prettyGson;
+    protected final ServerConfig config;
+    /**
+     * Кэш готовых ответов обработчика или null, если кэш выключен в настройках
+     */
+    protected final ResponseCache responseCache;
+    /**
+     * Объединение одновременных одинаковых запросов чтения или null, если оно выключено в настройках
+     */
+    private final SingleFlight<String, ResponseCache.CachedResponse> readFlights;
 
     /**
-     * Конструктор базового обработчика.
+     * Конструктор базового обработчика с настройками сервера по умолчанию.
      *
      * @param taskManager менеджер задач для выполнения операций
      * @param gson экземпляр Gson для сериализации и десериализации JSON
      */
     protected BaseHttpHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ServerConfig());
+    }
+
+    /**
+     * Конструктор базового обработчика.
+     *
+     * @param taskManager менеджер задач для выполнения операций
+     * @param gson экземпляр Gson для сериализации и десериализации JSON
+     * @param config настройки сервера
+     */
+    protected BaseHttpHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
         this.taskManager = taskManager;
         this.gson = gson;
+        this.prettyGson = gson.newBuilder().setPrettyPrinting().create();
+        this.config = config;
+        this.responseCache = config.isResponseCacheEnabled()
+                ? new ResponseCache(config.getResponseCacheMaxBytes(), config.getResponseCacheMaxEntryBytes())
+                : null;
+        this.readFlights = config.isRequestCoalescingEnabled() ? new SingleFlight<>() : null;
+    }
+
+    /**
+     * Обрабатывает входящий HTTP запрос: передает его обработчику маршрута
+     * или отвечает ошибкой маршрутизации.
+     *
+     * @param exchange HTTP обмен для обработки запроса и отправки ответа
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (declaredBodyLength(exchange) > config.getMaxRequestBodyBytes()) {
+                sendPayloadTooLarge(exchange);
+                return;
+            }
+            switch (router.dispatch(exchange)) {
+                case NOT_FOUND -> sendNotFound(exchange, "Ресурс " + exchange.getRequestURI().getPath() + " не найден");
+                case BAD_PARAMETER -> sendBadRequest(exchange, invalidIdMessage());
+                case METHOD_NOT_ALLOWED -> sendMethodNotAllowed(exchange);
+                case DISPATCHED -> {
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (RequestBodyTooLargeException e) {
+            sendPayloadTooLarge(exchange);
+        } catch (Exception e) {
+            sendInternalError(exchange, "Внутренняя ошибка сервера: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Выбирает экземпляр Gson для ответа в зависимости от запроса клиента.
+     *
+     * @param exchange HTTP обмен
+     * @return Gson с форматированием, если клиент его запросил, иначе компактный
+     */
+    protected Gson responseGson(HttpExchange exchange) {
+        return isPrettyRequested(exchange) ? prettyGson : gson;
+    }
+
+    /**
+     * Проверяет, запросил ли клиент форматированный JSON.
+     *
+     * @param exchange HTTP обмен
+     * @return true, если задан параметр запроса или медиа-типа {@code pretty}
+     */
+    protected boolean isPrettyRequested(HttpExchange exchange) {
+        String queryValue = getQueryParameter(exchange, PRETTY_PARAMETER);
+        if (queryValue != null) {
+            return queryValue.isEmpty() || isTrue(queryValue);
+        }
+        String accept = exchange.getRequestHeaders() != null
+                ? exchange.getRequestHeaders().getFirst("Accept") : null;
+        if (accept == null) {
+            return false;
+        }
+        for (String parameter : accept.split("[;,]")) {
+            int eq = parameter.indexOf('=');
+            if (eq > 0 && parameter.substring(0, eq).trim().equalsIgnoreCase(PRETTY_PARAMETER)) {
+                return isTrue(parameter.substring(eq + 1).trim());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTrue(String value) {
+        return value.equalsIgnoreCase("true") || value.equals("1");
+    }
+
+    /**
+     * Проверяет, прислано ли тело запроса в CBOR.
+     *
+     * @param exchange HTTP обмен
+     * @return true, если {@code Content-Type} запроса - {@value Cbor#MEDIA_TYPE}
+     */
+    protected boolean isCborRequest(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders() != null
+                ? exchange.getRequestHeaders().getFirst("Content-Type") : null;
+        return contentType != null && mediaTypeOf(contentType).equalsIgnoreCase(Cbor.MEDIA_TYPE);
+    }
+
+    /**
+     * Проверяет, нужно ли кодировать ответ в CBOR.
+     *
+     * @param exchange HTTP обмен
+     * @return true, если клиент принимает {@value Cbor#MEDIA_TYPE}, или не указал {@code Accept}
+     * и прислал запрос в CBOR
+     */
+    protected boolean isCborResponse(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders() != null
+                ? exchange.getRequestHeaders().getFirst("Accept") : null;
+        if (accept == null) {
+            return isCborRequest(exchange);
+        }
+        for (String range : accept.split(",")) {
+            String[] tokens = range.split(";");
+            if (!tokens[0].trim().equalsIgnoreCase(Cbor.MEDIA_TYPE)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String mediaTypeOf(String value) {
+        int semicolon = value.indexOf(';');
+        return (semicolon < 0 ? value : value.substring(0, semicolon)).trim();
+    }
+
+    /**
+     * @return длина тела из заголовка {@code Content-Length} или -1, если она не указана
+     */
+    private static long declaredBodyLength(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders() != null
+                ? exchange.getRequestHeaders().getFirst("Content-Length") : null;
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return поток тела запроса, бросающий {@link RequestBodyTooLargeException} при превышении предела
+     */
+    private InputStream requestBody(HttpExchange exchange) {
+        return new BoundedInputStream(exchange.getRequestBody(), config.getMaxRequestBodyBytes());
+    }
+
+    /**
+     * Создает читатель тела запроса в формате, указанном в {@code Content-Type}.
+     * Читатель JSON допускает последовательность значений. JsonReader буферизует ввод сам,
+     * поэтому поток декодируется без дополнительного буфера символов.
+     *
+     * @param exchange HTTP обмен для чтения тела запроса
+     * @return читатель JSON или CBOR
+     */
+    private JsonReader newRequestReader(HttpExchange exchange) {
+        if (isCborRequest(exchange)) {
+            return new CborReader(new BufferedInputStream(requestBody(exchange), STREAM_BUFFER_SIZE));
+        }
+        JsonReader reader = gson.newJsonReader(new InputStreamReader(requestBody(exchange), StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Читает один объект из тела запроса в формате JSON или CBOR потоком, не собирая тело в строку.
+     *
+     * @param exchange HTTP обмен для чтения тела запроса
+     * @param type класс объекта
+     * @return прочитанный объект или null для пустого тела и значения null
+     * @throws JsonSyntaxException если тело не является корректным JSON или CBOR
+     * @throws RequestBodyTooLargeException если тело больше разрешенного размера
+     * @throws IOException если произошла ошибка ввода-вывода при чтении тела запроса
+     */
+    protected <T> T readEntity(HttpExchange exchange, Class<T> type) throws IOException {
+        try (JsonReader reader = newRequestReader(exchange)) {
+            T entity = gson.fromJson(reader, type);
+            if (entity != null && reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Лишние данные после значения");
+            }
+            return entity;
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Читает элементы из тела запроса потоком, не собирая тело в строку.
+     * Принимает JSON-массив или последовательность JSON-значений (NDJSON),
+     * для CBOR - массив или последовательность значений CBOR.
+     *
+     * @param exchange HTTP обмен для чтения тела запроса
+     * @param type класс элементов
+     * @return элементы в порядке следования; null для значения null
+     * @throws JsonParseException если тело не является корректным JSON или CBOR
+     * @throws RequestBodyTooLargeException если тело больше разрешенного размера
+     * @throws IOException если произошла ошибка ввода-вывода при чтении тела запроса
+     */
+    protected <T> List<T> readItems(HttpExchange exchange, Class<T> type) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (JsonReader reader = newRequestReader(exchange)) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    items.add(gson.fromJson(reader, type));
+                }
+                reader.endArray();
+            }
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                items.add(gson.fromJson(reader, type));
+            }
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+        return items;
+    }
+
+    /**
+     * Обрабатывает пакетную загрузку: читает элементы и применяет их как единое целое.
+     * Отвечает 201 с результатами по каждому элементу, если пакет применен,
+     * иначе 406 при пересечении по времени или 400 с теми же результатами.
+     * Если отменить пакет целиком не удалось, отвечает 500 с результатами.
+     *
+     * @param exchange HTTP обмен для обработки запроса
+     * @param type класс элементов пакета
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    protected void handleBatch(HttpExchange exchange, Class<? extends Task> type) throws IOException {
+        List<? extends Task> items;
+        try {
+            items = readItems(exchange, type);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, "Неверный запрос: некорректный JSON формат");
+            return;
+        }
+        if (items.isEmpty()) {
+            sendBadRequest(exchange, "Пакет задач пуст");
+            return;
+        }
+
+        List<BatchItemResult> results = taskManager.applyBatch(items);
+        int statusCode = 201;
+        for (BatchItemResult result : results) {
+            if (result.getStatus() == BatchItemResult.Status.FAILED && statusCode != 500) {
+                String error = result.getError();
+                statusCode = error != null && error.contains("пересекается") ? 406 : 400;
+            } else if (result.getStatus() == BatchItemResult.Status.ROLLBACK_FAILED) {
+                statusCode = 500;
+            }
+        }
+        sendObject(exchange, results, statusCode);
     }
 
     /**
@@ -37,10 +422,11 @@ public abstract class BaseHttpHandler implements HttpHandler {
      *
      * @param exchange HTTP обмен для чтения тела запроса
      * @return содержимое тела запроса в виде строки
+     * @throws RequestBodyTooLargeException если тело больше разрешенного размера
      * @throws IOException если произошла ошибка ввода-вывода при чтении тела запроса
      */
     public String readRequestBody(HttpExchange exchange) throws IOException {
-        try (InputStream inputStream = exchange.getRequestBody()) {
+        try (InputStream inputStream = requestBody(exchange)) {
             return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         }
     }
@@ -54,10 +440,90 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     public void sendText(HttpExchange exchange, String response, int statusCode) throws IOException {
-        byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+        sendBytes(exchange, response.getBytes(StandardCharsets.UTF_8), JSON_CONTENT_TYPE, statusCode);
+    }
 
-        if (exchange.getResponseHeaders() != null) {
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    /**
+     * Отправляет объект в формате, выбранном по запросу клиента: JSON или CBOR.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @param responseObject объект для сериализации и отправки в теле ответа
+     * @param statusCode HTTP статус-код ответа
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected void sendObject(HttpExchange exchange, Object responseObject, int statusCode) throws IOException {
+        sendObject(exchange, responseObject, statusCode, null);
+    }
+
+    /**
+     * Отправляет объект, оставляя при необходимости только выбранные поля
+     *
+     * @param fields оставляемые поля или null для всех полей
+     */
+    private void sendObject(HttpExchange exchange, Object responseObject, int statusCode,
+                            Set<String> fields) throws IOException {
+        boolean cbor = isCborResponse(exchange);
+        if (!cbor && fields == null) {
+            sendText(exchange, responseGson(exchange).toJson(responseObject), statusCode);
+            return;
+        }
+        Gson responseGson = cbor ? gson : responseGson(exchange);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        JsonWriter writer = cbor
+                ? new CborWriter(buffer)
+                : responseGson.newJsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+        try (JsonWriter target = project(writer, fields, 1)) {
+            if (responseObject == null) {
+                target.nullValue();
+            } else {
+                responseGson.toJson(responseObject, responseObject.getClass(), target);
+            }
+        }
+        sendBytes(exchange, buffer.toByteArray(), cbor ? Cbor.MEDIA_TYPE : JSON_CONTENT_TYPE, statusCode);
+    }
+
+    /**
+     * Возвращает поля, запрошенные параметром {@value #FIELDS_PARAMETER} в GET запросе.
+     *
+     * @param exchange HTTP обмен
+     * @return имена полей или null, если клиент не ограничивал поля
+     */
+    protected Set<String> requestedFields(HttpExchange exchange) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return null;
+        }
+        String value = getQueryParameter(exchange, FIELDS_PARAMETER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Set<String> fields = new HashSet<>();
+        for (String field : value.split(",")) {
+            if (!field.isBlank()) {
+                fields.add(field.trim());
+            }
+        }
+        return fields;
+    }
+
+    private static JsonWriter project(JsonWriter writer, Set<String> fields, int fieldDepth) {
+        return fields == null ? writer : new ProjectingJsonWriter(writer, fields, fieldDepth);
+    }
+
+    /**
+     * Отправляет готовое тело ответа, сжимая его, если клиент это поддерживает.
+     */
+    private void sendBytes(HttpExchange exchange, byte[] responseBytes, String contentType,
+                           int statusCode) throws IOException {
+        setContentHeaders(exchange, contentType);
+
+        String encoding = responseBytes.length >= config.getCompressionMinSize()
+                ? negotiateEncoding(exchange) : null;
+        if (encoding != null) {
+            try (OutputStream os = new CompressingResponseStream(
+                    exchange, statusCode, encoding, config.getCompressionLevel(), 0)) {
+                os.write(responseBytes);
+            }
+            return;
         }
 
         if (responseBytes.length == 0) {
@@ -78,14 +544,316 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     /**
      * Отправляет успешный ответ со статусом 200 OK.
+     * В ответе на GET остаются только поля, перечисленные в {@value #FIELDS_PARAMETER}, если он задан.
      *
      * @param exchange HTTP обмен для отправки ответа
      * @param responseObject объект для сериализации в JSON и отправки в теле ответа
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendSuccess(HttpExchange exchange, Object responseObject) throws IOException {
-        String response = gson.toJson(responseObject);
-        sendText(exchange, response, 200);
+        sendObject(exchange, responseObject, 200, requestedFields(exchange));
+    }
+
+    /**
+     * Отправляет список со статусом 200 OK, сериализуя элементы по одному
+     * прямо в тело ответа с chunked-кодированием и сжатием на лету.
+     * Ответ не собирается в памяти целиком, поэтому расход памяти не зависит
+     * от размера списка. Ошибка после начала отправки обрывает соединение.
+     * Параметр {@value #FIELDS_PARAMETER} ограничивает поля элементов.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @param items элементы JSON-массива
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected void sendList(HttpExchange exchange, Iterable<?> items) throws IOException {
+        boolean cbor = isCborResponse(exchange);
+        Gson responseGson = cbor ? gson : responseGson(exchange);
+        setContentHeaders(exchange, cbor ? Cbor.MEDIA_TYPE : JSON_CONTENT_TYPE);
+
+        OutputStream body;
+        String encoding = negotiateEncoding(exchange);
+        if (encoding != null) {
+            body = new CompressingResponseStream(exchange, 200, encoding,
+                    config.getCompressionLevel(), config.getCompressionMinSize());
+        } else {
+            exchange.sendResponseHeaders(200, 0);
+            body = exchange.getResponseBody();
+        }
+
+        JsonWriter writer = project(cbor
+                ? new CborWriter(new BufferedOutputStream(body, STREAM_BUFFER_SIZE))
+                : responseGson.newJsonWriter(new BufferedWriter(
+                        new OutputStreamWriter(body, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE)),
+                requestedFields(exchange), 2);
+        try (writer) {
+            writer.beginArray();
+            for (Object item : items) {
+                if (item == null) {
+                    writer.nullValue();
+                } else {
+                    responseGson.toJson(item, item.getClass(), writer);
+                }
+            }
+            writer.endArray();
+        } catch (RuntimeException e) {
+            exchange.close();
+            throw new IOException("Ошибка потоковой отправки ответа: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Отправляет список целиком или его страницу, если клиент передал {@code limit} или {@code cursor}.
+     * Загружается на один элемент больше размера страницы, чтобы определить наличие следующей.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @param all      загрузка всего списка
+     * @param page     загрузка страницы по курсору (null - с начала) и размеру;
+     *                 бросает IllegalArgumentException для некорректного курсора
+     * @param cursorOf курсор, указывающий на элемент
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected <T> void sendPaged(HttpExchange exchange, Supplier<? extends List<T>> all,
+                                 PageLoader<T> page, Function<T, String> cursorOf) throws IOException {
+        String limitParam = getQueryParameter(exchange, "limit");
+        String cursor = getQueryParameter(exchange, "cursor");
+        if (limitParam == null && cursor == null) {
+            sendList(exchange, all.get());
+            return;
+        }
+
+        int limit;
+        try {
+            limit = limitParam == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            limit = -1;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            sendBadRequest(exchange, "Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+            return;
+        }
+
+        List<T> items;
+        try {
+            items = page.load(cursor == null || cursor.isEmpty() ? null : cursor, limit + 1);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, "Некорректный курсор страницы");
+            return;
+        }
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, cursorOf.apply(items.get(limit - 1)));
+        }
+        sendList(exchange, items);
+    }
+
+    /**
+     * Отправляет ответ на GET из кэша готовых ответов, а при промахе строит его,
+     * сохраняет и отправляет. Ответ, построенный из данных другой версии, в кэше устарел.
+     * Ключом служат путь, параметры запроса и формат ответа, включая сжатие:
+     * сжатые ответы хранятся уже сжатыми. Кэшируются только ответы 200;
+     * ответ больше предела кэша отправляется потоком, как без кэша.
+     *
+     * <p>Одинаковые запросы к одной версии данных, пришедшие, пока ответ строится,
+     * не строят его заново, а ждут и получают тот же готовый ответ. Так всплеск запросов
+     * после изменения стоит одного чтения и одной сериализации. Ответ, переросший предел,
+     * отпускает ожидающих до отправки первого байта: они не ждут чужой передачи по сети.
+     *
+     * @param exchange HTTP обмен
+     * @param version  версия данных, полученная до их чтения
+     * @param writer   построение ответа; получает обмен, собирающий ответ в память
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected void sendCached(HttpExchange exchange, long version, ResponseWriter writer) throws IOException {
+        if (responseCache == null && readFlights == null) {
+            writer.write(exchange);
+            return;
+        }
+        String key = cacheKey(exchange);
+        ResponseCache.CachedResponse cached = responseCache != null ? responseCache.get(key, version) : null;
+        if (cached == null) {
+            cached = readFlights != null
+                    ? readFlights.execute(key + '#' + version,
+                            detach -> buildResponse(exchange, key, version, writer, detach))
+                    : buildResponse(exchange, key, version, writer, () -> { });
+            if (cached == null) {
+                return;
+            }
+        }
+        sendCachedResponse(exchange, cached);
+    }
+
+    /**
+     * Строит ответ в памяти и кэширует его
+     *
+     * @param onPassThrough вызывается перед отправкой ответа, переросшего предел, потоком
+     * @return готовый ответ или null, если ответ уже отправлен клиенту потоком
+     */
+    private ResponseCache.CachedResponse buildResponse(HttpExchange exchange, String key, long version,
+                                                       ResponseWriter writer, Runnable onPassThrough)
+            throws IOException {
+        CapturingExchange capture = new CapturingExchange(exchange, config.getResponseCacheMaxEntryBytes(),
+                onPassThrough);
+        writer.write(capture);
+        if (capture.isPassedThrough()) {
+            return null;
+        }
+        capture.close();
+        ResponseCache.CachedResponse response = capture.toResponse(version);
+        if (response != null && response.statusCode() == 200 && responseCache != null) {
+            responseCache.put(key, response);
+        }
+        return response;
+    }
+
+    private String cacheKey(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        String format = isCborResponse(exchange) ? "cbor" : isPrettyRequested(exchange) ? "pretty" : "json";
+        return exchange.getRequestURI().getPath() + (query != null ? "?" + query : "")
+                + '|' + format + '|' + negotiateEncoding(exchange);
+    }
+
+    private static void sendCachedResponse(HttpExchange exchange, ResponseCache.CachedResponse response)
+            throws IOException {
+        response.applyHeaders(exchange.getResponseHeaders());
+        byte[] body = response.body();
+        if (exchange instanceof NioHttpExchange nioExchange) {
+            // NIO сервер отправляет готовое тело из кэша без копирования в буфер ответа
+            nioExchange.sendResponse(response.statusCode(), ByteBuffer.wrap(body).asReadOnlyBuffer());
+            return;
+        }
+        exchange.sendResponseHeaders(response.statusCode(), body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            if (body.length > 0) {
+                os.write(body);
+            }
+        }
+    }
+
+    /**
+     * Разбирает курсор в виде id последнего элемента страницы.
+     *
+     * @param cursor курсор или null для первой страницы
+     * @return id, после которого начинается страница
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    protected static int parseIdCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        int afterId = Integer.parseInt(cursor);
+        if (afterId < 0) {
+            throw new IllegalArgumentException("Отрицательный курсор: " + cursor);
+        }
+        return afterId;
+    }
+
+    /**
+     * Устанавливает ETag представления для указанной версии данных и, если клиент
+     * уже имеет это представление, отвечает 304 Not Modified.
+     * Версию нужно получить до чтения данных: тогда изменение во время чтения
+     * приведет к устаревшей метке и повторной загрузке, а не к потере изменений.
+     *
+     * @param exchange HTTP обмен
+     * @param version версия данных, из которых строится ответ
+     * @return true, если отправлен ответ 304 и обработку нужно завершить
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected boolean sendNotModifiedIfMatches(HttpExchange exchange, long version) throws IOException {
+        String etag = buildEtag(exchange, version);
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Vary", VARY);
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !etagMatches(ifNoneMatch, etag)) {
+            return false;
+        }
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    /**
+     * Строит метку представления: версия данных, параметры запроса и формат вывода
+     */
+    private String buildEtag(HttpExchange exchange, long version) {
+        StringBuilder etag = new StringBuilder("\"").append(INSTANCE_TAG).append('-').append(version);
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            etag.append('-').append(Integer.toHexString(query.hashCode()));
+        }
+        if (isCborResponse(exchange)) {
+            etag.append("-cbor");
+        } else if (isPrettyRequested(exchange)) {
+            etag.append("-p");
+        }
+        String encoding = negotiateEncoding(exchange);
+        if (encoding != null) {
+            etag.append('-').append(encoding);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Выбирает сжатие ответа по заголовку Accept-Encoding: gzip предпочтительнее deflate,
+     * кодировки с {@code q=0} исключаются.
+     *
+     * @param exchange HTTP обмен
+     * @return {@code gzip}, {@code deflate} или null, если ответ не сжимается
+     */
+    protected String negotiateEncoding(HttpExchange exchange) {
+        if (!config.isCompressionEnabled() || exchange.getRequestHeaders() == null) {
+            return null;
+        }
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return null;
+        }
+        Boolean gzip = null;
+        Boolean deflate = null;
+        boolean any = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            switch (coding) {
+                case "gzip" -> gzip = accepted;
+                case "deflate" -> deflate = accepted;
+                case "*" -> any = accepted;
+                default -> {
+                }
+            }
+        }
+        if (gzip != null ? gzip : any) {
+            return "gzip";
+        }
+        return (deflate != null ? deflate : any) ? "deflate" : null;
+    }
+
+    /**
+     * Сравнивает метку со списком из If-None-Match (слабое сравнение)
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -96,8 +864,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendCreated(HttpExchange exchange, Object responseObject) throws IOException {
-        String response = gson.toJson(responseObject);
-        sendText(exchange, response, 201);
+        sendObject(exchange, responseObject, 201);
     }
 
     /**
@@ -108,8 +875,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendNotFound(HttpExchange exchange, String message) throws IOException {
-        String response = gson.toJson(new ErrorResponse(message));
-        sendText(exchange, response, 404);
+        sendObject(exchange, new ErrorResponse(message), 404);
     }
 
     /**
@@ -120,8 +886,25 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendBadRequest(HttpExchange exchange, String message) throws IOException {
-        String response = gson.toJson(new ErrorResponse(message));
-        sendText(exchange, response, 400);
+        sendObject(exchange, new ErrorResponse(message), 400);
+    }
+
+    /**
+     * @return сообщение об ошибке для нечислового идентификатора в пути
+     */
+    protected String invalidIdMessage() {
+        return "Неверный формат ID";
+    }
+
+    /**
+     * Отправляет ответ со статусом 405 Method Not Allowed.
+     * Заголовок Allow устанавливается маршрутизатором.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendObject(exchange, new ErrorResponse("Метод не поддерживается"), 405);
     }
 
     /**
@@ -132,8 +915,20 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendHasInteractions(HttpExchange exchange, String message) throws IOException {
-        String response = gson.toJson(new ErrorResponse(message));
-        sendText(exchange, response, 406);
+        sendObject(exchange, new ErrorResponse(message), 406);
+    }
+
+    /**
+     * Отправляет ответ со статусом 413 Content Too Large.
+     * Непрочитанный остаток тела не разбирается, поэтому соединение закрывается.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+     */
+    protected void sendPayloadTooLarge(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close");
+        sendObject(exchange, new ErrorResponse(
+                "Тело запроса больше " + config.getMaxRequestBodyBytes() + " байт"), 413);
     }
 
     /**
@@ -144,8 +939,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
      */
     protected void sendInternalError(HttpExchange exchange, String message) throws IOException {
-        String response = gson.toJson(new ErrorResponse(message));
-        sendText(exchange, response, 500);
+        sendObject(exchange, new ErrorResponse(message), 500);
     }
 
     /**
@@ -173,6 +967,71 @@ public abstract class BaseHttpHandler implements HttpHandler {
         return null;
     }
 
+    /**
+     * Устанавливает заголовки типа содержимого ответа.
+     *
+     * @param exchange HTTP обмен для отправки ответа
+     * @param contentType тип содержимого
+     */
+    private void setContentHeaders(HttpExchange exchange, String contentType) {
+        if (exchange.getResponseHeaders() != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.getResponseHeaders().set("Vary", VARY);
+        }
+    }
+
+    /**
+     * Возвращает значение параметра строки запроса.
+     *
+     * @param exchange HTTP обмен для получения строки запроса
+     * @param name имя параметра
+     * @return декодированное значение, пустая строка для параметра без значения
+     * или null, если параметр не задан
+     */
+    public String getQueryParameter(HttpExchange exchange, String name) {
+        URI uri = exchange.getRequestURI();
+        String query = uri != null ? uri.getRawQuery() : null;
+        if (query == null || query.isEmpty()) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Загрузка страницы списка
+     *
+     * @param <T> тип элементов
+     */
+    @FunctionalInterface
+    protected interface PageLoader<T> {
+        /**
+         * @param cursor курсор последнего элемента предыдущей страницы или null
+         * @param limit  максимальный размер страницы
+         * @return элементы страницы
+         * @throws IllegalArgumentException если курсор некорректен
+         */
+        List<T> load(String cursor, int limit);
+    }
+
+    /**
+     * Построение ответа, который может быть закэширован
+     */
+    @FunctionalInterface
+    protected interface ResponseWriter {
+        /**
+         * @param exchange обмен, в который отправляется ответ
+         * @throws IOException если произошла ошибка ввода-вывода при отправке ответа
+         */
+        void write(HttpExchange exchange) throws IOException;
+    }
+
     /**
      * Запись для представления ответа с ошибкой.
      * Используется для сериализации сообщений об ошибках в JSON.
@@ -0,0 +1,69 @@
+package taskmanager.app.server.handlers;
+
+import taskmanager.app.exception.RequestBodyTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поток тела запроса с ограничением размера.
+ * Превышение обнаруживается при чтении, поэтому тело без {@code Content-Length}
+ * (например, {@code chunked}) тоже не может занять больше памяти, чем разрешено.
+ * Исключение непроверяемое: разборщик JSON не превращает его в ошибку синтаксиса.
+ */
+final class BoundedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long count;
+
+    /**
+     * @param in       исходный поток
+     * @param maxBytes наибольшее число байт, которое можно прочитать
+     */
+    BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        // Читаем на байт больше остатка, чтобы отличить тело ровно по пределу от превышения
+        int limit = (int) Math.min(len, maxBytes - count + 1);
+        int read = in.read(b, off, Math.max(limit, 1));
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, maxBytes - count + 1));
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long read) {
+        count += read;
+        if (count > maxBytes) {
+            throw new RequestBodyTooLargeException("Тело запроса больше " + maxBytes + " байт");
+        }
+    }
+}
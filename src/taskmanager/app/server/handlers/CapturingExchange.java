@@ -0,0 +1,235 @@
+package taskmanager.app.server.handlers;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP обмен, который собирает ответ в память, чтобы его можно было закэшировать.
+ * Запрос и атрибуты берутся из исходного обмена, а статус, заголовки и тело ответа
+ * накапливаются здесь. Если тело перерастает предел, собранное отправляется клиенту
+ * через исходный обмен и дальнейшая запись идет напрямую - ответ просто не кэшируется,
+ * а большие списки по-прежнему не держатся в памяти целиком. Перед переключением
+ * вызывается {@code onPassThrough}, пока клиенту еще ничего не отправлено.
+ */
+final class CapturingExchange extends HttpExchange {
+    private final HttpExchange delegate;
+    private final int limit;
+    private final Runnable onPassThrough;
+    private final Headers responseHeaders = new Headers();
+    private final CaptureStream body = new CaptureStream();
+    private int statusCode = -1;
+    private long declaredLength;
+    private byte[] buffer = new byte[256];
+    private int count;
+    /**
+     * Поток исходного обмена после переполнения; null, пока ответ собирается в памяти
+     */
+    private OutputStream passThrough;
+    private boolean closed;
+
+    /**
+     * @param delegate      исходный обмен, заголовки ответа которого еще не отправлены
+     * @param limit         наибольший размер собираемого тела в байтах
+     * @param onPassThrough вызывается, когда ответ перерос предел и будет отправлен напрямую
+     */
+    CapturingExchange(HttpExchange delegate, int limit, Runnable onPassThrough) {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.onPassThrough = onPassThrough;
+    }
+
+    /**
+     * Возвращает собранный ответ
+     *
+     * @param version версия данных, из которых построен ответ
+     * @return ответ или null, если ответ не отправлен полностью или уже ушел клиенту напрямую
+     */
+    ResponseCache.CachedResponse toResponse(long version) {
+        if (!closed || passThrough != null || statusCode < 0) {
+            return null;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        return new ResponseCache.CachedResponse(version, statusCode, Map.copyOf(headers),
+                Arrays.copyOf(buffer, count));
+    }
+
+    /**
+     * @return true, если ответ не поместился в предел и уже отправлен напрямую
+     */
+    boolean isPassedThrough() {
+        return passThrough != null;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return delegate.getRequestHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return delegate.getRequestURI();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return delegate.getRequestMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return delegate.getHttpContext();
+    }
+
+    @Override
+    public void close() {
+        try {
+            body.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия ответа: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return delegate.getRequestBody();
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return body;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (statusCode >= 0) {
+            throw new IOException("Заголовки ответа уже отправлены");
+        }
+        statusCode = rCode;
+        declaredLength = responseLength;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return delegate.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return statusCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return delegate.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return delegate.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return delegate.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        delegate.setAttribute(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        throw new UnsupportedOperationException("Подмена потоков при сборе ответа не поддерживается");
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return delegate.getPrincipal();
+    }
+
+    /**
+     * Отправляет собранное клиенту и переключает запись на исходный обмен
+     */
+    private void passThrough() throws IOException {
+        onPassThrough.run();
+        delegate.getResponseHeaders().putAll(responseHeaders);
+        delegate.sendResponseHeaders(statusCode, declaredLength > 0 ? declaredLength : 0);
+        passThrough = delegate.getResponseBody();
+        passThrough.write(buffer, 0, count);
+        buffer = null;
+    }
+
+    /**
+     * Тело ответа: буфер до предела, затем поток исходного обмена
+     */
+    private final class CaptureStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Поток ответа закрыт");
+            }
+            if (statusCode < 0) {
+                throw new IOException("Заголовки ответа еще не отправлены");
+            }
+            if (passThrough == null && count + len > limit) {
+                passThrough();
+            }
+            if (passThrough != null) {
+                passThrough.write(b, off, len);
+                return;
+            }
+            if (count + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(buffer.length * 2, count + len)));
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (passThrough != null) {
+                passThrough.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (passThrough != null) {
+                passThrough.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package taskmanager.app.server.handlers;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
+import taskmanager.app.service.events.ChangeEvent;
+import taskmanager.app.service.events.ChangeEventBus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обработчик ленты изменений {@code GET /changes}.
+ *
+ * <p>С заголовком {@code Accept: text/event-stream} открывает поток server-sent events:
+ * каждое изменение отправляется событием {@code change} с версией в поле {@code id}.
+ * Пропущенные события досылаются с версии из {@code Last-Event-ID} или параметра {@code since};
+ * если они уже недоступны, отправляется событие {@code reset}. Клиент, не успевающий
+ * читать события, получает событие {@code overflow} и отключается.
+ *
+ * <p>Без этого заголовка работает как long-poll: {@code GET /changes?since=версия&timeout=секунды}
+ * возвращает JSON-массив событий новее версии, дождавшись хотя бы одного или истечения
+ * времени ожидания. Текущая версия возвращается в заголовке {@value #VERSION_HEADER};
+ * если события с указанной версии уже недоступны, отвечает 410 Gone.
+ */
+public final class ChangesHandler extends BaseHttpHandler {
+    /**
+     * Заголовок ответа с версией, с которой нужно продолжить опрос
+     */
+    public static final String VERSION_HEADER = "X-Change-Version";
+    /**
+     * Время ожидания long-poll по умолчанию, в секундах
+     */
+    static final int DEFAULT_POLL_TIMEOUT_SECONDS = 30;
+    /**
+     * Максимальное время ожидания long-poll, в секундах
+     */
+    static final int MAX_POLL_TIMEOUT_SECONDS = 60;
+    /**
+     * Интервал комментариев, поддерживающих соединение SSE, в секундах
+     */
+    static final int HEARTBEAT_SECONDS = 15;
+
+    /**
+     * Открытые потоки SSE, закрываемые при остановке сервера
+     */
+    private final Set<ChangeEventBus.Subscription> streams = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Создает новый обработчик ленты изменений.
+     *
+     * @param taskManager менеджер задач, события которого отправляются клиентам
+     * @param gson экземпляр Gson для сериализации событий в JSON
+     */
+    public ChangesHandler(TaskManager taskManager, Gson gson) {
+        this(taskManager, gson, new ServerConfig());
+    }
+
+    /**
+     * Создает новый обработчик ленты изменений.
+     *
+     * @param taskManager менеджер задач, события которого отправляются клиентам
+     * @param gson экземпляр Gson для сериализации событий в JSON
+     * @param config настройки сервера
+     */
+    public ChangesHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/changes", (exchange, params) -> handleGet(exchange));
+    }
+
+    /**
+     * Обрабатывает GET /changes: открывает поток SSE или выполняет long-poll
+     * в зависимости от заголовка Accept.
+     *
+     * @param exchange HTTP обмен для обработки запроса
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     * @throws InterruptedException если ожидание событий прервано
+     */
+    private void handleGet(HttpExchange exchange) throws IOException, InterruptedException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        if (accept != null && accept.contains("text/event-stream")) {
+            handleStream(exchange);
+        } else {
+            handleLongPoll(exchange);
+        }
+    }
+
+    /**
+     * Закрывает открытые потоки событий, чтобы остановка сервера их не дожидалась
+     */
+    public void closeStreams() {
+        for (ChangeEventBus.Subscription subscription : streams) {
+            subscription.close();
+        }
+    }
+
+    private void handleLongPoll(HttpExchange exchange) throws IOException, InterruptedException {
+        ChangeEventBus bus = taskManager.getChangeEventBus();
+        Long since;
+        int timeout;
+        try {
+            since = parseVersion(getQueryParameter(exchange, "since"));
+            String timeoutParam = getQueryParameter(exchange, "timeout");
+            timeout = timeoutParam == null ? DEFAULT_POLL_TIMEOUT_SECONDS : Integer.parseInt(timeoutParam);
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Неверный формат параметров since или timeout");
+            return;
+        }
+        if (timeout < 0 || timeout > MAX_POLL_TIMEOUT_SECONDS) {
+            sendBadRequest(exchange, "Время ожидания должно быть от 0 до " + MAX_POLL_TIMEOUT_SECONDS + " секунд");
+            return;
+        }
+        long from = since != null ? since : bus.getLastVersion();
+
+        List<ChangeEvent> events = bus.awaitEventsSince(from, timeout, TimeUnit.SECONDS);
+        if (events == null) {
+            sendObject(exchange, new ErrorResponse(
+                    "События с версии " + from + " недоступны, перезагрузите данные"), 410);
+            return;
+        }
+        long version = events.isEmpty() ? from : events.get(events.size() - 1).version();
+        exchange.getResponseHeaders().set(VERSION_HEADER, String.valueOf(version));
+        sendList(exchange, events);
+    }
+
+    private void handleStream(HttpExchange exchange) throws IOException, InterruptedException {
+        Long since;
+        try {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            since = parseVersion(lastEventId != null ? lastEventId : getQueryParameter(exchange, "since"));
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Неверный формат версии");
+            return;
+        }
+
+        ChangeEventBus bus = taskManager.getChangeEventBus();
+        ChangeEventBus.Subscription subscription = bus.subscribe();
+        streams.add(subscription);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                Set<ChangeEvent> replayed = new HashSet<>();
+                if (since != null) {
+                    List<ChangeEvent> missed = bus.eventsSince(since);
+                    if (missed == null) {
+                        write(out, "event: reset\ndata: {}\n\n");
+                    } else {
+                        for (ChangeEvent event : missed) {
+                            writeEvent(out, event);
+                        }
+                        replayed.addAll(missed);
+                    }
+                }
+                out.flush();
+                streamEvents(out, subscription, replayed);
+            }
+        } catch (IOException e) {
+            // клиент отключился, ответ уже начат - просто закрываем обмен
+            exchange.close();
+        } finally {
+            streams.remove(subscription);
+            subscription.close();
+        }
+    }
+
+    /**
+     * Отправляет события подписки, пока она не закрыта или клиент не отключился
+     */
+    private void streamEvents(OutputStream out, ChangeEventBus.Subscription subscription,
+                              Set<ChangeEvent> replayed) throws IOException, InterruptedException {
+        while (true) {
+            ChangeEvent event = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+            if (event != null) {
+                if (!replayed.remove(event)) {
+                    writeEvent(out, event);
+                }
+            } else if (subscription.isOverflowed()) {
+                write(out, "event: overflow\ndata: {}\n\n");
+                return;
+            } else if (subscription.isClosed()) {
+                return;
+            } else {
+                write(out, ": keep-alive\n\n");
+            }
+            out.flush();
+        }
+    }
+
+    private void writeEvent(OutputStream out, ChangeEvent event) throws IOException {
+        write(out, "id: " + event.version() + "\nevent: change\ndata: " + gson.toJson(event) + "\n\n");
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return версия или null, если параметр не задан
+     * @throws NumberFormatException если версия некорректна
+     */
+    private static Long parseVersion(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        long version = Long.parseLong(value.trim());
+        if (version < 0) {
+            throw new NumberFormatException("Отрицательная версия: " + value);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,135 @@
+package taskmanager.app.server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Поток тела ответа со сжатием на лету.
+ * Первые байты ответа накапливаются в буфере размером с порог сжатия:
+ * если ответ закончился раньше, он отправляется несжатым с известной длиной,
+ * иначе отправляются заголовки с {@code Content-Encoding} и дальнейшие данные
+ * сжимаются по мере записи с chunked-кодированием.
+ */
+final class CompressingResponseStream extends OutputStream {
+    private static final int DEFLATE_BUFFER_SIZE = 8 * 1024;
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final String encoding;
+    private final int level;
+    private final byte[] buffer;
+    private int count;
+    /**
+     * Компрессор deflate; компрессор gzip освобождает сам поток
+     */
+    private Deflater deflater;
+    private OutputStream target;
+    private boolean closed;
+
+    /**
+     * @param exchange   HTTP обмен, заголовки которого еще не отправлены
+     * @param statusCode HTTP статус-код ответа
+     * @param encoding   {@code gzip} или {@code deflate}
+     * @param level      уровень сжатия
+     * @param threshold  размер ответа в байтах, начиная с которого он сжимается
+     */
+    CompressingResponseStream(HttpExchange exchange, int statusCode, String encoding, int level, int threshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = encoding;
+        this.level = level;
+        this.buffer = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Поток ответа закрыт");
+        }
+        if (target == null) {
+            if (count + len < buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            startCompression();
+        }
+        target.write(b, off, len);
+    }
+
+    /**
+     * Сбрасывает данные только после начала сжатия:
+     * до этого момента буфер нужен, чтобы решить, сжимать ли ответ
+     */
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (target == null) {
+            sendUncompressed();
+            return;
+        }
+        try {
+            target.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Отправляет заголовки сжатого ответа и переносит накопленные байты в компрессор
+     */
+    private void startCompression() throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(statusCode, 0);
+        OutputStream body = exchange.getResponseBody();
+        if ("gzip".equals(encoding)) {
+            target = new LeveledGzipOutputStream(body, level);
+        } else {
+            deflater = new Deflater(level);
+            target = new DeflaterOutputStream(body, deflater, DEFLATE_BUFFER_SIZE);
+        }
+        target.write(buffer, 0, count);
+    }
+
+    private void sendUncompressed() throws IOException {
+        exchange.sendResponseHeaders(statusCode, count == 0 ? -1 : count);
+        OutputStream body = exchange.getResponseBody();
+        if (body != null) {
+            try (body) {
+                body.write(buffer, 0, count);
+            }
+        }
+    }
+
+    /**
+     * GZIPOutputStream с заданным уровнем сжатия
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, DEFLATE_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
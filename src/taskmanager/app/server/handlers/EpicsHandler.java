@@ -4,8 +4,11 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import taskmanager.app.entity.Epic;
 import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
+import taskmanager.app.exception.RequestBodyTooLargeException;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
 
 import java.io.IOException;
 import java.util.List;
@@ -15,7 +18,7 @@ import java.util.List;
  * Обрабатывает операции GET, POST, DELETE для endpoints /epics, /epics/{id} и /epics/{id}/subtasks.
  * Наследует общую функциональность от BaseHttpHandler.
  */
-public class EpicsHandler extends BaseHttpHandler {
+public final class EpicsHandler extends BaseHttpHandler {
 
     /**
      * Создает новый обработчик эпиков.
@@ -24,70 +27,61 @@ public class EpicsHandler extends BaseHttpHandler {
      * @param gson экземпляр Gson для сериализации и десериализации JSON
      */
     public EpicsHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson);
+        this(taskManager, gson, new ServerConfig());
     }
 
     /**
-     * Обрабатывает входящий HTTP запрос.
-     * Определяет метод запроса и делегирует обработку соответствующему методу.
+     * Создает новый обработчик эпиков.
      *
-     * @param exchange HTTP обмен для обработки запроса и отправки ответа
-     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     * @param taskManager менеджер задач для выполнения операций с эпиками
+     * @param gson экземпляр Gson для сериализации и десериализации JSON
+     * @param config настройки сервера
      */
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
+    public EpicsHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/epics", (exchange, params) -> handleGetAll(exchange))
+                .add("GET", "/epics/{id}", (exchange, params) -> handleGetById(exchange, params[0]))
+                .add("GET", "/epics/{id}/subtasks", (exchange, params) -> handleGetEpicSubtasks(exchange, params[0]))
+                .add("POST", "/epics", (exchange, params) -> handlePost(exchange))
+                .add("DELETE", "/epics", (exchange, params) -> handleDelete(exchange, null))
+                .add("DELETE", "/epics/{id}", (exchange, params) -> handleDelete(exchange, params[0]));
+    }
 
-            if (path.matches("/epics/\\d+/subtasks") && "GET".equals(method)) {
-                handleGetEpicSubtasks(exchange);
-                return;
-            }
+    @Override
+    protected String invalidIdMessage() {
+        return "Неверный формат ID эпика";
+    }
 
-            switch (method) {
-                case "GET":
-                    handleGet(exchange);
-                    break;
-                case "POST":
-                    handlePost(exchange);
-                    break;
-                case "DELETE":
-                    handleDelete(exchange);
-                    break;
-                default:
-                    sendBadRequest(exchange, "Метод не поддерживается");
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange, "Внутренняя ошибка сервера: " + e.getMessage());
+    /**
+     * Обрабатывает GET /epics - возвращает все эпики или их страницу.
+     * Список запрашивается намного чаще, чем меняется, поэтому готовый ответ кэшируется
+     *
+     * @param exchange HTTP обмен для обработки запроса
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        long version = taskManager.getModificationVersion(TaskType.EPIC);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
         }
+        sendCached(exchange, version, target -> sendPaged(target, taskManager::getAllEpics,
+                (cursor, limit) -> taskManager.getEpicsPage(parseIdCursor(cursor), limit),
+                epic -> String.valueOf(epic.getId())));
     }
 
     /**
-     * Обрабатывает GET запросы для эпиков.
-     * Поддерживает три варианта:
-     * - GET /epics - возвращает все эпики
-     * - GET /epics/{id} - возвращает эпик по указанному ID
-     * - GET /epics/{id}/subtasks - возвращает список подзадач указанного эпика
+     * Обрабатывает GET /epics/{id} - возвращает эпик по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID эпика из пути
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleGet(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
-            sendSuccess(exchange, taskManager.getAllEpics());
-        } else {
-            try {
-                int id = Integer.parseInt(idParam);
-                Epic epic = taskManager.getEpicById(id);
-                sendSuccess(exchange, epic);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID эпика");
-            } catch (NotFoundException e) {
-                sendNotFound(exchange, e.getMessage());
-            }
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        try {
+            Epic epic = taskManager.getEpicById(id);
+            sendSuccess(exchange, epic);
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
         }
     }
 
@@ -97,26 +91,16 @@ public class EpicsHandler extends BaseHttpHandler {
      * Возвращает список всех подзадач, принадлежащих указанному эпику.
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param epicId ID эпика из пути
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleGetEpicSubtasks(HttpExchange exchange) throws IOException {
+    private void handleGetEpicSubtasks(HttpExchange exchange, int epicId) throws IOException {
         try {
-            String path = exchange.getRequestURI().getPath();
-            String[] pathParts = path.split("/");
-
-            if (pathParts.length < 4) {
-                sendBadRequest(exchange, "Неверный формат URL. Ожидается: /epics/{id}/subtasks");
-                return;
-            }
-
-            int epicId = Integer.parseInt(pathParts[2]);
-            Epic epic = taskManager.getEpicById(epicId);
+            taskManager.getEpicById(epicId);
 
             List<SubTask> subtasks = taskManager.getSubTasksByEpicId(epicId);
-            sendSuccess(exchange, subtasks);
+            sendList(exchange, subtasks);
 
-        } catch (NumberFormatException e) {
-            sendBadRequest(exchange, "Неверный формат ID эпика");
         } catch (NotFoundException e) {
             sendNotFound(exchange, e.getMessage());
         } catch (Exception e) {
@@ -133,28 +117,25 @@ public class EpicsHandler extends BaseHttpHandler {
      * @throws IllegalArgumentException если переданные данные эпика невалидны
      */
     private void handlePost(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        if (requestBody == null || requestBody.trim().isEmpty()) {
-            sendBadRequest(exchange, "Тело запроса не может быть пустым");
-            return;
-        }
         try {
-            Epic epic = gson.fromJson(requestBody, Epic.class);
+            Epic epic = readEntity(exchange, Epic.class);
+            if (epic == null) {
+                sendBadRequest(exchange, "Тело запроса не может быть пустым");
+                return;
+            }
 
             if (epic.getName() == null || epic.getName().trim().isEmpty()) {
                 sendBadRequest(exchange, "Поле 'name' является обязательным");
                 return;
             }
             epic.setId(0);
-            String idParam = getPathParameter(exchange, 1);
-
-            if (idParam == null) {
-                int newId = taskManager.createEpic(epic);
-                epic.setId(newId);
-                sendCreated(exchange, epic);
-            }
+            int newId = taskManager.createEpic(epic);
+            epic.setId(newId);
+            sendCreated(exchange, epic);
         } catch (com.google.gson.JsonSyntaxException e) {
             sendBadRequest(exchange, "Невалидный JSON: " + e.getMessage());
+        } catch (RequestBodyTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (RuntimeException e) {
             sendBadRequest(exchange, e.getMessage());
         } catch (Exception e) {
@@ -169,24 +150,20 @@ public class EpicsHandler extends BaseHttpHandler {
      * - DELETE /epics/{id} - удаляет эпик по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID эпика из пути или null для удаления всех эпиков
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleDelete(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
+    private void handleDelete(HttpExchange exchange, Integer id) throws IOException {
+        if (id == null) {
             taskManager.deleteAllEpics();
             sendNoContent(exchange);
         } else {
             try {
-                int id = Integer.parseInt(idParam);
                 taskManager.deleteEpicById(id);
                 sendNoContent(exchange);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID эпика");
             } catch (NotFoundException e) {
                 sendNotFound(exchange, e.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,8 @@
 package taskmanager.app.server.handlers;
 
 import com.google.gson.Gson;
-import com.sun.net.httpserver.HttpExchange;
 import taskmanager.app.management.TaskManager;
-
-import java.io.IOException;
+import taskmanager.app.server.ServerConfig;
 
 /**
  * Обработчик HTTP запросов для получения истории просмотров задач.
@@ -12,9 +10,9 @@ import java.io.IOException;
  * Наследует общую функциональность от BaseHttpHandler.
  *
  * <p>Предоставляет доступ к истории последних просмотренных задач,
- * отсортированных в порядке их последнего обращения.
+ * отсортированных в порядке их последнего обращения: JSON-массив задач в порядке просмотра.
  */
-public class HistoryHandler extends BaseHttpHandler {
+public final class HistoryHandler extends BaseHttpHandler {
 
     /**
      * Создает новый обработчик истории задач.
@@ -23,28 +21,18 @@ public class HistoryHandler extends BaseHttpHandler {
      * @param gson экземпляр Gson для сериализации истории в JSON
      */
     public HistoryHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson);
+        this(taskManager, gson, new ServerConfig());
     }
 
     /**
-     * Обрабатывает входящий HTTP запрос.
-     * Поддерживает только GET метод для получения истории просмотров.
-     *
-     * <p>Возвращает JSON-массив задач в порядке их последнего просмотра.
+     * Создает новый обработчик истории задач.
      *
-     * @param exchange HTTP обмен для обработки запроса и отправки ответа
-     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     * @param taskManager менеджер задач для получения истории просмотров
+     * @param gson экземпляр Gson для сериализации истории в JSON
+     * @param config настройки сервера
      */
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                sendSuccess(exchange, taskManager.getHistory());
-            } else {
-                sendBadRequest(exchange, "Метод не поддерживается");
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange, "Внутренняя ошибка сервера " + e.getMessage());
-        }
+    public HistoryHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/history", (exchange, params) -> sendList(exchange, taskManager.getHistory()));
     }
-}
\ No newline at end of file
+}
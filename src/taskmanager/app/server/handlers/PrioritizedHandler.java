@@ -2,9 +2,14 @@ package taskmanager.app.server.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import taskmanager.app.entity.Task;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 /**
  * Обработчик HTTP запросов для получения приоритетного списка задач.
@@ -13,8 +18,9 @@ import java.io.IOException;
  *
  * <p>Предоставляет доступ к списку задач, отсортированных по приоритету
  * (по времени начала выполнения). Задачи без времени начала выполняются в конце списка.
+ * Курсор страницы имеет вид {@code времяНачала,id} последней задачи предыдущей страницы.
  */
-public class PrioritizedHandler extends BaseHttpHandler {
+public final class PrioritizedHandler extends BaseHttpHandler {
 
     /**
      * Создает новый обработчик приоритетного списка задач.
@@ -23,26 +29,56 @@ public class PrioritizedHandler extends BaseHttpHandler {
      * @param gson экземпляр Gson для сериализации списка в JSON
      */
     public PrioritizedHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson);
+        this(taskManager, gson, new ServerConfig());
     }
 
     /**
-     * Обрабатывает входящий HTTP запрос.
-     * Поддерживает только GET метод для получения приоритетного списка задач.
+     * Создает новый обработчик приоритетного списка задач.
+     *
+     * @param taskManager менеджер задач для получения приоритетного списка
+     * @param gson экземпляр Gson для сериализации списка в JSON
+     * @param config настройки сервера
+     */
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/prioritized", (exchange, params) -> handleGet(exchange));
+    }
+
+    /**
+     * Обрабатывает GET /prioritized - возвращает приоритетный список задач или его страницу.
+     * Список запрашивается намного чаще, чем меняется, поэтому готовый ответ кэшируется
      *
-     * @param exchange HTTP обмен для обработки запроса и отправки ответа
+     * @param exchange HTTP обмен для обработки запроса
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    private void handleGet(HttpExchange exchange) throws IOException {
+        long version = taskManager.getModificationVersion();
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
+        }
+        sendCached(exchange, version, target -> sendPaged(target, taskManager::getPrioritizedTasks, this::loadPage,
+                task -> task.getStartTime() + "," + task.getId()));
+    }
+
+    /**
+     * Загружает страницу приоритетного списка по курсору {@code времяНачала,id}
+     *
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    private List<Task> loadPage(String cursor, int limit) {
+        if (cursor == null) {
+            return taskManager.getPrioritizedTasksPage(null, 0, limit);
+        }
+        int comma = cursor.lastIndexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
         try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                sendSuccess(exchange, taskManager.getPrioritizedTasks());
-            } else {
-                sendBadRequest(exchange, "Метод не поддерживается");
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange, "Внутренняя ошибка сервера " + e.getMessage());
+            LocalDateTime startTime = LocalDateTime.parse(cursor.substring(0, comma));
+            int id = Integer.parseInt(cursor.substring(comma + 1));
+            return taskManager.getPrioritizedTasksPage(startTime, id, limit);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,223 @@
+package taskmanager.app.server.handlers;
+
+import com.google.gson.stream.JsonWriter;
+import taskmanager.app.server.cbor.BinaryFormatWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * Писатель, пропускающий в нижележащий {@link JsonWriter} только выбранные поля объектов.
+ * Фильтруются поля объектов на заданной глубине вложенности: 1 - сам сериализуемый объект,
+ * 2 - элементы массива. Значения остальных полей, включая вложенные массивы и объекты,
+ * отбрасываются по мере записи, без промежуточного дерева JSON.
+ * Работает с любым нижележащим писателем, в том числе CBOR: формат нижележащего
+ * писателя виден адаптерам через {@link BinaryFormatWriter}.
+ */
+final class ProjectingJsonWriter extends JsonWriter implements BinaryFormatWriter {
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final JsonWriter out;
+    private final Set<String> fields;
+    private final int fieldDepth;
+    private int depth;
+    /**
+     * Следующее значение принадлежит отброшенному полю
+     */
+    private boolean skipNext;
+    /**
+     * Глубина вложенности внутри отбрасываемого значения; 0 - значение не отбрасывается
+     */
+    private int skipNesting;
+
+    /**
+     * @param out        нижележащий писатель
+     * @param fields     имена оставляемых полей
+     * @param fieldDepth глубина объектов, поля которых фильтруются
+     */
+    ProjectingJsonWriter(JsonWriter out, Set<String> fields, int fieldDepth) {
+        super(UNWRITABLE_WRITER);
+        this.out = out;
+        this.fields = fields;
+        this.fieldDepth = fieldDepth;
+    }
+
+    @Override
+    public boolean isBinaryFormat() {
+        return BinaryFormatWriter.isBinaryFormat(out);
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        if (!skipContainer()) {
+            depth++;
+            out.beginArray();
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        if (skipNesting > 0) {
+            skipNesting--;
+        } else {
+            depth--;
+            out.endArray();
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        if (!skipContainer()) {
+            depth++;
+            out.beginObject();
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        if (skipNesting > 0) {
+            skipNesting--;
+        } else {
+            depth--;
+            out.endObject();
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (skipNesting > 0) {
+            return this;
+        }
+        if (depth == fieldDepth && !fields.contains(name)) {
+            skipNext = true;
+        } else {
+            out.name(name);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (!skipValue()) {
+            out.jsonValue(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (!skipValue()) {
+            out.setSerializeNulls(getSerializeNulls());
+            out.nullValue();
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (!skipValue()) {
+            out.value(value);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * @return true, если простое значение нужно отбросить
+     */
+    private boolean skipValue() {
+        if (skipNesting > 0) {
+            return true;
+        }
+        if (skipNext) {
+            skipNext = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true, если открываемый массив или объект нужно отбросить
+     */
+    private boolean skipContainer() {
+        if (skipNesting > 0) {
+            skipNesting++;
+            return true;
+        }
+        if (skipNext) {
+            skipNext = false;
+            skipNesting = 1;
+            return true;
+        }
+        return false;
+    }
+}
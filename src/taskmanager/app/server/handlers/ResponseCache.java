@@ -0,0 +1,140 @@
+package taskmanager.app.server.handlers;
+
+import com.sun.net.httpserver.Headers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш готовых ответов на GET запросы: статус, заголовки и тело в том виде,
+ * в котором они уходят клиенту, в том числе уже сжатое.
+ * Ответ привязан к версии данных, из которых построен; версии менеджера увеличиваются
+ * перед вызовом хуков after* при каждом изменении, поэтому ответ с другой версией устарел
+ * и при обращении удаляется. Объем тел ограничен бюджетом: при превышении вытесняются
+ * давно не запрашивавшиеся ответы, а слишком большие ответы не кэшируются вовсе.
+ */
+public final class ResponseCache {
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long sizeBytes;
+
+    /**
+     * @param maxBytes      наибольший суммарный размер тел ответов в байтах
+     * @param maxEntryBytes наибольший размер тела одного ответа в байтах
+     */
+    public ResponseCache(long maxBytes, int maxEntryBytes) {
+        if (maxBytes <= 0 || maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Размер кэша ответов должен быть больше нуля");
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Возвращает ответ, построенный из данных указанной версии
+     *
+     * @param key     ключ представления: маршрут, параметры и формат ответа
+     * @param version текущая версия данных
+     * @return ответ или null, если его нет или он устарел
+     */
+    public CachedResponse get(String key, long version) {
+        synchronized (entries) {
+            CachedResponse response = entries.get(key);
+            if (response != null && response.version() != version) {
+                entries.remove(key);
+                sizeBytes -= response.body().length;
+                response = null;
+            }
+            if (response == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Сохраняет ответ, вытесняя давно не запрашивавшиеся при превышении бюджета
+     *
+     * @param key      ключ представления
+     * @param response ответ
+     * @return true, если ответ сохранен
+     */
+    public boolean put(String key, CachedResponse response) {
+        if (response.body().length > maxEntryBytes) {
+            return false;
+        }
+        synchronized (entries) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                sizeBytes -= previous.body().length;
+            }
+            sizeBytes += response.body().length;
+            Iterator<CachedResponse> eldest = entries.values().iterator();
+            while (sizeBytes > maxBytes && eldest.hasNext()) {
+                sizeBytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return наибольший размер тела, которое может быть закэшировано
+     */
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * @return суммарный размер тел закэшированных ответов в байтах
+     */
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return sizeBytes;
+        }
+    }
+
+    /**
+     * @return число закэшированных ответов
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Готовый ответ
+     *
+     * @param version    версия данных, из которых построен ответ
+     * @param statusCode HTTP статус-код
+     * @param headers    заголовки ответа, выставленные при его построении
+     * @param body       тело ответа в том виде, в котором оно отправляется
+     */
+    public record CachedResponse(long version, int statusCode, Map<String, String> headers, byte[] body) {
+
+        /**
+         * Переносит заголовки ответа в заголовки обмена
+         */
+        void applyHeaders(Headers target) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                target.set(header.getKey(), header.getValue());
+            }
+        }
+    }
+}
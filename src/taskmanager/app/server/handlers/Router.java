@@ -0,0 +1,223 @@
+package taskmanager.app.server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Маршрутизатор запросов по шаблонам путей.
+ * Шаблоны вида {@code /epics/{id}/subtasks} собираются при создании обработчика
+ * в префиксное дерево по сегментам пути; сегмент в фигурных скобках - целочисленный параметр.
+ * Разбор пути выполняется за один проход без регулярных выражений, разбиения строки
+ * и выделения подстрок. Буквальный сегмент имеет приоритет над параметром,
+ * поэтому {@code /tasks/batch} и {@code /tasks/{id}} не конфликтуют.
+ * Повторяющиеся и завершающие символы {@code /} игнорируются.
+ *
+ * <p>После построения маршрутизатор только читается и может использоваться из разных потоков.
+ */
+public final class Router {
+
+    /**
+     * Итог маршрутизации запроса
+     */
+    public enum Result {
+        /**
+         * Запрос передан обработчику маршрута
+         */
+        DISPATCHED,
+        /**
+         * Путь не соответствует ни одному шаблону
+         */
+        NOT_FOUND,
+        /**
+         * На месте целочисленного параметра стоит не число
+         */
+        BAD_PARAMETER,
+        /**
+         * Путь найден, но метод для него не зарегистрирован; заголовок Allow уже установлен
+         */
+        METHOD_NOT_ALLOWED
+    }
+
+    /**
+     * Обработчик маршрута
+     */
+    @FunctionalInterface
+    public interface Route {
+        /**
+         * @param exchange HTTP обмен
+         * @param params   значения целочисленных параметров пути в порядке следования в шаблоне
+         * @throws IOException          если произошла ошибка ввода-вывода
+         * @throws InterruptedException если ожидание в обработчике прервано
+         */
+        void handle(HttpExchange exchange, int[] params) throws IOException, InterruptedException;
+    }
+
+    private static final int[] NO_PARAMS = new int[0];
+    /**
+     * Наибольшее число десятичных цифр значения int
+     */
+    private static final int MAX_INT_DIGITS = 10;
+
+    private final Node root = new Node();
+    private int maxParams;
+
+    /**
+     * Регистрирует обработчик для метода и шаблона пути
+     *
+     * @param method   HTTP метод
+     * @param template шаблон пути, например {@code /tasks/{id}}
+     * @param route    обработчик маршрута
+     * @return этот маршрутизатор
+     * @throws IllegalArgumentException если маршрут уже зарегистрирован
+     */
+    public Router add(String method, String template, Route route) {
+        Objects.requireNonNull(method, "Метод не может быть null");
+        Objects.requireNonNull(route, "Обработчик маршрута не может быть null");
+        Node node = root;
+        int params = 0;
+        for (String segment : template.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.param == null) {
+                    node.param = new Node();
+                }
+                node = node.param;
+                params++;
+            } else {
+                node = node.literalChild(segment);
+            }
+        }
+        if (node.routes.putIfAbsent(method, route) != null) {
+            throw new IllegalArgumentException("Маршрут " + method + " " + template + " уже зарегистрирован");
+        }
+        node.allow = String.join(", ", node.routes.keySet());
+        maxParams = Math.max(maxParams, params);
+        return this;
+    }
+
+    /**
+     * Находит маршрут по методу и пути запроса и вызывает его обработчик
+     *
+     * @param exchange HTTP обмен
+     * @return итог маршрутизации; при ошибке ответ не отправляется
+     * @throws IOException          если обработчик маршрута завершился ошибкой ввода-вывода
+     * @throws InterruptedException если ожидание в обработчике прервано
+     */
+    public Result dispatch(HttpExchange exchange) throws IOException, InterruptedException {
+        String path = exchange.getRequestURI().getPath();
+        Node node = root;
+        int[] params = NO_PARAMS;
+        int paramCount = 0;
+        int length = path.length();
+        int start = 0;
+        while (true) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start == length) {
+                break;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            Node next = node.findLiteral(path, start, end);
+            if (next == null) {
+                if (node.param == null) {
+                    return Result.NOT_FOUND;
+                }
+                int value = parseInt(path, start, end);
+                if (value < 0) {
+                    return Result.BAD_PARAMETER;
+                }
+                if (params == NO_PARAMS) {
+                    params = new int[maxParams];
+                }
+                params[paramCount++] = value;
+                next = node.param;
+            }
+            node = next;
+            start = end;
+        }
+
+        if (node.routes.isEmpty()) {
+            return Result.NOT_FOUND;
+        }
+        Route route = node.routes.get(exchange.getRequestMethod());
+        if (route == null) {
+            exchange.getResponseHeaders().set("Allow", node.allow);
+            return Result.METHOD_NOT_ALLOWED;
+        }
+        route.handle(exchange, params);
+        return Result.DISPATCHED;
+    }
+
+    /**
+     * Разбирает неотрицательное десятичное число из сегмента пути
+     *
+     * @return число или -1, если сегмент не является числом типа int
+     */
+    private static int parseInt(String path, int start, int end) {
+        if (end - start > MAX_INT_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    /**
+     * Узел дерева маршрутов: один сегмент пути
+     */
+    private static final class Node {
+        private String[] literals = new String[0];
+        private Node[] literalNodes = new Node[0];
+        private Node param;
+        /**
+         * Обработчики по методам в порядке регистрации
+         */
+        private final Map<String, Route> routes = new LinkedHashMap<>();
+        /**
+         * Значение заголовка Allow для этого пути
+         */
+        private String allow;
+
+        private Node literalChild(String segment) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) {
+                    return literalNodes[i];
+                }
+            }
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literalNodes = Arrays.copyOf(literalNodes, literalNodes.length + 1);
+            Node child = new Node();
+            literals[literals.length - 1] = segment;
+            literalNodes[literalNodes.length - 1] = child;
+            return child;
+        }
+
+        private Node findLiteral(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.length; i++) {
+                String literal = literals[i];
+                if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                    return literalNodes[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package taskmanager.app.server.handlers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Объединение одинаковых одновременных вычислений.
+ * Первый вызов с ключом выполняет вычисление, а вызовы с тем же ключом, пришедшие,
+ * пока оно идет, ждут и получают тот же результат. Завершенное вычисление забывается,
+ * поэтому следующий вызов вычисляет заново.
+ *
+ * <p>Неудача первого вызова не передается ожидающим: каждый из них выполняет свое
+ * вычисление сам. Так ошибка, связанная с одним клиентом, например разорванное
+ * соединение, не превращается в ошибку для всех. Так же обрабатывается результат null -
+ * признак того, что результат нельзя разделить.
+ *
+ * <p>Вычисление может отказаться от разделения заранее, вызвав переданный ему
+ * {@code detach}: ожидающие сразу выполняют свои вычисления, а новые вызовы
+ * не присоединяются к нему. Так ожидающие не зависят от медленной части
+ * вычисления, например от передачи большого ответа клиенту первого вызова.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип результата
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Выполняет вычисление или присоединяется к уже идущему с тем же ключом
+     *
+     * @param key  ключ вычисления
+     * @param call вычисление
+     * @return результат
+     * @throws IOException если вычисление завершилось ошибкой ввода-вывода
+     */
+    V execute(K key, Call<V> call) throws IOException {
+        return execute(key, detach -> call.call());
+    }
+
+    /**
+     * Выполняет вычисление, которое может отказаться от разделения результата,
+     * или присоединяется к уже идущему с тем же ключом
+     *
+     * @param key  ключ вычисления
+     * @param call вычисление; получает {@code detach}, отпускающий ожидающих
+     * @return результат
+     * @throws IOException если вычисление завершилось ошибкой ввода-вывода
+     */
+    V execute(K key, DetachableCall<V> call) throws IOException {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.increment();
+            V shared = await(running);
+            return shared != null ? shared : call.call(() -> { });
+        }
+        try {
+            V value = call.call(() -> {
+                inFlight.remove(key, own);
+                own.complete(null);
+            });
+            own.complete(value);
+            return value;
+        } catch (IOException | RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * @return результат чужого вычисления или null, если он неудачен
+     */
+    private V await(CompletableFuture<V> running) throws IOException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание общего результата прервано");
+        }
+    }
+
+    /**
+     * @return число вызовов, присоединившихся к чужому вычислению
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Вычисление, которое может завершиться ошибкой ввода-вывода
+     *
+     * @param <V> тип результата
+     */
+    @FunctionalInterface
+    interface Call<V> {
+        V call() throws IOException;
+    }
+
+    /**
+     * Вычисление, которое может отказаться от разделения результата
+     *
+     * @param <V> тип результата
+     */
+    @FunctionalInterface
+    interface DetachableCall<V> {
+        /**
+         * @param detach отпускает ожидающих: они не получат результат этого вычисления
+         */
+        V call(Runnable detach) throws IOException;
+    }
+}
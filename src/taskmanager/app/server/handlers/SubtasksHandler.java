@@ -3,20 +3,23 @@ package taskmanager.app.server.handlers;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
+import taskmanager.app.exception.RequestBodyTooLargeException;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
 
 import java.io.IOException;
 
 /**
  * Обработчик HTTP запросов для работы с подзадачами.
- * Обрабатывает операции GET, POST, DELETE для endpoints /subtasks и /subtasks/{id}.
+ * Обрабатывает операции GET, POST, DELETE для endpoints /subtasks, /subtasks/{id} и /subtasks/batch.
  * Наследует общую функциональность от BaseHttpHandler.
  *
  * <p><b>Важно:</b> Подзадачи всегда связаны с родительским эпиком.
  * При создании подзадачи требуется указать epicId.
  */
-public class SubtasksHandler extends BaseHttpHandler {
+public final class SubtasksHandler extends BaseHttpHandler {
 
     /**
      * Создает новый обработчик подзадач.
@@ -25,63 +28,62 @@ public class SubtasksHandler extends BaseHttpHandler {
      * @param gson экземпляр Gson для сериализации и десериализации JSON
      */
     public SubtasksHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson);
+        this(taskManager, gson, new ServerConfig());
     }
 
     /**
-     * Обрабатывает входящий HTTP запрос.
-     * Определяет метод запроса и делегирует обработку соответствующему методу.
+     * Создает новый обработчик подзадач.
      *
-     * @param exchange HTTP обмен для обработки запроса и отправки ответа
-     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     * @param taskManager менеджер задач для выполнения операций с подзадачами
+     * @param gson экземпляр Gson для сериализации и десериализации JSON
+     * @param config настройки сервера
      */
+    public SubtasksHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/subtasks", (exchange, params) -> handleGetAll(exchange))
+                .add("GET", "/subtasks/{id}", (exchange, params) -> handleGetById(exchange, params[0]))
+                .add("POST", "/subtasks", (exchange, params) -> handlePost(exchange, null))
+                .add("POST", "/subtasks/{id}", (exchange, params) -> handlePost(exchange, params[0]))
+                .add("POST", "/subtasks/" + BATCH_PATH, (exchange, params) -> handleBatch(exchange, SubTask.class))
+                .add("DELETE", "/subtasks", (exchange, params) -> handleDelete(exchange, null))
+                .add("DELETE", "/subtasks/{id}", (exchange, params) -> handleDelete(exchange, params[0]));
+    }
+
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
+    protected String invalidIdMessage() {
+        return "Неверный формат ID подзадачи";
+    }
 
-            switch (method) {
-                case "GET":
-                    handleGet(exchange);
-                    break;
-                case "POST":
-                    handlePost(exchange);
-                    break;
-                case "DELETE":
-                    handleDelete(exchange);
-                    break;
-                default:
-                    sendBadRequest(exchange, "Метод не поддерживается");
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange, "Внутренняя ошибка сервера " + e.getMessage());
+    /**
+     * Обрабатывает GET /subtasks - возвращает все подзадачи или их страницу.
+     * Одинаковые одновременные запросы получают один построенный ответ, повторные - из кэша
+     *
+     * @param exchange HTTP обмен для обработки запроса
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        long version = taskManager.getModificationVersion(TaskType.SUBTASK);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
         }
+        sendCached(exchange, version, target -> sendPaged(target, taskManager::getAllSubTasks,
+                (cursor, limit) -> taskManager.getSubTasksPage(parseIdCursor(cursor), limit),
+                subTask -> String.valueOf(subTask.getId())));
     }
 
     /**
-     * Обрабатывает GET запросы для подзадач.
-     * Поддерживает два варианта:
-     * - GET /subtasks - возвращает все подзадачи
-     * - GET /subtasks/{id} - возвращает подзадачу по указанному ID
+     * Обрабатывает GET /subtasks/{id} - возвращает подзадачу по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID подзадачи из пути
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleGet(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
-            sendSuccess(exchange, taskManager.getAllSubTasks());
-        } else {
-            try {
-                int id = Integer.parseInt(idParam);
-                SubTask subtask = taskManager.getSubTaskById(id); // Теперь бросает исключение если не найден
-                sendSuccess(exchange, subtask);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID подзадачи");
-            } catch (NotFoundException e) {
-                sendNotFound(exchange, e.getMessage());
-            }
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        try {
+            SubTask subtask = taskManager.getSubTaskById(id);
+            sendSuccess(exchange, subtask);
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
         }
     }
 
@@ -92,35 +94,31 @@ public class SubtasksHandler extends BaseHttpHandler {
      * - POST /subtasks/{id} - обновляет существующую подзадачу
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID подзадачи из пути или null для создания
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handlePost(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-
+    private void handlePost(HttpExchange exchange, Integer id) throws IOException {
         try {
-            SubTask subtask = gson.fromJson(requestBody, SubTask.class);
+            SubTask subtask = readEntity(exchange, SubTask.class);
 
             if (subtask == null) {
                 sendBadRequest(exchange, "Неверный формат JSON");
                 return;
             }
 
-            String idParam = getPathParameter(exchange, 1);
-
-            if (idParam == null) {
+            if (id == null) {
                 int newId = taskManager.createSubTask(subtask);
                 subtask.setId(newId);
                 sendCreated(exchange, subtask);
             } else {
-                int id = Integer.parseInt(idParam);
                 subtask.setId(id);
                 taskManager.updateSubTask(subtask);
                 sendSuccess(exchange, subtask);
             }
         } catch (com.google.gson.JsonSyntaxException e) {
             sendBadRequest(exchange, "Неверный формат JSON: " + e.getMessage());
-        } catch (NumberFormatException e) {
-            sendBadRequest(exchange, "Неверный формат ID подзадачи");
+        } catch (RequestBodyTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("пересекается")) {
                 sendHasInteractions(exchange, e.getMessage());
@@ -139,24 +137,20 @@ public class SubtasksHandler extends BaseHttpHandler {
      * - DELETE /subtasks/{id} - удаляет подзадачу по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID подзадачи из пути или null для удаления всех подзадач
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleDelete(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
+    private void handleDelete(HttpExchange exchange, Integer id) throws IOException {
+        if (id == null) {
             taskManager.deleteAllSubTasks();
             sendNoContent(exchange);
         } else {
             try {
-                int id = Integer.parseInt(idParam);
                 taskManager.deleteSubTaskById(id);
                 sendNoContent(exchange);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID подзадачи");
             } catch (NotFoundException e) {
                 sendNotFound(exchange, e.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+}
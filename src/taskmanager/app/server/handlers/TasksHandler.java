@@ -4,17 +4,20 @@ import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import taskmanager.app.entity.Task;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
+import taskmanager.app.exception.RequestBodyTooLargeException;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
 
 import java.io.IOException;
 
 /**
  * Обработчик HTTP запросов для работы с задачами.
- * Обрабатывает операции GET, POST, DELETE для endpoints /tasks и /tasks/{id}.
+ * Обрабатывает операции GET, POST, DELETE для endpoints /tasks, /tasks/{id} и /tasks/batch.
  * Наследует общую функциональность от BaseHttpHandler.
  */
-public class TasksHandler extends BaseHttpHandler {
+public final class TasksHandler extends BaseHttpHandler {
 
     /**
      * Создает новый обработчик задач.
@@ -23,63 +26,62 @@ public class TasksHandler extends BaseHttpHandler {
      * @param gson экземпляр Gson для сериализации и десериализации JSON
      */
     public TasksHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson);
+        this(taskManager, gson, new ServerConfig());
     }
 
     /**
-     * Обрабатывает входящий HTTP запрос.
-     * Определяет метод запроса и делегирует обработку соответствующему методу.
+     * Создает новый обработчик задач.
      *
-     * @param exchange HTTP обмен для обработки запроса и отправки ответа
-     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     * @param taskManager менеджер задач для выполнения операций с задачами
+     * @param gson экземпляр Gson для сериализации и десериализации JSON
+     * @param config настройки сервера
      */
+    public TasksHandler(TaskManager taskManager, Gson gson, ServerConfig config) {
+        super(taskManager, gson, config);
+        router.add("GET", "/tasks", (exchange, params) -> handleGetAll(exchange))
+                .add("GET", "/tasks/{id}", (exchange, params) -> handleGetById(exchange, params[0]))
+                .add("POST", "/tasks", (exchange, params) -> handlePost(exchange, null))
+                .add("POST", "/tasks/{id}", (exchange, params) -> handlePost(exchange, params[0]))
+                .add("POST", "/tasks/" + BATCH_PATH, (exchange, params) -> handleBatch(exchange, Task.class))
+                .add("DELETE", "/tasks", (exchange, params) -> handleDelete(exchange, null))
+                .add("DELETE", "/tasks/{id}", (exchange, params) -> handleDelete(exchange, params[0]));
+    }
+
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
+    protected String invalidIdMessage() {
+        return "Неверный формат ID задачи";
+    }
 
-            switch (method) {
-                case "GET":
-                    handleGet(exchange);
-                    break;
-                case "POST":
-                    handlePost(exchange);
-                    break;
-                case "DELETE":
-                    handleDelete(exchange);
-                    break;
-                default:
-                    sendBadRequest(exchange, "Метод не поддерживается");
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange, "Внутренняя ошибка сервера " + e.getMessage());
+    /**
+     * Обрабатывает GET /tasks - возвращает все задачи или их страницу.
+     * Одинаковые одновременные запросы получают один построенный ответ, повторные - из кэша
+     *
+     * @param exchange HTTP обмен для обработки запроса
+     * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
+     */
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        long version = taskManager.getModificationVersion(TaskType.TASK);
+        if (sendNotModifiedIfMatches(exchange, version)) {
+            return;
         }
+        sendCached(exchange, version, target -> sendPaged(target, taskManager::getAllTasks,
+                (cursor, limit) -> taskManager.getTasksPage(parseIdCursor(cursor), limit),
+                task -> String.valueOf(task.getId())));
     }
 
     /**
-     * Обрабатывает GET запросы для задач.
-     * Поддерживает два варианта:
-     * - GET /tasks - возвращает все задачи
-     * - GET /tasks/{id} - возвращает задачу по указанному ID
+     * Обрабатывает GET /tasks/{id} - возвращает задачу по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID задачи из пути
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleGet(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
-            sendSuccess(exchange, taskManager.getAllTasks());
-        } else {
-            try {
-                int id = Integer.parseInt(idParam);
-                Task task = taskManager.getTaskById(id);
-                sendSuccess(exchange, task);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID задачи");
-            } catch (NotFoundException e) {
-                sendNotFound(exchange, e.getMessage());
-            }
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        try {
+            Task task = taskManager.getTaskById(id);
+            sendSuccess(exchange, task);
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
         }
     }
 
@@ -90,32 +92,31 @@ public class TasksHandler extends BaseHttpHandler {
      * - POST /tasks/{id} - обновляет существующую задачу
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID задачи из пути или null для создания
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handlePost(HttpExchange exchange) throws IOException {
+    private void handlePost(HttpExchange exchange, Integer id) throws IOException {
         try {
-            String requestBody = readRequestBody(exchange);
-            Task task = gson.fromJson(requestBody, Task.class);
+            Task task = readEntity(exchange, Task.class);
 
             if (task == null) {
                 sendBadRequest(exchange, "Неверный запрос: некорректный JSON формат");
                 return;
             }
 
-            String idParam = getPathParameter(exchange, 1);
-
-            if (idParam == null) {
+            if (id == null) {
                 int newId = taskManager.createTask(task);
                 task.setId(newId);
                 sendCreated(exchange, task);
             } else {
-                int id = Integer.parseInt(idParam);
                 task.setId(id);
                 taskManager.updateTask(task);
                 sendSuccess(exchange, task);
             }
         } catch (JsonSyntaxException e) {
             sendBadRequest(exchange, "Неверный запрос: некорректный JSON формат");
+        } catch (RequestBodyTooLargeException e) {
+            sendPayloadTooLarge(exchange);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("пересекается")) {
                 sendHasInteractions(exchange, e.getMessage());
@@ -134,24 +135,20 @@ public class TasksHandler extends BaseHttpHandler {
      * - DELETE /tasks/{id} - удаляет задачу по указанному ID
      *
      * @param exchange HTTP обмен для обработки запроса
+     * @param id ID задачи из пути или null для удаления всех задач
      * @throws IOException если произошла ошибка ввода-вывода при обработке запроса
      */
-    private void handleDelete(HttpExchange exchange) throws IOException {
-        String idParam = getPathParameter(exchange, 1);
-
-        if (idParam == null) {
+    private void handleDelete(HttpExchange exchange, Integer id) throws IOException {
+        if (id == null) {
             taskManager.deleteAllTasks();
             sendNoContent(exchange);
         } else {
             try {
-                int id = Integer.parseInt(idParam);
                 taskManager.deleteTaskById(id);
                 sendNoContent(exchange);
-            } catch (NumberFormatException e) {
-                sendBadRequest(exchange, "Неверный формат ID задачи");
             } catch (NotFoundException e) {
                 sendNotFound(exchange, e.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package taskmanager.app.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул direct-буферов одного размера для тел ответов.
+ * Direct-буфер записывается в канал без промежуточного копирования в память ОС,
+ * но дорог в создании, поэтому буферы переиспользуются: после отправки буфер
+ * возвращается в пул, сверх предела - отдается сборщику мусора.
+ */
+final class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param bufferSize размер буфера в байтах
+     * @param maxPooled  наибольшее число свободных буферов в пуле
+     */
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return очищенный буфер из пула или новый
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Возвращает буфер в пул. Буфер не должен использоваться после возврата.
+     */
+    void release(ByteBuffer buffer) {
+        if (!buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,399 @@
+package taskmanager.app.server.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Соединение NIO сервера.
+ * Чтение, разбор запросов и запись в канал выполняются в потоке селектора,
+ * обработчики пишут ответ из своих потоков через очередь исходящих буферов.
+ *
+ * <p>Запросы конвейера (pipelining) обрабатываются по одному в порядке поступления:
+ * следующий запрос разбирается из буфера, только когда ответ на предыдущий поставлен в очередь
+ * целиком, поэтому ответы уходят в том же порядке. Пока запрос выполняется, соединение
+ * продолжает читать, но перестает, когда буфер чтения заполнен.
+ * Если клиент читает ответ медленнее, чем обработчик его пишет, обработчик ждет,
+ * пока очередь не уменьшится, - память на соединение ограничена.
+ */
+final class NioConnection {
+    /**
+     * Объем очереди, при котором запись обработчика приостанавливается
+     */
+    private static final long HIGH_WATER_BYTES = 256 * 1024;
+    /**
+     * Объем очереди, при котором приостановленная запись продолжается
+     */
+    private static final long LOW_WATER_BYTES = 64 * 1024;
+    /**
+     * Наибольшее число буферов в одной операции записи
+     */
+    private static final int MAX_GATHER = 16;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpServer server;
+    private final SocketChannel channel;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final ByteBuffer readBuffer;
+    private final RequestParser parser;
+    private final ConcurrentLinkedQueue<Outbound> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Object drainMonitor = new Object();
+    private SelectionKey key;
+    private volatile boolean closed;
+
+    // Состояние потока селектора
+    private boolean exchangeActive;
+    private boolean closeAfterWrite;
+    private boolean inputShutdown;
+    private long lastActivity = System.nanoTime();
+    private boolean readingRequest;
+    private long requestStarted;
+
+    NioConnection(NioHttpServer server, SocketChannel channel, int bufferSize, RequestParser parser)
+            throws IOException {
+        this.server = server;
+        this.channel = channel;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+        this.readBuffer = ByteBuffer.allocate(bufferSize);
+        this.parser = parser;
+    }
+
+    void register(SelectionKey key) {
+        this.key = key;
+    }
+
+    InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Читает доступные данные и, если соединение свободно, начинает следующий запрос.
+     * Вызывается в потоке селектора.
+     */
+    void onReadable() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            inputShutdown = true;
+        } else if (read > 0) {
+            lastActivity = System.nanoTime();
+        }
+        if (!exchangeActive) {
+            dispatchNext();
+        }
+        trackRequestStart();
+        if (inputShutdown && !exchangeActive && !closeAfterWrite) {
+            close();
+            return;
+        }
+        updateInterest();
+    }
+
+    /**
+     * Записывает в канал сколько возможно из очереди исходящих буферов.
+     * Вызывается в потоке селектора.
+     */
+    void onWritable() throws IOException {
+        ByteBuffer[] batch = new ByteBuffer[MAX_GATHER];
+        while (!closed) {
+            int count = 0;
+            for (Outbound entry : outbound) {
+                batch[count++] = entry.data();
+                if (count == MAX_GATHER) {
+                    break;
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+            long written = channel.write(batch, 0, count);
+            if (written > 0) {
+                lastActivity = System.nanoTime();
+            }
+            long released = 0;
+            Outbound head;
+            while ((head = outbound.peek()) != null && !head.data().hasRemaining()) {
+                outbound.poll();
+                released += head.size();
+                if (head.pooled() != null) {
+                    server.getBufferPool().release(head.pooled());
+                }
+            }
+            if (released > 0 && queuedBytes.addAndGet(-released) <= LOW_WATER_BYTES) {
+                synchronized (drainMonitor) {
+                    drainMonitor.notifyAll();
+                }
+            }
+            if (head != null && head.data().hasRemaining() && written == 0) {
+                break;
+            }
+        }
+        if (outbound.isEmpty() && closeAfterWrite) {
+            close();
+            return;
+        }
+        updateInterest();
+    }
+
+    /**
+     * Разбирает следующий запрос из буфера и передает его на выполнение.
+     * Вызывается в потоке селектора, когда на соединении нет выполняемого запроса.
+     */
+    private void dispatchNext() {
+        if (closeAfterWrite) {
+            return;
+        }
+        RequestParser.ParsedRequest request;
+        readBuffer.flip();
+        try {
+            request = parser.parse(readBuffer);
+        } catch (RequestParser.BadRequestException e) {
+            readBuffer.clear();
+            sendErrorAndClose(e.getStatusCode(), e.getMessage());
+            return;
+        }
+        readBuffer.compact();
+        if (parser.takeContinueRequest()) {
+            enqueueFromSelector(ByteBuffer.wrap(CONTINUE));
+        }
+        if (request != null) {
+            exchangeActive = true;
+            server.dispatch(this, request);
+        }
+    }
+
+    /**
+     * Запоминает момент, когда начал приходить следующий запрос, для срока его чтения.
+     * Срок не продлевается поступающими данными и сбрасывается, когда запрос разобран.
+     */
+    private void trackRequestStart() {
+        if (exchangeActive || closeAfterWrite || (parser.isIdle() && readBuffer.position() == 0)) {
+            readingRequest = false;
+        } else if (!readingRequest) {
+            readingRequest = true;
+            requestStarted = System.nanoTime();
+        }
+    }
+
+    /**
+     * Отмечает, что ответ на текущий запрос поставлен в очередь целиком.
+     * Может вызываться из любого потока.
+     *
+     * @param keepAlive соединение можно использовать для следующего запроса
+     */
+    void responseComplete(boolean keepAlive) {
+        server.runInSelector(() -> {
+            exchangeActive = false;
+            lastActivity = System.nanoTime();
+            if (!keepAlive) {
+                closeAfterWrite = true;
+            } else {
+                dispatchNext();
+                trackRequestStart();
+                if (inputShutdown && !exchangeActive) {
+                    closeAfterWrite = true;
+                }
+            }
+            writeOrClose();
+        });
+    }
+
+    /**
+     * Ставит буферы ответа в очередь на отправку. Вызывается из потока обработчика;
+     * если клиент не успевает читать, ожидает освобождения очереди.
+     *
+     * @param entries исходящие буферы в порядке отправки
+     * @throws IOException если соединение закрыто
+     */
+    void enqueue(List<Outbound> entries) throws IOException {
+        long size = 0;
+        for (Outbound entry : entries) {
+            size += entry.size();
+        }
+        if (closed) {
+            releaseAll(entries);
+            throw new IOException("Соединение закрыто");
+        }
+        outbound.addAll(entries);
+        long queued = queuedBytes.addAndGet(size);
+        server.runInSelector(this::writeOrClose);
+        if (queued > HIGH_WATER_BYTES) {
+            awaitDrain();
+        }
+        if (closed) {
+            throw new IOException("Соединение закрыто");
+        }
+    }
+
+    private void awaitDrain() throws IOException {
+        synchronized (drainMonitor) {
+            while (!closed && queuedBytes.get() > LOW_WATER_BYTES) {
+                try {
+                    drainMonitor.wait(TimeUnit.SECONDS.toMillis(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Ожидание отправки ответа прервано", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Закрывает соединение из любого потока, например если ответ оборван обработчиком
+     */
+    void abort() {
+        server.runInSelector(this::close);
+    }
+
+    /**
+     * Закрывает соединение, если оно простаивает дольше указанного времени
+     * или клиент не передал начатый запрос целиком за отведенный срок.
+     * Вызывается в потоке селектора.
+     *
+     * @param idleTimeoutNanos        наибольшее время без чтения и записи
+     * @param requestReadTimeoutNanos наибольшее время от первого байта запроса до его конца
+     */
+    void closeIfIdle(long now, long idleTimeoutNanos, long requestReadTimeoutNanos) {
+        if (readingRequest && now - requestStarted > requestReadTimeoutNanos) {
+            close();
+        } else if (!exchangeActive && outbound.isEmpty() && now - lastActivity > idleTimeoutNanos) {
+            close();
+        }
+    }
+
+    /**
+     * Закрывает соединение и освобождает буферы очереди. Вызывается в потоке селектора.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия соединения: " + e.getMessage());
+        }
+        Outbound entry;
+        while ((entry = outbound.poll()) != null) {
+            if (entry.pooled() != null) {
+                server.getBufferPool().release(entry.pooled());
+            }
+        }
+        synchronized (drainMonitor) {
+            drainMonitor.notifyAll();
+        }
+        server.connectionClosed(this);
+    }
+
+    private void writeOrClose() {
+        if (closed) {
+            return;
+        }
+        try {
+            onWritable();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void sendErrorAndClose(int statusCode, String message) {
+        byte[] body = ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + statusCode + " " + NioHttpExchange.reasonPhrase(statusCode) + "\r\n"
+                + "Content-Type: application/json; charset=utf-8\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        enqueueFromSelector(ByteBuffer.wrap(head.getBytes(StandardCharsets.US_ASCII)));
+        enqueueFromSelector(ByteBuffer.wrap(body));
+        closeAfterWrite = true;
+    }
+
+    /**
+     * Отвечает ошибкой на уже разобранный запрос, который не удалось передать обработчику
+     */
+    void rejectDispatched(int statusCode, String message) {
+        exchangeActive = false;
+        sendErrorAndClose(statusCode, message);
+        writeOrClose();
+    }
+
+    private void enqueueFromSelector(ByteBuffer data) {
+        outbound.add(new Outbound(data, null));
+        queuedBytes.addAndGet(data.remaining());
+    }
+
+    private void updateInterest() {
+        if (closed || !key.isValid()) {
+            return;
+        }
+        int ops = 0;
+        if (!closeAfterWrite && !inputShutdown && readBuffer.hasRemaining()) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (!outbound.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    private void releaseAll(List<Outbound> entries) {
+        for (Outbound entry : entries) {
+            if (entry.pooled() != null) {
+                server.getBufferPool().release(entry.pooled());
+            }
+        }
+    }
+
+    /**
+     * Исходящий буфер
+     */
+    static final class Outbound {
+        private final ByteBuffer data;
+        private final ByteBuffer pooled;
+        private final int size;
+
+        /**
+         * @param data   данные для отправки от position до limit
+         * @param pooled буфер пула, возвращаемый после отправки data, или null
+         */
+        Outbound(ByteBuffer data, ByteBuffer pooled) {
+            this.data = data;
+            this.pooled = pooled;
+            this.size = data.remaining();
+        }
+
+        ByteBuffer data() {
+            return data;
+        }
+
+        ByteBuffer pooled() {
+            return pooled;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package taskmanager.app.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Контекст NIO сервера: префикс пути, обработчик и цепочка фильтров
+ */
+final class NioHttpContext extends HttpContext {
+    private final String path;
+    private final NioHttpServer server;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final List<Filter> filters = new CopyOnWriteArrayList<>();
+    private volatile HttpHandler handler;
+
+    NioHttpContext(String path, HttpHandler handler, NioHttpServer server) {
+        this.path = path;
+        this.handler = handler;
+        this.server = server;
+    }
+
+    @Override
+    public HttpHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public void setHandler(HttpHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("Обработчик не может быть null");
+        }
+        if (this.handler != null) {
+            throw new IllegalArgumentException("Обработчик контекста уже задан");
+        }
+        this.handler = handler;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public HttpServer getServer() {
+        return server;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    @Override
+    public Authenticator setAuthenticator(Authenticator auth) {
+        throw new UnsupportedOperationException("Аутентификация NIO сервером не поддерживается");
+    }
+
+    @Override
+    public Authenticator getAuthenticator() {
+        return null;
+    }
+}
@@ -0,0 +1,433 @@
+package taskmanager.app.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP обмен NIO сервера - адаптер к API {@link HttpExchange}, поэтому обработчики
+ * и фильтры работают с ним так же, как со стандартным сервером.
+ * Тело запроса к моменту вызова обработчика уже прочитано целиком.
+ * Ответ пишется в direct-буферы из пула, которые по заполнении уходят в очередь соединения;
+ * строка статуса и заголовки попадают в тот же буфер, что и начало тела,
+ * поэтому небольшой ответ отправляется одной записью в канал.
+ * Готовое тело в {@link ByteBuffer} можно отправить без копирования через {@link #sendResponse}.
+ */
+public final class NioHttpExchange extends HttpExchange {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static volatile CachedDate cachedDate = new CachedDate(0, "");
+
+    private final NioConnection connection;
+    private final BufferPool bufferPool;
+    private final HttpContext context;
+    private final RequestParser.ParsedRequest request;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final ResponseStream responseBody = new ResponseStream();
+    private InputStream requestBody;
+    private int responseCode = -1;
+    private boolean keepAlive;
+    private boolean chunked;
+    private boolean bodyAllowed;
+    private long remainingLength = -1;
+    private boolean finished;
+
+    NioHttpExchange(NioConnection connection, BufferPool bufferPool, HttpContext context,
+                    RequestParser.ParsedRequest request) {
+        this.connection = connection;
+        this.bufferPool = bufferPool;
+        this.context = context;
+        this.request = request;
+        this.requestBody = new ByteArrayInputStream(request.body());
+        this.keepAlive = request.isKeepAlive();
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return request.headers();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return request.uri();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return request.method();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        try {
+            responseBody.close();
+        } catch (IOException e) {
+            connection.abort();
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Отправляет строку статуса и заголовки ответа.
+     *
+     * @param rCode          HTTP статус-код
+     * @param responseLength длина тела; 0 - длина неизвестна и тело передается фрагментами,
+     *                       -1 - тела нет
+     * @throws IOException если заголовки уже отправлены или соединение закрыто
+     */
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (responseCode >= 0) {
+            throw new IOException("Заголовки ответа уже отправлены");
+        }
+        responseCode = rCode;
+        boolean head = "HEAD".equals(request.method());
+        bodyAllowed = !head && rCode >= 200 && rCode != 204 && rCode != 304;
+        if (!bodyAllowed) {
+            if (head && responseLength > 0) {
+                responseHeaders.set("Content-Length", Long.toString(responseLength));
+            }
+            remainingLength = 0;
+        } else if (responseLength > 0) {
+            responseHeaders.set("Content-Length", Long.toString(responseLength));
+            remainingLength = responseLength;
+        } else if (responseLength == 0) {
+            if ("HTTP/1.1".equals(request.protocol())) {
+                responseHeaders.set("Transfer-Encoding", "chunked");
+                chunked = true;
+            } else {
+                // Клиент HTTP/1.0 узнает конец тела по закрытию соединения
+                keepAlive = false;
+            }
+        } else {
+            responseHeaders.set("Content-Length", "0");
+            remainingLength = 0;
+        }
+        String connectionHeader = responseHeaders.getFirst("Connection");
+        if (connectionHeader != null && connectionHeader.equalsIgnoreCase("close")) {
+            keepAlive = false;
+        }
+        if (!keepAlive) {
+            responseHeaders.set("Connection", "close");
+        }
+        responseBody.writeHead(formatHead(rCode));
+    }
+
+    /**
+     * Отправляет ответ с готовым телом без копирования: буфер уходит в очередь соединения
+     * как есть, а direct-буфер записывается в канал напрямую. Буфер не должен изменяться
+     * до окончания отправки. Обмен после вызова закрыт.
+     *
+     * @param rCode HTTP статус-код
+     * @param body  тело ответа от position до limit
+     * @throws IOException если заголовки уже отправлены или соединение закрыто
+     */
+    public void sendResponse(int rCode, ByteBuffer body) throws IOException {
+        sendResponseHeaders(rCode, body.hasRemaining() ? body.remaining() : -1);
+        if (bodyAllowed && body.hasRemaining()) {
+            remainingLength = 0;
+            responseBody.flushBuffer(body.duplicate(), false);
+        }
+        close();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.protocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        throw new UnsupportedOperationException("Подмена потоков обмена NIO сервера не поддерживается");
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Завершает обмен после возврата из обработчика: если ответ не начат - отвечает 500,
+     * если не закрыт - закрывает.
+     *
+     * @param failed обработчик завершился ошибкой
+     */
+    void finish(boolean failed) {
+        if (finished) {
+            return;
+        }
+        try {
+            if (responseCode < 0) {
+                keepAlive = false;
+                sendResponseHeaders(500, -1);
+            } else if (failed && !responseBody.closed) {
+                // Ответ оборван на середине: граница тела потеряна, соединение не переиспользуется
+                connection.abort();
+                finished = true;
+                return;
+            }
+            responseBody.close();
+        } catch (IOException e) {
+            connection.abort();
+        }
+    }
+
+    private byte[] formatHead(int rCode) {
+        StringBuilder head = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode)).append("\r\n");
+        if (!responseHeaders.containsKey("Date")) {
+            head.append("Date: ").append(currentDate()).append("\r\n");
+        }
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        return head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Значение заголовка Date; форматируется не чаще раза в секунду
+     */
+    private static String currentDate() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedDate date = cachedDate;
+        if (date.second() != second) {
+            date = new CachedDate(second, DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.now(ZoneOffset.UTC)));
+            cachedDate = date;
+        }
+        return date.value();
+    }
+
+    static String reasonPhrase(int code) {
+        return switch (code) {
+            case 100 -> "Continue";
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 204 -> "No Content";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 406 -> "Not Acceptable";
+            case 410 -> "Gone";
+            case 413 -> "Content Too Large";
+            case 429 -> "Too Many Requests";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 501 -> "Not Implemented";
+            case 503 -> "Service Unavailable";
+            default -> "";
+        };
+    }
+
+    private record CachedDate(long second, String value) {
+    }
+
+    /**
+     * Тело ответа: запись в буфер пула, по заполнению или flush - в очередь соединения
+     */
+    private final class ResponseStream extends OutputStream {
+        private ByteBuffer buffer;
+        /**
+         * Конец заголовков в текущем буфере: при фрагментированной передаче
+         * заголовки не входят в первый фрагмент
+         */
+        private int headEnd;
+        private boolean closed;
+
+        void writeHead(byte[] head) throws IOException {
+            if (head.length > bufferPool.getBufferSize()) {
+                connection.enqueue(List.of(new NioConnection.Outbound(ByteBuffer.wrap(head), null)));
+                return;
+            }
+            buffer = bufferPool.acquire();
+            buffer.put(head);
+            headEnd = buffer.position();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Поток ответа закрыт");
+            }
+            if (responseCode < 0) {
+                throw new IOException("Заголовки ответа еще не отправлены");
+            }
+            if (!bodyAllowed) {
+                return;
+            }
+            if (remainingLength >= 0) {
+                if (len > remainingLength) {
+                    throw new IOException("Тело ответа больше заявленной длины");
+                }
+                remainingLength -= len;
+            }
+            while (len > 0) {
+                if (buffer == null) {
+                    buffer = bufferPool.acquire();
+                } else if (!buffer.hasRemaining()) {
+                    flushBuffer(null, false);
+                    buffer = bufferPool.acquire();
+                }
+                int count = Math.min(len, buffer.remaining());
+                buffer.put(b, off, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!closed && buffer != null && buffer.position() > 0) {
+                flushBuffer(null, false);
+            }
+        }
+
+        /**
+         * Ставит текущий буфер в очередь соединения, а за ним - готовые данные, если они заданы
+         *
+         * @param extra данные, отправляемые следом без копирования, или null
+         * @param last  завершить фрагментированное тело пустым фрагментом
+         */
+        void flushBuffer(ByteBuffer extra, boolean last) throws IOException {
+            List<NioConnection.Outbound> entries = new ArrayList<>(5);
+            ByteBuffer current = buffer;
+            buffer = null;
+            if (current != null) {
+                current.flip();
+                if (chunked && current.limit() > headEnd) {
+                    if (headEnd > 0) {
+                        entries.add(new NioConnection.Outbound(current.duplicate().limit(headEnd), null));
+                    }
+                    ByteBuffer data = current.duplicate().position(headEnd);
+                    entries.add(chunkHeader(data.remaining()));
+                    entries.add(new NioConnection.Outbound(data, current));
+                    entries.add(new NioConnection.Outbound(ByteBuffer.wrap(CRLF), null));
+                } else if (current.hasRemaining()) {
+                    entries.add(new NioConnection.Outbound(current, current));
+                } else {
+                    bufferPool.release(current);
+                }
+                headEnd = 0;
+            }
+            if (extra != null && extra.hasRemaining()) {
+                if (chunked) {
+                    entries.add(chunkHeader(extra.remaining()));
+                    entries.add(new NioConnection.Outbound(extra, null));
+                    entries.add(new NioConnection.Outbound(ByteBuffer.wrap(CRLF), null));
+                } else {
+                    entries.add(new NioConnection.Outbound(extra, null));
+                }
+            }
+            if (last && chunked) {
+                entries.add(new NioConnection.Outbound(ByteBuffer.wrap(LAST_CHUNK), null));
+            }
+            if (!entries.isEmpty()) {
+                connection.enqueue(entries);
+            }
+        }
+
+        private NioConnection.Outbound chunkHeader(int size) {
+            byte[] header = (Integer.toHexString(size) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            return new NioConnection.Outbound(ByteBuffer.wrap(header), null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            finished = true;
+            if (responseCode < 0) {
+                // Обмен закрыт без ответа - как и стандартный сервер, закрываем соединение
+                connection.abort();
+                return;
+            }
+            try {
+                flushBuffer(null, true);
+            } catch (IOException e) {
+                connection.abort();
+                throw e;
+            }
+            if (remainingLength > 0) {
+                connection.abort();
+                throw new IOException("Тело ответа короче заявленной длины");
+            }
+            connection.responseComplete(keepAlive);
+        }
+    }
+}
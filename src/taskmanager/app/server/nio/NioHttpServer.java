@@ -0,0 +1,439 @@
+package taskmanager.app.server.nio;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Неблокирующий HTTP/1.1 сервер на {@link java.nio.channels.Selector}.
+ * Реализует API {@link HttpServer}, поэтому принимает те же обработчики и фильтры,
+ * что и стандартный сервер, и подменяет его без изменений в маршрутах.
+ *
+ * <p>Один поток селектора принимает подключения, читает и разбирает запросы и пишет ответы;
+ * обработчики выполняются в исполнителе сервера. Простаивающее соединение не занимает
+ * поток, поэтому тысячи keep-alive клиентов обходятся без тысяч потоков.
+ * Поддерживаются постоянные соединения, конвейер запросов (ответы уходят в порядке запросов),
+ * тела запросов с {@code Content-Length} и {@code chunked}, {@code Expect: 100-continue}.
+ * Ответы собираются в пуле direct-буферов и отправляются в канал одной операцией записи
+ * из нескольких буферов; готовое тело можно передать без копирования через
+ * {@link NioHttpExchange#sendResponse}.
+ *
+ * <p>Исполнитель не должен выполнять задачи в вызывающем потоке: обработчик, запущенный
+ * в потоке селектора, остановил бы обмен данными со всеми клиентами. Если задача отклонена
+ * исполнителем, клиент получает 503. Аутентификация контекстов и HTTPS не поддерживаются.
+ */
+public final class NioHttpServer extends HttpServer {
+    /**
+     * Размер буфера чтения соединения
+     */
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+    /**
+     * Размер буфера ответа из пула
+     */
+    private static final int RESPONSE_BUFFER_BYTES = 16 * 1024;
+    /**
+     * Наибольшее число свободных буферов ответа в пуле
+     */
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    /**
+     * Наибольший размер строки запроса и заголовков
+     */
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+    private static final long SELECT_TIMEOUT_MILLIS = 1000;
+
+    private final long idleTimeoutNanos;
+    private final long requestReadTimeoutNanos;
+    private final long maxBodyBytes;
+    private final BufferPool bufferPool = new BufferPool(RESPONSE_BUFFER_BYTES, MAX_POOLED_BUFFERS);
+    private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeExchanges = new AtomicInteger();
+    private final Object exchangesMonitor = new Object();
+    // Используется только потоком селектора
+    private final Set<NioConnection> connections = new HashSet<>();
+    private final Selector selector;
+    private ServerSocketChannel listener;
+    private volatile Executor executor;
+    private ExecutorService ownExecutor;
+    private Thread selectorThread;
+    private volatile boolean running;
+    private boolean started;
+
+    /**
+     * Создает сервер, не привязанный к адресу
+     *
+     * @param config настройки сервера
+     * @throws IOException если не удалось открыть селектор
+     */
+    public NioHttpServer(ServerConfig config) throws IOException {
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(config.getKeepAliveTimeoutSeconds());
+        this.requestReadTimeoutNanos = TimeUnit.SECONDS.toNanos(config.getRequestReadTimeoutSeconds());
+        this.maxBodyBytes = config.getMaxRequestBodyBytes();
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Создает сервер и привязывает его к адресу
+     *
+     * @param address адрес или null, если сервер будет привязан позже
+     * @param backlog длина очереди подключений; 0 и меньше - значение системы
+     * @param config  настройки сервера
+     * @return сервер
+     * @throws IOException если не удалось открыть сокет
+     */
+    public static NioHttpServer create(InetSocketAddress address, int backlog, ServerConfig config)
+            throws IOException {
+        NioHttpServer server = new NioHttpServer(config);
+        if (address != null) {
+            server.bind(address, backlog);
+        }
+        return server;
+    }
+
+    @Override
+    public synchronized void bind(InetSocketAddress addr, int backlog) throws IOException {
+        if (listener != null) {
+            throw new BindException("Сервер уже привязан к адресу");
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(addr, Math.max(backlog, 0));
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        listener = channel;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (listener == null) {
+            throw new IllegalStateException("Сервер не привязан к адресу");
+        }
+        if (started) {
+            throw new IllegalStateException("Сервер уже запущен");
+        }
+        if (executor == null) {
+            ownExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            executor = ownExecutor;
+        }
+        try {
+            listener.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать сокет сервера", e);
+        }
+        started = true;
+        running = true;
+        selectorThread = new Thread(this::runLoop, "nio-http-dispatcher");
+        selectorThread.start();
+    }
+
+    @Override
+    public synchronized void setExecutor(Executor executor) {
+        if (started) {
+            throw new IllegalStateException("Исполнитель задается до запуска сервера");
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return ownExecutor != null ? null : executor;
+    }
+
+    /**
+     * Останавливает сервер: прекращает прием подключений, ждет завершения выполняемых
+     * запросов не дольше указанного времени и закрывает все соединения
+     *
+     * @param delay наибольшее время ожидания в секундах
+     */
+    @Override
+    public void stop(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Время ожидания не может быть отрицательным");
+        }
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            try {
+                listener.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия сокета сервера: " + e.getMessage());
+            }
+        }
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+        synchronized (exchangesMonitor) {
+            long remaining;
+            while (activeExchanges.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(exchangesMonitor, remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Путь контекста должен начинаться с '/': " + path);
+        }
+        synchronized (contexts) {
+            for (NioHttpContext context : contexts) {
+                if (context.getPath().equals(path)) {
+                    throw new IllegalArgumentException("Контекст уже существует: " + path);
+                }
+            }
+            NioHttpContext context = new NioHttpContext(path, handler, this);
+            contexts.add(context);
+            return context;
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        return createContext(path, null);
+    }
+
+    @Override
+    public void removeContext(String path) {
+        synchronized (contexts) {
+            if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+                throw new IllegalArgumentException("Контекст не найден: " + path);
+            }
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        if (!contexts.remove(context)) {
+            throw new IllegalArgumentException("Контекст не принадлежит серверу: " + context.getPath());
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return listener == null ? null : (InetSocketAddress) listener.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Выполняет действие в потоке селектора: сразу, если вызван из него, иначе - при следующем
+     * пробуждении селектора
+     */
+    void runInSelector(Runnable task) {
+        if (Thread.currentThread() == selectorThread) {
+            task.run();
+            return;
+        }
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Передает разобранный запрос обработчику контекста. Вызывается в потоке селектора.
+     */
+    void dispatch(NioConnection connection, RequestParser.ParsedRequest request) {
+        NioHttpContext context = findContext(request.uri().getPath());
+        if (context == null || context.getHandler() == null) {
+            connection.rejectDispatched(404, "Контекст для запроса не найден");
+            return;
+        }
+        NioHttpExchange exchange = new NioHttpExchange(connection, bufferPool, context, request);
+        activeExchanges.incrementAndGet();
+        try {
+            executor.execute(() -> handle(exchange, context));
+        } catch (RejectedExecutionException e) {
+            exchangeDone();
+            connection.rejectDispatched(503, "Сервер перегружен");
+        }
+    }
+
+    void connectionClosed(NioConnection connection) {
+        connections.remove(connection);
+    }
+
+    private void handle(NioHttpExchange exchange, NioHttpContext context) {
+        boolean failed = true;
+        try {
+            new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+            failed = false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ошибка обработки запроса " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + e.getMessage());
+        } finally {
+            exchange.finish(failed);
+            exchangeDone();
+        }
+    }
+
+    private void exchangeDone() {
+        if (activeExchanges.decrementAndGet() == 0) {
+            synchronized (exchangesMonitor) {
+                exchangesMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Находит контекст с самым длинным путем, которым начинается путь запроса
+     */
+    private NioHttpContext findContext(String path) {
+        if (path == null) {
+            return null;
+        }
+        NioHttpContext best = null;
+        for (NioHttpContext context : contexts) {
+            if (path.startsWith(context.getPath())
+                    && (best == null || context.getPath().length() > best.getPath().length())) {
+                best = context;
+            }
+        }
+        return best;
+    }
+
+    private void runLoop() {
+        long lastSweep = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                runSelectorTasks();
+                Set<SelectionKey> selected = selector.selectedKeys();
+                for (SelectionKey key : selected) {
+                    handleKey(key);
+                }
+                selected.clear();
+                long now = System.nanoTime();
+                if (now - lastSweep >= TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT_MILLIS)) {
+                    lastSweep = now;
+                    for (NioConnection connection : new ArrayList<>(connections)) {
+                        connection.closeIfIdle(now, idleTimeoutNanos, requestReadTimeoutNanos);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ошибка в цикле NIO сервера: " + e.getMessage());
+        } finally {
+            runSelectorTasks();
+            for (NioConnection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия селектора: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка задачи NIO сервера: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                connection.onWritable();
+            }
+            if (key.isValid() && key.isReadable()) {
+                connection.onReadable();
+            }
+        } catch (IOException e) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = listener.accept();
+            } catch (IOException e) {
+                System.err.println("Ошибка приема подключения: " + e.getMessage());
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                NioConnection connection = new NioConnection(this, channel, READ_BUFFER_BYTES,
+                        new RequestParser(MAX_HEAD_BYTES, maxBodyBytes));
+                connection.register(channel.register(selector, SelectionKey.OP_READ, connection));
+                connections.add(connection);
+            } catch (IOException e) {
+                System.err.println("Ошибка настройки подключения: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Подключение и так не используется
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package taskmanager.app.server.nio;
+
+import com.sun.net.httpserver.Headers;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Инкрементальный разбор запросов HTTP/1.1 из буфера соединения.
+ * Данные подаются по мере поступления; разбор потребляет байты буфера и сохраняет
+ * свое состояние между вызовами, поэтому заголовки и тело могут приходить частями.
+ * Разбор останавливается на границе запроса: байты следующего запроса конвейера
+ * остаются в буфере до следующего вызова.
+ * Поддерживаются тела с {@code Content-Length} и {@code Transfer-Encoding: chunked}.
+ */
+final class RequestParser {
+    private enum State { HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILER }
+
+    /**
+     * Начальный размер буфера тела с {@code Content-Length}; дальше буфер растет
+     * по мере поступления данных, а не выделяется по заявленной длине
+     */
+    private static final int INITIAL_BODY_BYTES = 8 * 1024;
+
+    private final int maxHeadBytes;
+    private final long maxBodyBytes;
+    private final StringBuilder line = new StringBuilder();
+    private State state = State.HEAD;
+    private int headBytes;
+    private String method;
+    private URI uri;
+    private String protocol;
+    private Headers headers;
+    private byte[] body;
+    private int bodyLength;
+    private int bodyCount;
+    private ByteArrayOutputStream chunkedBody;
+    private long chunkRemaining;
+    private boolean continueRequested;
+
+    /**
+     * @param maxHeadBytes наибольший размер строки запроса и заголовков
+     * @param maxBodyBytes наибольший размер тела запроса
+     */
+    RequestParser(int maxHeadBytes, long maxBodyBytes) {
+        this.maxHeadBytes = maxHeadBytes;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * Продолжает разбор данными из буфера
+     *
+     * @param in буфер в режиме чтения; прочитанные байты потребляются
+     * @return разобранный запрос или null, если данных пока недостаточно
+     * @throws BadRequestException если запрос некорректен или превышает ограничения
+     */
+    ParsedRequest parse(ByteBuffer in) throws BadRequestException {
+        while (true) {
+            switch (state) {
+                case HEAD -> {
+                    String next = readLine(in, true);
+                    if (next == null) {
+                        return null;
+                    }
+                    if (method == null) {
+                        // Пустые строки перед строкой запроса допускаются (RFC 9112, 2.2)
+                        if (!next.isEmpty()) {
+                            parseRequestLine(next);
+                        }
+                    } else if (next.isEmpty()) {
+                        ParsedRequest complete = startBody();
+                        if (complete != null) {
+                            return complete;
+                        }
+                    } else {
+                        parseHeader(next);
+                    }
+                }
+                case BODY -> {
+                    while (in.hasRemaining() && bodyCount < bodyLength) {
+                        if (bodyCount == body.length) {
+                            body = Arrays.copyOf(body, (int) Math.min(bodyLength, 2L * body.length));
+                        }
+                        int count = Math.min(in.remaining(), body.length - bodyCount);
+                        in.get(body, bodyCount, count);
+                        bodyCount += count;
+                    }
+                    if (bodyCount < bodyLength) {
+                        return null;
+                    }
+                    return complete(body);
+                }
+                case CHUNK_SIZE -> {
+                    String next = readLine(in, false);
+                    if (next == null) {
+                        return null;
+                    }
+                    int extension = next.indexOf(';');
+                    String size = (extension < 0 ? next : next.substring(0, extension)).trim();
+                    try {
+                        chunkRemaining = Long.parseLong(size, 16);
+                    } catch (NumberFormatException e) {
+                        throw new BadRequestException(400, "Некорректный размер фрагмента тела");
+                    }
+                    if (chunkRemaining < 0 || chunkedBody.size() + chunkRemaining > maxBodyBytes) {
+                        throw new BadRequestException(413, "Тело запроса слишком большое");
+                    }
+                    state = chunkRemaining == 0 ? State.TRAILER : State.CHUNK_DATA;
+                }
+                case CHUNK_DATA -> {
+                    int count = (int) Math.min(in.remaining(), chunkRemaining);
+                    if (in.hasArray()) {
+                        chunkedBody.write(in.array(), in.arrayOffset() + in.position(), count);
+                        in.position(in.position() + count);
+                    } else {
+                        byte[] copy = new byte[count];
+                        in.get(copy);
+                        chunkedBody.write(copy, 0, count);
+                    }
+                    chunkRemaining -= count;
+                    if (chunkRemaining > 0) {
+                        return null;
+                    }
+                    state = State.CHUNK_END;
+                }
+                case CHUNK_END -> {
+                    String next = readLine(in, false);
+                    if (next == null) {
+                        return null;
+                    }
+                    if (!next.isEmpty()) {
+                        throw new BadRequestException(400, "Некорректное окончание фрагмента тела");
+                    }
+                    state = State.CHUNK_SIZE;
+                }
+                case TRAILER -> {
+                    String next = readLine(in, false);
+                    if (next == null) {
+                        return null;
+                    }
+                    if (next.isEmpty()) {
+                        return complete(chunkedBody.toByteArray());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Сообщает, ждет ли клиент ответа {@code 100 Continue} перед отправкой тела.
+     * Возвращает true один раз для запроса.
+     */
+    boolean takeContinueRequest() {
+        boolean requested = continueRequested;
+        continueRequested = false;
+        return requested;
+    }
+
+    /**
+     * @return true, если ни один байт следующего запроса еще не разобран
+     */
+    boolean isIdle() {
+        return state == State.HEAD && method == null && headBytes == 0;
+    }
+
+    /**
+     * Читает строку до LF, отбрасывая CR в конце
+     *
+     * @param head строка относится к заголовкам и учитывается в их размере
+     * @return строка или null, если LF еще не пришел
+     */
+    private String readLine(ByteBuffer in, boolean head) throws BadRequestException {
+        while (in.hasRemaining()) {
+            char c = (char) (in.get() & 0xFF);
+            if (head && ++headBytes > maxHeadBytes) {
+                throw new BadRequestException(431, "Заголовки запроса слишком большие");
+            }
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                String result = line.toString();
+                line.setLength(0);
+                return result;
+            }
+            if (!head && line.length() >= maxHeadBytes) {
+                throw new BadRequestException(400, "Слишком длинная строка тела запроса");
+            }
+            line.append(c);
+        }
+        return null;
+    }
+
+    private void parseRequestLine(String requestLine) throws BadRequestException {
+        String[] parts = requestLine.split(" ");
+        if (parts.length != 3 || parts[0].isEmpty() || !parts[2].startsWith("HTTP/1.")) {
+            throw new BadRequestException(400, "Некорректная строка запроса");
+        }
+        try {
+            uri = new URI(parts[1]);
+        } catch (URISyntaxException e) {
+            throw new BadRequestException(400, "Некорректный адрес запроса");
+        }
+        method = parts[0];
+        protocol = parts[2];
+        headers = new Headers();
+    }
+
+    private void parseHeader(String header) throws BadRequestException {
+        int colon = header.indexOf(':');
+        if (colon <= 0 || Character.isWhitespace(header.charAt(0))) {
+            throw new BadRequestException(400, "Некорректный заголовок запроса");
+        }
+        headers.add(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+    }
+
+    /**
+     * Определяет способ передачи тела по заголовкам
+     *
+     * @return запрос без тела или null, если тело еще нужно прочитать
+     */
+    private ParsedRequest startBody() throws BadRequestException {
+        String transferEncoding = headers.getFirst("Transfer-Encoding");
+        String contentLength = headers.getFirst("Content-Length");
+        boolean expectsBody;
+        if (transferEncoding != null) {
+            if (!transferEncoding.toLowerCase().endsWith("chunked")) {
+                // Значение клиента не попадает в ответ: сообщение ошибки вставляется в JSON как есть
+                throw new BadRequestException(501, "Кодирование тела не поддерживается");
+            }
+            chunkedBody = new ByteArrayOutputStream();
+            state = State.CHUNK_SIZE;
+            expectsBody = true;
+        } else if (contentLength != null) {
+            long length;
+            try {
+                length = Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(400, "Некорректный Content-Length");
+            }
+            if (length < 0) {
+                throw new BadRequestException(400, "Некорректный Content-Length");
+            }
+            if (length > maxBodyBytes) {
+                throw new BadRequestException(413, "Тело запроса слишком большое");
+            }
+            if (length == 0) {
+                return complete(new byte[0]);
+            }
+            bodyLength = (int) length;
+            body = new byte[Math.min(bodyLength, INITIAL_BODY_BYTES)];
+            bodyCount = 0;
+            state = State.BODY;
+            expectsBody = true;
+        } else {
+            return complete(new byte[0]);
+        }
+        continueRequested = expectsBody && "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+        return null;
+    }
+
+    private ParsedRequest complete(byte[] requestBody) {
+        ParsedRequest request = new ParsedRequest(method, uri, protocol, headers, requestBody);
+        state = State.HEAD;
+        headBytes = 0;
+        method = null;
+        uri = null;
+        protocol = null;
+        headers = null;
+        body = null;
+        chunkedBody = null;
+        continueRequested = false;
+        return request;
+    }
+
+    /**
+     * Разобранный запрос
+     *
+     * @param method   метод
+     * @param uri      адрес из строки запроса
+     * @param protocol версия протокола, например {@code HTTP/1.1}
+     * @param headers  заголовки
+     * @param body     тело, пустое при его отсутствии
+     */
+    record ParsedRequest(String method, URI uri, String protocol, Headers headers, byte[] body) {
+
+        /**
+         * @return true, если клиент не против повторного использования соединения
+         */
+        boolean isKeepAlive() {
+            String connection = headers.getFirst("Connection");
+            if (connection != null) {
+                String value = connection.toLowerCase();
+                if (value.contains("close")) {
+                    return false;
+                }
+                if (value.contains("keep-alive")) {
+                    return true;
+                }
+            }
+            return "HTTP/1.1".equals(protocol);
+        }
+    }
+
+    /**
+     * Некорректный запрос, на который отвечается кодом ошибки с закрытием соединения
+     */
+    static final class BadRequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int statusCode;
+
+        BadRequestException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
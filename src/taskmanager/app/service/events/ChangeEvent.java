@@ -0,0 +1,29 @@
+package taskmanager.app.service.events;
+
+import taskmanager.app.entity.TaskType;
+
+/**
+ * Событие изменения данных менеджера задач.
+ * Событие сообщает, что элемент мог измениться, и не содержит его данных:
+ * клиент перечитывает нужные элементы сам.
+ *
+ * @param version версия менеджера после изменения
+ * @param action  вид изменения
+ * @param type    тип измененных задач
+ * @param id      идентификатор элемента или 0 для {@link Action#CLEARED}
+ */
+public record ChangeEvent(long version, Action action, TaskType type, int id) {
+
+    /**
+     * Вид изменения
+     */
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Удалены все элементы типа
+         */
+        CLEARED
+    }
+}
@@ -0,0 +1,279 @@
+package taskmanager.app.service.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Шина событий изменения данных.
+ * Хранит кольцевой буфер последних событий для чтения с указанной версии
+ * и рассылает новые события подписчикам. Очередь каждого подписчика ограничена:
+ * подписчик, не успевающий забирать события, отключается, чтобы не расходовать память.
+ * Для ожидания используются ReentrantLock и Condition, а не мониторы,
+ * чтобы ожидающие виртуальные потоки не занимали потоки-носители. Потокобезопасна.
+ */
+public class ChangeEventBus {
+
+    /**
+     * Количество последних событий, доступных для чтения с версии, по умолчанию
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 1_024;
+    /**
+     * Размер очереди одного подписчика по умолчанию
+     */
+    public static final int DEFAULT_SUBSCRIBER_BUFFER = 256;
+
+    private final ChangeEvent[] recent;
+    private final int subscriberBuffer;
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    /**
+     * Индекс самого старого события в кольцевом буфере
+     */
+    private int head;
+    private int count;
+    /**
+     * Версия последнего вытесненного из буфера события: более ранние версии недоступны
+     */
+    private long evictedVersion;
+    private long lastVersion;
+
+    /**
+     * Создает шину с размерами буферов по умолчанию
+     */
+    public ChangeEventBus() {
+        this(DEFAULT_HISTORY_SIZE, DEFAULT_SUBSCRIBER_BUFFER);
+    }
+
+    /**
+     * Создает шину с указанными размерами буферов
+     *
+     * @param historySize      количество последних событий, доступных для чтения (больше нуля)
+     * @param subscriberBuffer размер очереди одного подписчика (больше нуля)
+     */
+    public ChangeEventBus(int historySize, int subscriberBuffer) {
+        if (historySize <= 0 || subscriberBuffer <= 0) {
+            throw new IllegalArgumentException("Размеры буферов событий должны быть больше нуля");
+        }
+        this.recent = new ChangeEvent[historySize];
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    /**
+     * Публикует событие: сохраняет его в буфере, будит ожидающих и рассылает подписчикам.
+     * События должны публиковаться в порядке неубывания версий.
+     *
+     * @param event событие изменения
+     */
+    public void publish(ChangeEvent event) {
+        Objects.requireNonNull(event, "Событие не может быть null");
+        lock.lock();
+        try {
+            if (count == recent.length) {
+                evictedVersion = recent[head].version();
+                head = (head + 1) % recent.length;
+                count--;
+            }
+            recent[(head + count) % recent.length] = event;
+            count++;
+            lastVersion = event.version();
+            published.signalAll();
+            for (Subscription subscription : subscribers) {
+                subscription.offer(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает события с версией больше указанной.
+     *
+     * @param since версия, известная клиенту
+     * @return события в порядке публикации или null, если часть из них уже вытеснена из буфера
+     */
+    public List<ChangeEvent> eventsSince(long since) {
+        lock.lock();
+        try {
+            return collectSince(since);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ожидает события с версией больше указанной (long-poll).
+     *
+     * @param since   версия, известная клиенту
+     * @param timeout максимальное время ожидания
+     * @param unit    единица времени ожидания
+     * @return события в порядке публикации, пустой список по истечении ожидания
+     * или null, если часть событий уже вытеснена из буфера
+     * @throws InterruptedException если ожидание прервано
+     */
+    public List<ChangeEvent> awaitEventsSince(long since, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (true) {
+                List<ChangeEvent> events = collectSince(since);
+                if (events == null || !events.isEmpty() || nanos <= 0) {
+                    return events;
+                }
+                nanos = published.awaitNanos(nanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подписывает на новые события
+     *
+     * @return подписка, которую нужно закрыть после использования
+     */
+    public Subscription subscribe() {
+        Subscription subscription = new Subscription(subscriberBuffer);
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * @return версия последнего опубликованного события или 0
+     */
+    public long getLastVersion() {
+        lock.lock();
+        try {
+            return lastVersion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return количество активных подписчиков
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Собирает события новее указанной версии. Вызывается только под lock.
+     */
+    private List<ChangeEvent> collectSince(long since) {
+        if (since < evictedVersion) {
+            return null;
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ChangeEvent event = recent[(head + i) % recent.length];
+            if (event.version() > since) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Подписка на события с ограниченной очередью.
+     * При переполнении очереди подписка закрывается и помечается как переполненная.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final ArrayDeque<ChangeEvent> queue;
+        private final int capacity;
+        private final ReentrantLock queueLock = new ReentrantLock();
+        private final Condition available = queueLock.newCondition();
+        private boolean closed;
+        private volatile boolean overflowed;
+
+        private Subscription(int capacity) {
+            this.capacity = capacity;
+            this.queue = new ArrayDeque<>(capacity);
+        }
+
+        /**
+         * Ожидает следующее событие.
+         *
+         * @param timeout максимальное время ожидания
+         * @param unit    единица времени ожидания
+         * @return событие или null, если время истекло или подписка закрыта
+         * @throws InterruptedException если ожидание прервано
+         */
+        public ChangeEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            queueLock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                return queue.poll();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        /**
+         * @return true, если подписка закрыта
+         */
+        public boolean isClosed() {
+            queueLock.lock();
+            try {
+                return closed;
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        /**
+         * @return true, если подписка закрыта из-за переполнения очереди
+         */
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        /**
+         * Закрывает подписку и будит ожидающий поток
+         */
+        @Override
+        public void close() {
+            subscribers.remove(this);
+            queueLock.lock();
+            try {
+                closed = true;
+                available.signalAll();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        private void offer(ChangeEvent event) {
+            queueLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() == capacity) {
+                    overflowed = true;
+                    queue.clear();
+                } else {
+                    queue.add(event);
+                }
+            } finally {
+                queueLock.unlock();
+            }
+            if (overflowed) {
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package taskmanager.app.service.history;
+
+import taskmanager.app.entity.Task;
+import taskmanager.app.management.HistoryManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасный HistoryManager для многопоточного сервера.
+ * Просмотры и удаления записываются в неблокирующую очередь и применяются
+ * к упорядоченной истории пакетами: пакет разбирает тот поток, которому удалось
+ * захватить блокировку без ожидания, остальные потоки не блокируются.
+ * Чтение истории дожидается разбора очереди и возвращает согласованный снимок.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    /**
+     * Количество накопленных событий, после которого записывающий поток пытается разобрать очередь
+     */
+    static final int DRAIN_THRESHOLD = 64;
+
+    /**
+     * Упорядоченная история, доступна только под drainLock
+     */
+    private final HistoryManager delegate;
+    /**
+     * Очередь еще не примененных событий в порядке их записи
+     */
+    private final ConcurrentLinkedQueue<HistoryEvent> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * Количество событий в очереди
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    /**
+     * Блокировка разбора очереди
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * Создает историю поверх InMemoryHistoryManager с размером по умолчанию
+     */
+    public ConcurrentHistoryManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    /**
+     * Создает потокобезопасную обертку над однопоточной историей
+     *
+     * @param delegate однопоточная история, не используемая напрямую другими объектами
+     */
+    public ConcurrentHistoryManager(HistoryManager delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "Менеджер истории не может быть null");
+    }
+
+    /**
+     * @return снимок истории от самого старого к самому новому просмотру
+     */
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainPending();
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает просмотр задачи без блокировки вызывающего потока
+     *
+     * @param task задача для добавления (null игнорируется)
+     */
+    @Override
+    public void add(Task task) {
+        if (task != null) {
+            enqueue(new HistoryEvent(task, task.getId()));
+        }
+    }
+
+    /**
+     * Записывает удаление задачи из истории без блокировки вызывающего потока
+     *
+     * @param id идентификатор для удаления
+     */
+    @Override
+    public void remove(int id) {
+        enqueue(new HistoryEvent(null, id));
+    }
+
+    /**
+     * Очищает историю вместе с накопленными событиями
+     */
+    @Override
+    public void clear() {
+        drainLock.lock();
+        try {
+            drainPending();
+            delegate.clear();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет событие в очередь и при накоплении пакета пытается его разобрать
+     */
+    private void enqueue(HistoryEvent event) {
+        pending.offer(event);
+        if (pendingCount.incrementAndGet() >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drainPending();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Применяет накопленные события к упорядоченной истории.
+     * Вызывается только под drainLock.
+     */
+    private void drainPending() {
+        HistoryEvent event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (event.task() != null) {
+                delegate.add(event.task());
+            } else {
+                delegate.remove(event.id());
+            }
+        }
+    }
+
+    /**
+     * Событие истории: просмотр задачи или удаление по id (task == null)
+     *
+     * @param task просмотренная задача или null для удаления
+     * @param id   идентификатор задачи
+     */
+    private record HistoryEvent(Task task, int id) {}
+}
@@ -3,19 +3,40 @@ package taskmanager.app.service.history;
 import taskmanager.app.entity.Task;
 import taskmanager.app.management.HistoryManager;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
 
 /**
  * HistoryManager хранит историю просмотров в оперативной памяти.
- * Использует двусвязный список для порядка и хэш-таблицу для быстрого доступа
+ * Использует двусвязный список для порядка и хэш-таблицу для быстрого доступа.
+ * Размер истории ограничен: при переполнении за O(1) вытесняется самый старый просмотр,
+ * а при заданном времени жизни устаревшие просмотры удаляются с головы списка.
  */
 
 public class InMemoryHistoryManager implements HistoryManager {
 
+    /**
+     * Максимальный размер истории по умолчанию
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
     /**
      * Хеш-таблица для быстрого доступа к узлам
      */
     private final Map<Integer, Node> historyMap = new HashMap<>();
+    /**
+     * Максимальное количество просмотров в истории
+     */
+    private final int maxSize;
+    /**
+     * Время жизни просмотра в миллисекундах, 0 - без ограничения
+     */
+    private final long ttlMillis;
+    /**
+     * Часы для отметки времени просмотра
+     */
+    private final Clock clock;
     /**
      * Первый узел
      */
@@ -25,12 +46,58 @@ public class InMemoryHistoryManager implements HistoryManager {
      */
     private Node tail;
 
+    /**
+     * Создает историю с размером по умолчанию и без ограничения времени жизни
+     */
+    public InMemoryHistoryManager() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Создает историю ограниченного размера без ограничения времени жизни
+     *
+     * @param maxSize максимальное количество просмотров (больше нуля)
+     */
+    public InMemoryHistoryManager(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Создает историю ограниченного размера с временем жизни просмотров
+     *
+     * @param maxSize максимальное количество просмотров (больше нуля)
+     * @param ttl     время жизни просмотра, null - без ограничения
+     */
+    public InMemoryHistoryManager(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Создает историю ограниченного размера с временем жизни просмотров
+     *
+     * @param maxSize максимальное количество просмотров (больше нуля)
+     * @param ttl     время жизни просмотра, null - без ограничения
+     * @param clock   часы для отметки времени просмотра
+     */
+    public InMemoryHistoryManager(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть больше нуля");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("Время жизни просмотра должно быть положительным");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl != null ? ttl.toMillis() : 0;
+        this.clock = Objects.requireNonNull(clock, "Часы не могут быть null");
+    }
+
     /**
      * @return список задач от самого старого к самому новому
      */
     @Override
     public List<Task> getHistory() {
-        List<Task> history = new ArrayList<>();
+        evictExpired();
+        List<Task> history = new ArrayList<>(historyMap.size());
         Optional.ofNullable(head)
                 .ifPresent(node -> {
                     Node current = node;
@@ -45,6 +112,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     /**
      * Добавляет задачу в историю.
      * Если задача есть в истории, то перемещает ее в конец.
+     * При превышении максимального размера вытесняет самый старый просмотр.
      *
      * @param task задача для добавления (не может быть null)
      */
@@ -53,13 +121,57 @@ public class InMemoryHistoryManager implements HistoryManager {
         Optional.ofNullable(task).ifPresent(t -> {
             int id = t.getId();
             remove(id);
+            evictExpired();
 
-            Node newNode = new Node(t, tail, null);
+            Node newNode = new Node(t, id, ttlMillis > 0 ? clock.millis() : 0, tail, null);
             linkLast(newNode);
             historyMap.put(id, newNode);
+
+            if (historyMap.size() > maxSize) {
+                evictOldest();
+            }
         });
     }
 
+    /**
+     * @return количество просмотров в истории
+     */
+    public int size() {
+        return historyMap.size();
+    }
+
+    /**
+     * @return максимальное количество просмотров в истории
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Вытесняет самый старый просмотр из головы списка
+     */
+    private void evictOldest() {
+        Node oldest = head;
+        if (oldest != null) {
+            removeNode(oldest);
+            historyMap.remove(oldest.id);
+        }
+    }
+
+    /**
+     * Удаляет просмотры, время жизни которых истекло.
+     * Просмотры упорядочены по времени, поэтому достаточно проверять голову списка.
+     */
+    private void evictExpired() {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        long expiredBefore = clock.millis() - ttlMillis;
+        while (head != null && head.viewedAt <= expiredBefore) {
+            evictOldest();
+        }
+    }
+
     /**
      * Удаляет задачу из истории
      *
@@ -148,18 +260,24 @@ public class InMemoryHistoryManager implements HistoryManager {
      */
     private static class Node {
         final Task task;
+        final int id;
+        final long viewedAt;
         Node next;
         Node prev;
 
         /**
          * Создает новый узел
          *
-         * @param task задача для хранения
-         * @param prev предыдущий узел
-         * @param next следующий узел
+         * @param task     задача для хранения
+         * @param id       идентификатор задачи на момент просмотра
+         * @param viewedAt время просмотра в миллисекундах
+         * @param prev     предыдущий узел
+         * @param next     следующий узел
          */
-        Node(Task task, Node prev, Node next) {
+        Node(Task task, int id, long viewedAt, Node prev, Node next) {
             this.task = task;
+            this.id = id;
+            this.viewedAt = viewedAt;
             this.prev = prev;
             this.next = next;
         }
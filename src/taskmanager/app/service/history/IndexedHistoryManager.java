@@ -0,0 +1,301 @@
+package taskmanager.app.service.history;
+
+import taskmanager.app.entity.Task;
+import taskmanager.app.management.HistoryManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HistoryManager на предвыделенных параллельных массивах.
+ * Двусвязный список хранится в массивах prev/next/ids, а поиск слота по id
+ * выполняется через хэш-таблицу с открытой адресацией без упаковки int.
+ * Запись просмотра не создает объектов; при переполнении вытесняется самый старый просмотр.
+ */
+public class IndexedHistoryManager implements HistoryManager {
+
+    /**
+     * Признак отсутствия слота
+     */
+    private static final int NIL = -1;
+
+    /**
+     * Максимальное количество просмотров в истории
+     */
+    private final int capacity;
+    /**
+     * Предыдущий слот в порядке просмотра
+     */
+    private final int[] prev;
+    /**
+     * Следующий слот в порядке просмотра, для свободных слотов - следующий свободный
+     */
+    private final int[] next;
+    /**
+     * Идентификатор задачи в слоте
+     */
+    private final int[] ids;
+    /**
+     * Задача в слоте
+     */
+    private final Task[] tasks;
+    /**
+     * Ключи хэш-таблицы id -> слот
+     */
+    private final int[] tableKeys;
+    /**
+     * Значения хэш-таблицы id -> слот, NIL - пустая ячейка
+     */
+    private final int[] tableSlots;
+    /**
+     * Маска для индекса в хэш-таблице
+     */
+    private final int tableMask;
+    /**
+     * Первый (самый старый) слот
+     */
+    private int head = NIL;
+    /**
+     * Последний (самый новый) слот
+     */
+    private int tail = NIL;
+    /**
+     * Первый свободный слот
+     */
+    private int freeHead;
+    /**
+     * Количество просмотров в истории
+     */
+    private int size;
+
+    /**
+     * Создает историю с размером по умолчанию
+     */
+    public IndexedHistoryManager() {
+        this(InMemoryHistoryManager.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Создает историю указанной емкости
+     *
+     * @param capacity максимальное количество просмотров (больше нуля)
+     */
+    public IndexedHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть больше нуля");
+        }
+        this.capacity = capacity;
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.ids = new int[capacity];
+        this.tasks = new Task[capacity];
+
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.tableKeys = new int[tableSize];
+        this.tableSlots = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        resetSlots();
+    }
+
+    /**
+     * @return список задач от самого старого к самому новому
+     */
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    /**
+     * Добавляет задачу в историю.
+     * Если задача есть в истории, то перемещает ее в конец.
+     *
+     * @param task задача для добавления (null игнорируется)
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int id = task.getId();
+        int slot = findSlot(id);
+
+        if (slot != NIL) {
+            unlink(slot);
+        } else {
+            if (size == capacity) {
+                evictOldest();
+            }
+            slot = freeHead;
+            freeHead = next[slot];
+            ids[slot] = id;
+            putSlot(id, slot);
+            size++;
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+    }
+
+    /**
+     * Удаляет задачу из истории
+     *
+     * @param id идентификатор для удаления
+     */
+    @Override
+    public void remove(int id) {
+        int slot = removeSlot(id);
+        if (slot != NIL) {
+            unlink(slot);
+            release(slot);
+        }
+    }
+
+    /**
+     * Очищает историю
+     */
+    @Override
+    public void clear() {
+        resetSlots();
+    }
+
+    /**
+     * @return количество просмотров в истории
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Вытесняет самый старый просмотр
+     */
+    private void evictOldest() {
+        int oldest = head;
+        removeSlot(ids[oldest]);
+        unlink(oldest);
+        release(oldest);
+    }
+
+    /**
+     * Добавляет слот в конец списка
+     */
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    /**
+     * Исключает слот из списка, не освобождая его
+     */
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NIL) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NIL) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+
+    /**
+     * Возвращает слот в список свободных
+     */
+    private void release(int slot) {
+        tasks[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * Сбрасывает список, хэш-таблицу и цепочку свободных слотов
+     */
+    private void resetSlots() {
+        for (int slot = 0; slot < capacity; slot++) {
+            next[slot] = slot + 1 < capacity ? slot + 1 : NIL;
+        }
+        Arrays.fill(prev, NIL);
+        Arrays.fill(tasks, null);
+        Arrays.fill(tableSlots, NIL);
+        freeHead = 0;
+        head = NIL;
+        tail = NIL;
+        size = 0;
+    }
+
+    /**
+     * Вычисляет начальную ячейку хэш-таблицы для id
+     */
+    private int indexFor(int id) {
+        return (id * 0x9E3779B9) >>> 16 & tableMask;
+    }
+
+    /**
+     * Ищет слот по id
+     *
+     * @return слот или NIL, если id нет в истории
+     */
+    private int findSlot(int id) {
+        for (int i = indexFor(id); tableSlots[i] != NIL; i = (i + 1) & tableMask) {
+            if (tableKeys[i] == id) {
+                return tableSlots[i];
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Записывает соответствие id -> слот в хэш-таблицу
+     */
+    private void putSlot(int id, int slot) {
+        int i = indexFor(id);
+        while (tableSlots[i] != NIL) {
+            i = (i + 1) & tableMask;
+        }
+        tableKeys[i] = id;
+        tableSlots[i] = slot;
+    }
+
+    /**
+     * Удаляет id из хэш-таблицы со сдвигом последующих ячеек цепочки
+     *
+     * @return слот удаленного id или NIL, если id нет в истории
+     */
+    private int removeSlot(int id) {
+        int i = indexFor(id);
+        while (tableSlots[i] != NIL && tableKeys[i] != id) {
+            i = (i + 1) & tableMask;
+        }
+        int slot = tableSlots[i];
+        if (slot == NIL) {
+            return NIL;
+        }
+
+        int gap = i;
+        for (int j = (gap + 1) & tableMask; tableSlots[j] != NIL; j = (j + 1) & tableMask) {
+            int home = indexFor(tableKeys[j]);
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                tableKeys[gap] = tableKeys[j];
+                tableSlots[gap] = tableSlots[j];
+                gap = j;
+            }
+        }
+        tableSlots[gap] = NIL;
+        return slot;
+    }
+}
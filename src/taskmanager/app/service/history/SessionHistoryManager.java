@@ -0,0 +1,333 @@
+package taskmanager.app.service.history;
+
+import taskmanager.app.entity.Task;
+import taskmanager.app.management.HistoryManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HistoryManager с отдельной историей просмотров для каждого клиента.
+ * Клиент определяется идентификатором сессии, привязанным к текущему потоку
+ * через {@link #bindSession(String)}; без привязки используется общая сессия.
+ * История каждой сессии ограничена по размеру, простаивающие сессии вытесняются,
+ * а общее количество сессий ограничено. Потокобезопасен.
+ *
+ * <p>Сессии хранятся в порядке обращения, поэтому самая давняя сессия находится
+ * и вытесняется за O(1), а проверка простоя просматривает только простаивающие сессии.
+ * Таблица сессий защищена коротким замком, сама история сессии меняется под монитором
+ * сессии вне этого замка.
+ */
+public class SessionHistoryManager implements HistoryManager {
+
+    /**
+     * Максимальное количество сессий по умолчанию
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    /**
+     * Размер истории одной сессии по умолчанию
+     */
+    public static final int DEFAULT_SESSION_HISTORY_SIZE = 100;
+    /**
+     * Время простоя, после которого сессия вытесняется, по умолчанию
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    /**
+     * Оценка памяти на одну сессию без записей, в байтах
+     */
+    static final long SESSION_OVERHEAD_BYTES = 256;
+    /**
+     * Оценка памяти на одну запись истории (узел и элемент хэш-таблицы), в байтах
+     */
+    static final long ENTRY_OVERHEAD_BYTES = 96;
+    /**
+     * Идентификатор общей сессии для запросов без привязанного клиента
+     */
+    private static final String SHARED_SESSION = "";
+    /**
+     * Сессия, привязанная к текущему потоку
+     */
+    private static final ThreadLocal<String> CURRENT_SESSION = new ThreadLocal<>();
+
+    /**
+     * Сессии в порядке обращения: первая - самая давняя; доступ под монитором таблицы
+     */
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSessions;
+    private final int sessionHistorySize;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    /**
+     * Общее количество записей во всех сессиях
+     */
+    private final AtomicLong totalEntries = new AtomicLong();
+    /**
+     * Время последней проверки простаивающих сессий
+     */
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    /**
+     * Создает менеджер с ограничениями по умолчанию
+     */
+    public SessionHistoryManager() {
+        this(DEFAULT_MAX_SESSIONS, DEFAULT_SESSION_HISTORY_SIZE, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Создает менеджер с указанными ограничениями
+     *
+     * @param maxSessions        максимальное количество сессий (больше нуля)
+     * @param sessionHistorySize размер истории одной сессии (больше нуля)
+     * @param idleTimeout        время простоя, после которого сессия вытесняется
+     */
+    public SessionHistoryManager(int maxSessions, int sessionHistorySize, Duration idleTimeout) {
+        this(maxSessions, sessionHistorySize, idleTimeout, Clock.systemUTC());
+    }
+
+    /**
+     * Создает менеджер с указанными ограничениями
+     *
+     * @param maxSessions        максимальное количество сессий (больше нуля)
+     * @param sessionHistorySize размер истории одной сессии (больше нуля)
+     * @param idleTimeout        время простоя, после которого сессия вытесняется
+     * @param clock              часы для учета простоя
+     */
+    public SessionHistoryManager(int maxSessions, int sessionHistorySize, Duration idleTimeout, Clock clock) {
+        if (maxSessions <= 0 || sessionHistorySize <= 0) {
+            throw new IllegalArgumentException("Ограничения сессий должны быть больше нуля");
+        }
+        Objects.requireNonNull(idleTimeout, "Время простоя не может быть null");
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Время простоя должно быть положительным");
+        }
+        this.maxSessions = maxSessions;
+        this.sessionHistorySize = sessionHistorySize;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = Objects.requireNonNull(clock, "Часы не могут быть null");
+        this.lastSweep.set(clock.millis());
+    }
+
+    /**
+     * Привязывает сессию клиента к текущему потоку
+     *
+     * @param sessionId идентификатор сессии, null - общая сессия
+     */
+    public static void bindSession(String sessionId) {
+        if (sessionId == null) {
+            CURRENT_SESSION.remove();
+        } else {
+            CURRENT_SESSION.set(sessionId);
+        }
+    }
+
+    /**
+     * @return идентификатор сессии, привязанной к текущему потоку, или null для общей сессии
+     */
+    public static String currentSession() {
+        return CURRENT_SESSION.get();
+    }
+
+    /**
+     * Отвязывает сессию клиента от текущего потока
+     */
+    public static void unbindSession() {
+        CURRENT_SESSION.remove();
+    }
+
+    /**
+     * @return история текущей сессии от самого старого к самому новому просмотру
+     */
+    @Override
+    public List<Task> getHistory() {
+        Session session;
+        synchronized (sessions) {
+            session = sessions.get(currentSessionId());
+        }
+        if (session == null) {
+            return List.of();
+        }
+        synchronized (session) {
+            session.touch(clock.millis());
+            return session.history.getHistory();
+        }
+    }
+
+    /**
+     * Добавляет просмотр в историю текущей сессии
+     *
+     * @param task задача для добавления (null игнорируется)
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long now = clock.millis();
+        sweepIdleSessions(now);
+
+        String sessionId = currentSessionId();
+        while (true) {
+            Session session = sessionFor(sessionId, now);
+            synchronized (session) {
+                if (session.evicted) {
+                    continue;
+                }
+                int before = session.history.size();
+                session.history.add(task);
+                session.touch(now);
+                totalEntries.addAndGet(session.history.size() - before);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет задачу из истории всех сессий
+     *
+     * @param id идентификатор для удаления
+     */
+    @Override
+    public void remove(int id) {
+        List<Session> snapshot;
+        synchronized (sessions) {
+            snapshot = new ArrayList<>(sessions.values());
+        }
+        for (Session session : snapshot) {
+            synchronized (session) {
+                int before = session.history.size();
+                session.history.remove(id);
+                totalEntries.addAndGet(session.history.size() - before);
+            }
+        }
+    }
+
+    /**
+     * Очищает историю всех сессий
+     */
+    @Override
+    public void clear() {
+        List<Session> evicted;
+        synchronized (sessions) {
+            evicted = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        evicted.forEach(this::retire);
+    }
+
+    /**
+     * @return количество активных сессий
+     */
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * @return общее количество записей истории во всех сессиях
+     */
+    public long getTotalEntries() {
+        return totalEntries.get();
+    }
+
+    /**
+     * @return приблизительный объем памяти, занимаемый историями сессий, в байтах
+     */
+    public long getEstimatedMemoryBytes() {
+        return getSessionCount() * SESSION_OVERHEAD_BYTES + totalEntries.get() * ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * @return идентификатор сессии текущего потока
+     */
+    private String currentSessionId() {
+        String sessionId = CURRENT_SESSION.get();
+        return sessionId != null ? sessionId : SHARED_SESSION;
+    }
+
+    /**
+     * Возвращает сессию, создавая ее при необходимости.
+     * Перед созданием новой сессии освобождает место, если достигнут лимит.
+     */
+    private Session sessionFor(String sessionId, long now) {
+        Session evicted = null;
+        Session session;
+        synchronized (sessions) {
+            session = sessions.get(sessionId);
+            if (session == null) {
+                if (sessions.size() >= maxSessions) {
+                    Iterator<Session> eldest = sessions.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+                session = new Session(new InMemoryHistoryManager(sessionHistorySize), now);
+                sessions.put(sessionId, session);
+            }
+        }
+        if (evicted != null) {
+            retire(evicted);
+        }
+        return session;
+    }
+
+    /**
+     * Вытесняет простаивающие сессии не чаще, чем раз в четверть времени простоя
+     */
+    private void sweepIdleSessions(long now) {
+        long previous = lastSweep.get();
+        if (now - previous < idleTimeoutMillis / 4 || !lastSweep.compareAndSet(previous, now)) {
+            return;
+        }
+        long idleBefore = now - idleTimeoutMillis;
+        List<Session> evicted = new ArrayList<>();
+        synchronized (sessions) {
+            // Сессии упорядочены по обращению: простаивающие идут первыми
+            Iterator<Session> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                Session session = iterator.next();
+                if (session.lastAccess > idleBefore) {
+                    break;
+                }
+                evicted.add(session);
+                iterator.remove();
+            }
+        }
+        evicted.forEach(this::retire);
+    }
+
+    /**
+     * Помечает удаленную из таблицы сессию и списывает ее записи из общего учета
+     */
+    private void retire(Session session) {
+        synchronized (session) {
+            session.evicted = true;
+            totalEntries.addAndGet(-session.history.size());
+            session.history.clear();
+        }
+    }
+
+    /**
+     * История одной сессии и время последнего обращения к ней.
+     * Вытесненная сессия помечается, чтобы в нее не попали запоздавшие просмотры.
+     */
+    private static final class Session {
+        final InMemoryHistoryManager history;
+        volatile long lastAccess;
+        boolean evicted;
+
+        Session(InMemoryHistoryManager history, long lastAccess) {
+            this.history = history;
+            this.lastAccess = lastAccess;
+        }
+
+        void touch(long now) {
+            lastAccess = now;
+        }
+    }
+}
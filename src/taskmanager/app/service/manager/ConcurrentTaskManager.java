@@ -0,0 +1,375 @@
+package taskmanager.app.service.manager;
+
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
+import taskmanager.app.entity.TaskType;
+import taskmanager.app.exception.NotFoundException;
+import taskmanager.app.management.TaskManager;
+import taskmanager.app.service.events.ChangeEventBus;
+import taskmanager.app.util.BatchItemResult;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Потокобезопасная обертка над менеджером задач.
+ * Операции чтения выполняются параллельно под блокировкой чтения,
+ * операции изменения (вместе с автосохранением) - под блокировкой записи.
+ * Чтение по id записывает просмотр в историю, поэтому менеджер истории
+ * обернутого менеджера должен быть потокобезопасным (например, ConcurrentHistoryManager
+ * или SessionHistoryManager, используемые по умолчанию).
+ * Списки возвращаются копиями задач, снятыми под блокировкой чтения: иначе
+ * вызывающий код (например, сериализация ответа) читал бы эпики, которые
+ * параллельно меняются при создании и обновлении подзадач.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    /**
+     * Создает обертку над менеджером задач
+     *
+     * @param delegate менеджер, к которому больше никто не обращается напрямую
+     */
+    public ConcurrentTaskManager(TaskManager delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "Менеджер задач не может быть null");
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    /**
+     * Оборачивает менеджер, если он еще не потокобезопасен
+     *
+     * @param taskManager менеджер задач
+     * @return потокобезопасный менеджер задач
+     */
+    public static TaskManager wrap(TaskManager taskManager) {
+        return taskManager instanceof ConcurrentTaskManager ? taskManager : new ConcurrentTaskManager(taskManager);
+    }
+
+    @Override
+    public int createTask(Task task) throws IOException {
+        writeLock.lock();
+        try {
+            return delegate.createTask(task);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int createEpic(Epic epic) throws IOException {
+        writeLock.lock();
+        try {
+            return delegate.createEpic(epic);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int createSubTask(SubTask subTask) throws IOException {
+        writeLock.lock();
+        try {
+            return delegate.createSubTask(subTask);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getAllTasks());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) throws NotFoundException {
+        readLock.lock();
+        try {
+            return delegate.getTaskById(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getAllEpics());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Epic getEpicById(int id) throws NotFoundException {
+        readLock.lock();
+        try {
+            return delegate.getEpicById(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByEpicId(int epicId) {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getSubTasksByEpicId(epicId));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getAllSubTasks());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) throws NotFoundException {
+        readLock.lock();
+        try {
+            return delegate.getSubTaskById(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Task> getHistory() {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getHistory());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getPrioritizedTasks());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getTasksPage(afterId, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getEpicsPage(afterId, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubTasksPage(int afterId, int limit) {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getSubTasksPage(afterId, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksPage(LocalDateTime afterStartTime, int afterId, int limit) {
+        readLock.lock();
+        try {
+            return snapshot(delegate.getPrioritizedTasksPage(afterStartTime, afterId, limit));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.updateTask(task);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.updateSubTask(subTask);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> applyBatch(List<? extends Task> items) throws IOException {
+        writeLock.lock();
+        try {
+            return delegate.applyBatch(items);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteAllTasks();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteTaskById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteAllEpics();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteEpicById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllSubTasks() throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteAllSubTasks();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) throws IOException {
+        writeLock.lock();
+        try {
+            delegate.deleteSubTaskById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Копирует задачи с сохранением их типа
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> List<T> snapshot(Collection<T> items) {
+        List<T> copies = new ArrayList<>(items.size());
+        for (T item : items) {
+            copies.add((T) copyOf(item));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static Task copyOf(Task task) {
+        if (task instanceof Epic epic) {
+            return new Epic(epic);
+        }
+        if (task instanceof SubTask subTask) {
+            return new SubTask(subTask);
+        }
+        return new Task(task);
+    }
+
+    /**
+     * Генерация id не требует блокировки: счетчик менеджера атомарный
+     */
+    @Override
+    public int generateId() {
+        return delegate.generateId();
+    }
+
+    /**
+     * Версии читаются без блокировки: счетчики менеджера атомарные
+     */
+    @Override
+    public long getModificationVersion() {
+        return delegate.getModificationVersion();
+    }
+
+    @Override
+    public long getModificationVersion(TaskType type) {
+        return delegate.getModificationVersion(type);
+    }
+
+    @Override
+    public ChangeEventBus getChangeEventBus() {
+        return delegate.getChangeEventBus();
+    }
+
+    @Override
+    public boolean isTasksOverlap(Task task1, Task task2) {
+        return delegate.isTasksOverlap(task1, task2);
+    }
+
+    /**
+     * Сбрасывает данные под блокировкой записи, чтобы не застать изменение на середине
+     */
+    @Override
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            delegate.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -2,6 +2,9 @@ package taskmanager.app.service.manager;
 
 import taskmanager.app.entity.*;
 import taskmanager.app.exception.ManagerSaveException;
+import taskmanager.app.management.HistoryManager;
+import taskmanager.app.service.history.ConcurrentHistoryManager;
+import taskmanager.app.service.history.SessionHistoryManager;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -13,6 +16,9 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -20,6 +26,11 @@ import java.util.stream.Stream;
  * Реализация менеджера задач с сохранением состояния в CSV-файл.
  * Автоматически сохраняет все изменения в файл после каждой операции.
  * Поддерживает загрузку состояния из файла при старте.
+ * История просмотров дописывается в отдельный журнал рядом с CSV-файлом
+ * и восстанавливается лениво при первом обращении к истории.
+ * Просмотры копятся в очереди и дописываются в журнал пачкой, не чаще раза в секунду
+ * или по накоплении {@value #HISTORY_BATCH_SIZE} записей, а также при {@link #flush()}:
+ * чтение задачи не ждет ни записи в файл, ни общего замка журнала.
  */
 public class FileBackedTasksManager extends InMemoryTaskManager {
     private static final Charset CHARSET = StandardCharsets.UTF_8;
@@ -34,12 +45,44 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
     private static final int FIELD_INDEX_DURATION = 7;
     private static final int FIELD_INDEX_END_TIME = 8;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String HISTORY_LOG_SUFFIX = ".history";
+    /**
+     * Число накопленных просмотров, при котором они дописываются в журнал
+     */
+    static final int HISTORY_BATCH_SIZE = 256;
+    /**
+     * Наибольший интервал между записями накопленных просмотров в журнал
+     */
+    private static final long HISTORY_DRAIN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
     private final Path filePath;
     private final AtomicInteger idCounter = new AtomicInteger(0);
     private boolean isLoading = false;
+    private final HistoryLog historyLog;
+    private final Object historyLock = new Object();
+    /**
+     * Просмотры, еще не дописанные в журнал
+     */
+    private final ConcurrentLinkedQueue<HistoryLog.Record> pendingViews = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingViewCount = new AtomicInteger();
+    /**
+     * Накопленные просмотры дописывает один поток, остальные не ждут его
+     */
+    private final AtomicBoolean historyDraining = new AtomicBoolean();
+    private volatile long lastHistoryDrain = System.nanoTime();
+    /**
+     * История из журнала уже восстановлена
+     */
+    private volatile boolean historyLoaded = true;
 
     public FileBackedTasksManager(final Path filePath) {
         this.filePath = filePath;
+        this.historyLog = new HistoryLog(historyLogPath(filePath));
+    }
+
+    public FileBackedTasksManager(final Path filePath, final HistoryManager historyManager) {
+        super(historyManager);
+        this.filePath = filePath;
+        this.historyLog = new HistoryLog(historyLogPath(filePath));
     }
 
     /**
@@ -49,7 +92,18 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
      * @throws ManagerSaveException если возникли проблемы с чтением файла
      */
     public static FileBackedTasksManager loadFromFile(Path filePath) {
-        FileBackedTasksManager manager = new FileBackedTasksManager(filePath);
+        return loadFromFile(filePath, new ConcurrentHistoryManager());
+    }
+
+    /**
+     * Восстанавливает состояние менеджера из CSV-файла с указанным менеджером истории.
+     * История просмотров из журнала восстанавливается лениво, после загрузки задач.
+     *
+     * @throws ManagerSaveException если возникли проблемы с чтением файла
+     */
+    public static FileBackedTasksManager loadFromFile(Path filePath, HistoryManager historyManager) {
+        FileBackedTasksManager manager = new FileBackedTasksManager(filePath, historyManager);
+        manager.historyLoaded = false;
         manager.isLoading = true;
 
         try {
@@ -161,10 +215,11 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
 
     /**
      * Автоматически сохраняет состояние в файл после операций.
-     * Не срабатывает во время загрузки данных из файла.
+     * Не срабатывает во время загрузки данных из файла и внутри пакета задач:
+     * пакет сохраняется один раз после применения всех элементов.
      */
     private void autoSave() {
-        if (isLoading) {
+        if (isLoading || isBatchInProgress()) {
             return;
         }
         try {
@@ -174,59 +229,201 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         }
     }
 
+    /**
+     * Сохраняет состояние один раз после применения пакета.
+     * Ошибка сохранения отменяет пакет.
+     */
+    @Override
+    protected void afterBatchCommit() {
+        save();
+        super.afterBatchCommit();
+    }
+
     @Override
     protected void afterSubTaskDeletion(int subTaskId) {
         autoSave();
+        super.afterSubTaskDeletion(subTaskId);
     }
 
     @Override
     protected void afterAllSubTasksDeletion() {
         autoSave();
+        super.afterAllSubTasksDeletion();
     }
 
     @Override
     protected void afterEpicDeletion(int epicId) {
         autoSave();
+        super.afterEpicDeletion(epicId);
     }
 
     @Override
     protected void afterAllEpicsDeletion() {
         autoSave();
+        super.afterAllEpicsDeletion();
     }
 
     @Override
     protected void afterTaskDeletion(int taskId) {
         autoSave();
+        super.afterTaskDeletion(taskId);
     }
 
     @Override
     protected void afterAllTasksDeletion() {
         autoSave();
+        super.afterAllTasksDeletion();
     }
 
     @Override
     protected void afterSubTaskUpdate(SubTask subTask) {
         autoSave();
+        super.afterSubTaskUpdate(subTask);
     }
 
     @Override
     protected void afterTaskUpdate(Task task) {
         autoSave();
+        super.afterTaskUpdate(task);
     }
 
     @Override
     protected void afterSubTaskCreation(SubTask subTask) {
         autoSave();
+        super.afterSubTaskCreation(subTask);
     }
 
     @Override
     protected void afterEpicCreation(Epic epic) {
         autoSave();
+        super.afterEpicCreation(epic);
     }
 
     @Override
     protected void afterTaskCreation(Task task) {
         autoSave();
+        super.afterTaskCreation(task);
+    }
+
+    /**
+     * Ставит просмотр в очередь журнала истории и, если пора, дописывает накопленные просмотры.
+     * Ошибки записи журнала не прерывают чтение задачи.
+     */
+    @Override
+    protected void afterTaskView(Task task) {
+        if (ensureHistoryLoaded()) {
+            historyManager.add(task);
+        }
+        pendingViews.add(new HistoryLog.Record(task.getId(), SessionHistoryManager.currentSession()));
+        boolean due = pendingViewCount.incrementAndGet() >= HISTORY_BATCH_SIZE
+                || System.nanoTime() - lastHistoryDrain >= HISTORY_DRAIN_INTERVAL_NANOS;
+        if (!due || !historyDraining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            synchronized (historyLock) {
+                drainPendingViews();
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось записать журнал истории: " + e.getMessage());
+        } finally {
+            historyDraining.set(false);
+        }
+    }
+
+    /**
+     * Дописывает накопленные просмотры в журнал. Вызывается под {@code historyLock}.
+     *
+     * @throws IOException если не удалось записать журнал
+     */
+    private void drainPendingViews() throws IOException {
+        lastHistoryDrain = System.nanoTime();
+        HistoryLog.Record record;
+        while ((record = pendingViews.poll()) != null) {
+            pendingViewCount.decrementAndGet();
+            historyLog.append(record.id(), record.session(), this::containsTask);
+        }
+        historyLog.flushAppended();
+    }
+
+    /**
+     * Записывает на диск файл задач и журнал истории.
+     * Файл задач уже сохранен после каждого изменения, но мог остаться в кэше ОС.
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (historyLock) {
+            drainPendingViews();
+            historyLog.sync();
+        }
+        HistoryLog.force(filePath);
+    }
+
+    /**
+     * Возвращает историю просмотров, предварительно восстановив ее из журнала
+     */
+    @Override
+    public Collection<Task> getHistory() {
+        ensureHistoryLoaded();
+        return super.getHistory();
+    }
+
+    /**
+     * Восстанавливает историю из журнала, если это еще не сделано.
+     *
+     * @return true, если на момент вызова история еще не была восстановлена
+     */
+    private boolean ensureHistoryLoaded() {
+        if (historyLoaded) {
+            return false;
+        }
+        synchronized (historyLock) {
+            if (!historyLoaded) {
+                replayHistory();
+                historyLoaded = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Воспроизводит просмотры из журнала в менеджере истории, сохраняя сессии просмотров.
+     * Просмотры удаленных задач пропускаются.
+     */
+    private void replayHistory() {
+        String boundSession = SessionHistoryManager.currentSession();
+        try {
+            for (HistoryLog.Record record : historyLog.load()) {
+                Task task = findTask(record.id());
+                if (task != null) {
+                    SessionHistoryManager.bindSession(record.session());
+                    historyManager.add(task);
+                }
+            }
+        } catch (ManagerSaveException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            SessionHistoryManager.bindSession(boundSession);
+        }
+    }
+
+    private Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subTasks.get(id);
+        }
+        return task;
+    }
+
+    private boolean containsTask(int id) {
+        return findTask(id) != null;
+    }
+
+    private static Path historyLogPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + HISTORY_LOG_SUFFIX);
     }
 
     /**
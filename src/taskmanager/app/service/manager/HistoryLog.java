@@ -0,0 +1,225 @@
+package taskmanager.app.service.manager;
+
+import taskmanager.app.exception.ManagerSaveException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Журнал истории просмотров с дозаписью и периодическим сжатием.
+ * Каждый просмотр дописывается в конец файла строкой {@code id[,сессия]}.
+ * Дописанные строки буферизуются и попадают в файл при {@link #flushAppended()},
+ * сжатии или заполнении буфера.
+ * В памяти хранится упорядоченная копия текущей истории без повторов,
+ * которой файл заменяется, когда число дописанных строк превышает ее размер.
+ * Класс не потокобезопасен, синхронизация выполняется вызывающим кодом.
+ */
+class HistoryLog {
+    /**
+     * Минимальное число дописанных строк между сжатиями
+     */
+    static final int COMPACTION_MIN_RECORDS = 1_000;
+    /**
+     * Максимальное число записей, сохраняемых в журнале
+     */
+    static final int MAX_RECORDS = 100_000;
+
+    private final Path logPath;
+    /**
+     * Текущая история без повторов: ключ "сессия|id" в порядке последнего просмотра
+     */
+    private final LinkedHashMap<String, Record> records = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+            return size() > MAX_RECORDS;
+        }
+    };
+    private BufferedWriter writer;
+    private int appendedSinceCompaction;
+
+    HistoryLog(Path logPath) {
+        this.logPath = logPath;
+    }
+
+    /**
+     * Читает журнал с диска в память.
+     *
+     * @return записи в порядке просмотра, от самой старой к самой новой
+     * @throws ManagerSaveException если журнал не удалось прочитать
+     */
+    List<Record> load() {
+        records.clear();
+        if (Files.exists(logPath)) {
+            try {
+                for (String line : Files.readAllLines(logPath, StandardCharsets.UTF_8)) {
+                    Record record = Record.parse(line);
+                    if (record != null) {
+                        remember(record);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось прочитать журнал истории: " + logPath.getFileName(), e);
+            }
+        }
+        appendedSinceCompaction = 0;
+        return new ArrayList<>(records.values());
+    }
+
+    /**
+     * Дописывает просмотр в журнал, при необходимости сжимая его.
+     *
+     * @param id      идентификатор просмотренной задачи
+     * @param session идентификатор сессии или null для общей истории
+     * @param exists  проверка существования задачи для отбрасывания удаленных при сжатии
+     * @throws IOException если не удалось записать журнал
+     */
+    void append(int id, String session, IntPredicate exists) throws IOException {
+        Record record = new Record(id, session);
+        remember(record);
+
+        if (++appendedSinceCompaction > Math.max(COMPACTION_MIN_RECORDS, records.size())) {
+            compact(exists);
+            return;
+        }
+        if (writer == null) {
+            writer = Files.newBufferedWriter(logPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(record.format());
+        writer.newLine();
+    }
+
+    /**
+     * Передает буферизованные строки журнала в файл без принудительной записи на диск
+     *
+     * @throws IOException если не удалось записать журнал
+     */
+    void flushAppended() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Заменяет журнал текущей историей без повторов и удаленных задач.
+     *
+     * @param exists проверка существования задачи
+     * @throws IOException если не удалось записать журнал
+     */
+    void compact(IntPredicate exists) throws IOException {
+        closeWriter();
+        Iterator<Record> iterator = records.values().iterator();
+        while (iterator.hasNext()) {
+            if (!exists.test(iterator.next().id())) {
+                iterator.remove();
+            }
+        }
+
+        Path parent = logPath.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(parent, logPath.getFileName().toString(), ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Record record : records.values()) {
+                out.write(record.format());
+                out.newLine();
+            }
+        }
+        Files.move(tempFile, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedSinceCompaction = 0;
+    }
+
+    /**
+     * Записывает дописанные строки журнала на диск
+     *
+     * @throws IOException если не удалось записать журнал
+     */
+    void sync() throws IOException {
+        flushAppended();
+        force(logPath);
+    }
+
+    /**
+     * Принудительно записывает содержимое файла из кэша ОС на диск (fsync).
+     * Отсутствующий файл пропускается.
+     *
+     * @param file путь к файлу
+     * @throws IOException если не удалось записать файл
+     */
+    static void force(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Закрывает открытый для дозаписи файл журнала
+     */
+    void closeWriter() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
+            }
+        }
+    }
+
+    private void remember(Record record) {
+        String key = record.key();
+        records.remove(key);
+        records.put(key, record);
+    }
+
+    /**
+     * Запись журнала: просмотр задачи в сессии
+     *
+     * @param id      идентификатор задачи
+     * @param session идентификатор сессии или null для общей истории
+     */
+    record Record(int id, String session) {
+
+        String key() {
+            return (session != null ? session : "") + "|" + id;
+        }
+
+        String format() {
+            return session != null ? id + "," + session : String.valueOf(id);
+        }
+
+        /**
+         * Разбирает строку журнала
+         *
+         * @return запись или null, если строка некорректна
+         */
+        static Record parse(String line) {
+            if (line == null || line.isBlank()) {
+                return null;
+            }
+            int comma = line.indexOf(',');
+            try {
+                if (comma < 0) {
+                    return new Record(Integer.parseInt(line.trim()), null);
+                }
+                String session = line.substring(comma + 1);
+                return new Record(Integer.parseInt(line.substring(0, comma).trim()),
+                        session.isEmpty() ? null : session);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -4,17 +4,23 @@ import taskmanager.app.entity.Epic;
 import taskmanager.app.entity.StatusTask;
 import taskmanager.app.entity.SubTask;
 import taskmanager.app.entity.Task;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
 import taskmanager.app.exception.ValidationException;
+import taskmanager.app.management.HistoryManager;
 import taskmanager.app.management.TaskManager;
-import taskmanager.app.service.history.InMemoryHistoryManager;
+import taskmanager.app.service.events.ChangeEvent;
+import taskmanager.app.service.events.ChangeEventBus;
+import taskmanager.app.service.history.ConcurrentHistoryManager;
 import taskmanager.app.service.time.TimeManagerService;
+import taskmanager.app.util.BatchItemResult;
 import taskmanager.app.util.StatusCheckResult;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -22,21 +28,61 @@ import java.util.stream.Collectors;
  * Управляет задачами, эпиками и подзадачами, поддерживает историю просмотров.
  */
 public class InMemoryTaskManager implements TaskManager {
+    /**
+     * Наибольшая начальная емкость страницы, чтобы огромный limit не выделял память заранее
+     */
+    private static final int MAX_PAGE_CAPACITY = 1_000;
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, SubTask> subTasks = new HashMap<>();
+    protected final NavigableMap<Integer, Task> tasks = new TreeMap<>();
+    protected final NavigableMap<Integer, Epic> epics = new TreeMap<>();
+    protected final NavigableMap<Integer, SubTask> subTasks = new TreeMap<>();
     private final AtomicInteger nextId = new AtomicInteger(1);
-    private final InMemoryHistoryManager historyManager = new InMemoryHistoryManager();
+    /**
+     * Версия состояния менеджера, увеличивается при каждом изменении
+     */
+    private final AtomicLong modificationVersion = new AtomicLong();
+    /**
+     * Версии отдельных коллекций по типу задач
+     */
+    private final Map<TaskType, AtomicLong> typeVersions = new EnumMap<>(TaskType.class);
+    /**
+     * Шина событий изменения, наполняется хуками after*
+     */
+    private final ChangeEventBus changeEventBus = new ChangeEventBus();
+    /**
+     * События применяемого пакета, публикуемые после его завершения; null вне пакета
+     */
+    private List<ChangeEvent> pendingEvents;
+    /**
+     * Типы, измененные применяемым пакетом; версии увеличиваются один раз при его завершении
+     */
+    private final Set<TaskType> pendingModifiedTypes = EnumSet.noneOf(TaskType.class);
+    protected final HistoryManager historyManager;
     private final ValidationException validator = new ValidationException();
-    final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(
+    final NavigableSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(
             Task::getStartTime,
             Comparator.nullsLast(Comparator.naturalOrder())
     ).thenComparing(Task::getId));
     private final TimeManagerService timeManager;
 
+    /**
+     * Создает менеджер с потокобезопасной историей просмотров по умолчанию
+     */
     public InMemoryTaskManager() {
+        this(new ConcurrentHistoryManager());
+    }
+
+    /**
+     * Создает менеджер с указанным менеджером истории
+     *
+     * @param historyManager менеджер истории просмотров (не может быть null)
+     */
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = Objects.requireNonNull(historyManager, "Менеджер истории не может быть null");
         this.timeManager = new TimeManagerService();
+        for (TaskType type : TaskType.values()) {
+            typeVersions.put(type, new AtomicLong());
+        }
     }
 
     /**
@@ -46,6 +92,52 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks.tailMap(afterId, false).values(), limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics.tailMap(afterId, false).values(), limit);
+    }
+
+    @Override
+    public List<SubTask> getSubTasksPage(int afterId, int limit) {
+        return page(subTasks.tailMap(afterId, false).values(), limit);
+    }
+
+    /**
+     * Возвращает страницу приоритетного списка, начиная сразу после указанной задачи.
+     * Задача-курсор может быть уже удалена: страница начнется со следующей по порядку.
+     */
+    @Override
+    public List<Task> getPrioritizedTasksPage(LocalDateTime afterStartTime, int afterId, int limit) {
+        if (afterStartTime == null) {
+            return page(prioritizedTasks, limit);
+        }
+        Task cursor = new Task(afterId, "", "", StatusTask.NEW, Duration.ZERO, afterStartTime);
+        return page(prioritizedTasks.tailSet(cursor, false), limit);
+    }
+
+    /**
+     * Копирует в страницу не более limit первых элементов представления коллекции
+     */
+    private static <T> List<T> page(Collection<T> view, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+        }
+        // size() у представлений tailMap/tailSet считает элементы обходом, поэтому не вызывается
+        List<T> result = new ArrayList<>(Math.min(limit, MAX_PAGE_CAPACITY));
+        for (T item : view) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
     /**
      * Обновляет время эпика на основе его подзадач
      */
@@ -101,14 +193,18 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     /**
-     * Проверяет пересечение задачи с другими задачами по времени
+     * Проверяет пересечение задачи с другими задачами по времени.
+     * Просматриваются только задачи, начинающиеся раньше окончания проверяемой:
+     * остальные пересекаться с ней не могут.
      */
     private void checkForTimeOverlaps(Task taskToCheck) {
         if (taskToCheck.getStartTime() == null || taskToCheck.getDuration() == null) {
             return;
         }
 
-        for (Task existingTask : prioritizedTasks) {
+        Task startsAtEnd = new Task(Integer.MIN_VALUE, "", "", StatusTask.NEW,
+                Duration.ZERO, taskToCheck.getEndTime());
+        for (Task existingTask : prioritizedTasks.headSet(startsAtEnd, false)) {
             if (existingTask.getId() != taskToCheck.getId() &&
                     existingTask.getStartTime() != null &&
                     existingTask.getDuration() != null &&
@@ -215,6 +311,7 @@ public class InMemoryTaskManager implements TaskManager {
                 prioritizedTasks.add(task);
                 addTaskToTimeSlots(task);
             }
+            markModified(TaskType.TASK);
             afterTaskCreation(task);
             return task.getId();
         } catch (RuntimeException e) {
@@ -243,6 +340,7 @@ public class InMemoryTaskManager implements TaskManager {
         try {
             validator.validateForEpicCreation(epic);
             epics.put(epic.getId(), epic);
+            markModified(TaskType.EPIC);
             afterEpicCreation(epic);
             return epic.getId();
         } catch (RuntimeException e) {
@@ -285,7 +383,10 @@ public class InMemoryTaskManager implements TaskManager {
                 addTaskToTimeSlots(subTask);
             }
 
+            markModified(TaskType.SUBTASK, TaskType.EPIC);
+
             afterSubTaskCreation(subTask);
+            publishEpicUpdate(subTask.getEpicId());
             return subTask.getId();
         } catch (RuntimeException e) {
             if (subTasks.containsKey(subTask.getId())) {
@@ -332,6 +433,7 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         historyManager.add(task);
+        afterTaskView(task);
         return new Task(task);
     }
 
@@ -363,6 +465,7 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         historyManager.add(epic);
+        afterTaskView(epic);
         return new Epic(epic);
     }
 
@@ -419,30 +522,43 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         historyManager.add(subTask);
+        afterTaskView(subTask);
         return new SubTask(subTask);
     }
 
     /**
+     * Возвращает историю просмотров без побочных эффектов.
+     * Каждая запись за один проход разрешается в актуальную версию задачи из карт,
+     * история при этом не переупорядочивается, а удаленные задачи пропускаются.
+     *
      * @return неизменяемый список истории в порядке просмотра задач
      */
     @Override
     public Collection<Task> getHistory() {
-        return historyManager.getHistory().stream()
-                .map(task -> {
-                    try {
-                        if (task instanceof Epic) {
-                            return getEpicById(task.getId());
-                        } else if (task instanceof SubTask) {
-                            return getSubTaskById(task.getId());
-                        } else {
-                            return getTaskById(task.getId());
-                        }
-                    } catch (NotFoundException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Task> viewed = historyManager.getHistory();
+        List<Task> history = new ArrayList<>(viewed.size());
+        for (Task task : viewed) {
+            Task current = findCurrentVersion(task);
+            if (current != null) {
+                history.add(current);
+            }
+        }
+        return Collections.unmodifiableList(history);
+    }
+
+    /**
+     * Находит актуальную версию просмотренной задачи в карте ее типа
+     *
+     * @param task задача из истории
+     *
+     * @return текущая версия задачи или null, если задача удалена
+     */
+    private Task findCurrentVersion(Task task) {
+        return switch (task.getType()) {
+            case EPIC -> epics.get(task.getId());
+            case SUBTASK -> subTasks.get(task.getId());
+            case TASK -> tasks.get(task.getId());
+        };
     }
 
     /**
@@ -476,12 +592,14 @@ public class InMemoryTaskManager implements TaskManager {
                 }
             }
             throw new RuntimeException("Ошибка при обновлении задачи " + task.getId(), e);
-        } finally {
-            try {
-                afterTaskUpdate(task);
-            } catch (Exception e) {
-                System.err.println("Ошибка в afterTaskUpdate для задачи " + task.getId() + ": " + e.getMessage());
-            }
+        }
+
+        // Отклоненное обновление откатывается выше и не меняет ни версию, ни ленту изменений
+        markModified(TaskType.TASK);
+        try {
+            afterTaskUpdate(task);
+        } catch (Exception e) {
+            System.err.println("Ошибка в afterTaskUpdate для задачи " + task.getId() + ": " + e.getMessage());
         }
     }
 
@@ -540,13 +658,191 @@ public class InMemoryTaskManager implements TaskManager {
                 }
             }
             throw new RuntimeException("Ошибка при обновлении подзадачи " + subTask.getId(), e);
+        }
+
+        markModified(TaskType.SUBTASK, TaskType.EPIC);
+        try {
+            afterSubTaskUpdate(subTask);
+            publishEpicUpdate(subTask.getEpicId());
+            if (oldSubTask != null && oldSubTask.getEpicId() != subTask.getEpicId()) {
+                publishEpicUpdate(oldSubTask.getEpicId());
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка в afterSubTaskUpdate для подзадачи " + subTask.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Применяет пакет задач, эпиков или подзадач как единое целое.
+     * Элементы применяются по очереди обычными операциями создания и обновления,
+     * для каждого запоминается обратная операция. При ошибке элемента примененные
+     * элементы отменяются в обратном порядке. Хуки after* внутри пакета не должны
+     * сохранять состояние: наследники проверяют {@link #isBatchInProgress()},
+     * а состояние сохраняется один раз в {@link #afterBatchCommit()}.
+     * События изменения публикуются и версии увеличиваются только после успешного
+     * завершения пакета: отмененный пакет не меняет ни версий, ни ленты изменений.
+     * Элемент, отменить который не удалось, получает статус
+     * {@link BatchItemResult.Status#ROLLBACK_FAILED}.
+     *
+     * @param items элементы пакета (не может быть null)
+     * @return результаты по каждому элементу в порядке пакета
+     */
+    @Override
+    public List<BatchItemResult> applyBatch(List<? extends Task> items) {
+        validator.validateNotNull(items, "Пакет задач");
+        if (isBatchInProgress()) {
+            throw new IllegalStateException("Пакет задач уже применяется");
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        Deque<BatchUndo> undo = new ArrayDeque<>(items.size());
+        pendingEvents = new ArrayList<>();
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                try {
+                    results.add(applyBatchItem(i, items.get(i), undo));
+                } catch (RuntimeException e) {
+                    Map<Integer, String> undoErrors = rollbackBatch(undo);
+                    return failedBatchResults(results, undoErrors, i, errorMessage(e), items.size());
+                }
+            }
+            try {
+                afterBatchCommit();
+            } catch (RuntimeException e) {
+                Map<Integer, String> undoErrors = rollbackBatch(undo);
+                if (!undoErrors.isEmpty()) {
+                    e.addSuppressed(new IllegalStateException("Не удалось отменить элементы пакета: " + undoErrors));
+                }
+                throw e;
+            }
+            return results;
         } finally {
+            pendingEvents = null;
+            pendingModifiedTypes.clear();
+        }
+    }
+
+    /**
+     * Обратная операция примененного элемента пакета
+     */
+    private record BatchUndo(int index, Runnable action) {
+    }
+
+    /**
+     * Применяет элемент пакета и запоминает обратную операцию
+     */
+    private BatchItemResult applyBatchItem(int index, Task item, Deque<BatchUndo> undo) {
+        validator.validateNotNull(item, "Задача");
+        switch (item.getType()) {
+            case SUBTASK -> {
+                SubTask subTask = (SubTask) item;
+                SubTask oldSubTask = subTasks.get(subTask.getId());
+                if (oldSubTask != null) {
+                    updateSubTask(subTask);
+                    undo.push(new BatchUndo(index, () -> updateSubTask(oldSubTask)));
+                    return new BatchItemResult(index, subTask.getId(), BatchItemResult.Status.UPDATED, null);
+                }
+                int id = createSubTask(subTask);
+                undo.push(new BatchUndo(index, () -> deleteSubTaskById(id)));
+                return new BatchItemResult(index, id, BatchItemResult.Status.CREATED, null);
+            }
+            case EPIC -> {
+                if (epics.containsKey(item.getId())) {
+                    throw new IllegalArgumentException("Эпик с id " + item.getId() + " уже существует");
+                }
+                int id = createEpic((Epic) item);
+                undo.push(new BatchUndo(index, () -> deleteEpicById(id)));
+                return new BatchItemResult(index, id, BatchItemResult.Status.CREATED, null);
+            }
+            default -> {
+                Task oldTask = tasks.get(item.getId());
+                if (oldTask != null) {
+                    updateTask(item);
+                    undo.push(new BatchUndo(index, () -> updateTask(oldTask)));
+                    return new BatchItemResult(index, item.getId(), BatchItemResult.Status.UPDATED, null);
+                }
+                int id = createTask(item);
+                undo.push(new BatchUndo(index, () -> deleteTaskById(id)));
+                return new BatchItemResult(index, id, BatchItemResult.Status.CREATED, null);
+            }
+        }
+    }
+
+    /**
+     * Отменяет примененные элементы пакета в обратном порядке.
+     * Если все элементы отменены, состояние совпадает с исходным и версии не меняются.
+     *
+     * @return ошибки отмены по индексам элементов; пусто, если отменены все
+     */
+    private Map<Integer, String> rollbackBatch(Deque<BatchUndo> undo) {
+        Map<Integer, String> errors = new HashMap<>();
+        while (!undo.isEmpty()) {
+            BatchUndo step = undo.pop();
             try {
-                afterSubTaskUpdate(subTask);
-            } catch (Exception e) {
-                System.err.println("Ошибка в afterSubTaskUpdate для подзадачи " + subTask.getId() + ": " + e.getMessage());
+                step.action().run();
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка при отмене элемента пакета: " + e.getMessage());
+                errors.put(step.index(), errorMessage(e));
             }
         }
+        pendingEvents.clear();
+        if (errors.isEmpty()) {
+            pendingModifiedTypes.clear();
+        } else {
+            // Частично отмененное состояние отличается от исходного: кэши и ETag должны устареть
+            bumpVersions(pendingModifiedTypes);
+        }
+        return errors;
+    }
+
+    private static List<BatchItemResult> failedBatchResults(List<BatchItemResult> applied,
+                                                            Map<Integer, String> undoErrors, int failedIndex,
+                                                            String error, int size) {
+        List<BatchItemResult> results = new ArrayList<>(size);
+        for (BatchItemResult result : applied) {
+            String undoError = undoErrors.get(result.getIndex());
+            results.add(undoError == null
+                    ? new BatchItemResult(result.getIndex(), result.getId(), BatchItemResult.Status.ROLLED_BACK, null)
+                    : new BatchItemResult(result.getIndex(), result.getId(),
+                    BatchItemResult.Status.ROLLBACK_FAILED, undoError));
+        }
+        results.add(new BatchItemResult(failedIndex, 0, BatchItemResult.Status.FAILED, error));
+        for (int i = failedIndex + 1; i < size; i++) {
+            results.add(new BatchItemResult(i, 0, BatchItemResult.Status.SKIPPED, null));
+        }
+        return results;
+    }
+
+    /**
+     * Сообщение об ошибке элемента с причиной, если операция ее обернула
+     */
+    private static String errorMessage(RuntimeException e) {
+        Throwable cause = e.getCause();
+        if (cause != null && cause.getMessage() != null) {
+            return e.getMessage() + ": " + cause.getMessage();
+        }
+        return e.getMessage();
+    }
+
+    /**
+     * @return true, если сейчас применяется пакет задач
+     */
+    protected boolean isBatchInProgress() {
+        return pendingEvents != null;
+    }
+
+    /**
+     * Вызывается после применения всех элементов пакета, до публикации его событий.
+     * Исключение отменяет пакет, поэтому наследники сохраняют состояние
+     * до вызова реализации базового класса.
+     */
+    protected void afterBatchCommit() {
+        long version = pendingModifiedTypes.isEmpty()
+                ? modificationVersion.get() : bumpVersions(pendingModifiedTypes);
+        for (ChangeEvent event : pendingEvents) {
+            changeEventBus.publish(new ChangeEvent(version, event.action(), event.type(), event.id()));
+        }
+        pendingEvents.clear();
     }
 
     /**
@@ -579,6 +875,7 @@ public class InMemoryTaskManager implements TaskManager {
             }
         } finally {
             try {
+                markModified(TaskType.TASK);
                 afterAllTasksDeletion();
             } catch (Exception e) {
                 System.err.println("Ошибка в afterAllTasksDeletion: " + e.getMessage());
@@ -593,31 +890,33 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public void deleteTaskById(int id) {
+        validator.validatePositiveId(id);
+        Task task = tasks.get(id);
+        if (task == null) {
+            // Удалять нечего: версия и лента изменений не меняются
+            return;
+        }
+
         try {
-            validator.validatePositiveId(id);
-            Task task = tasks.get(id);
-            if (task != null) {
-                try {
-                    prioritizedTasks.remove(task);
-                    removeTaskFromTimeSlots(task);
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении задачи из приоритетных/временных слотов: " + e.getMessage());
-                }
+            prioritizedTasks.remove(task);
+            removeTaskFromTimeSlots(task);
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении задачи из приоритетных/временных слотов: " + e.getMessage());
+        }
 
-                tasks.remove(id);
+        tasks.remove(id);
 
-                try {
-                    historyManager.remove(id);
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении задачи " + id + " из истории: " + e.getMessage());
-                }
-            }
-        } finally {
-            try {
-                afterTaskDeletion(id);
-            } catch (Exception e) {
-                System.err.println("Ошибка в afterTaskDeletion: " + e.getMessage());
-            }
+        try {
+            historyManager.remove(id);
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении задачи " + id + " из истории: " + e.getMessage());
+        }
+
+        markModified(TaskType.TASK);
+        try {
+            afterTaskDeletion(id);
+        } catch (Exception e) {
+            System.err.println("Ошибка в afterTaskDeletion: " + e.getMessage());
         }
     }
 
@@ -650,6 +949,7 @@ public class InMemoryTaskManager implements TaskManager {
             });
         } finally {
             try {
+                markModified(TaskType.EPIC, TaskType.SUBTASK);
                 afterAllEpicsDeletion();
             } catch (Exception e) {
                 System.err.println("Ошибка в afterAllEpicsDeletion: " + e.getMessage());
@@ -682,38 +982,36 @@ public class InMemoryTaskManager implements TaskManager {
         List<Integer> subTaskIds = new ArrayList<>(epic.getSubTaskIds());
         boolean deletionFailed = false;
 
-        try {
-            for (int subtaskId : subTaskIds) {
-                try {
-                    deleteSubTaskById(subtaskId);
-                } catch (Exception e) {
-                    deletionFailed = true;
-                    System.err.println("Ошибка при удалении подзадачи " + subtaskId + ": " + e.getMessage());
-                }
-            }
-
+        for (int subtaskId : subTaskIds) {
             try {
-                if (epic.getStartTime() != null) {
-                    prioritizedTasks.remove(epic);
-                }
+                deleteSubTaskById(subtaskId);
             } catch (Exception e) {
-                System.err.println("Ошибка при удалении эпика из приоритетных задач: " + e.getMessage());
+                deletionFailed = true;
+                System.err.println("Ошибка при удалении подзадачи " + subtaskId + ": " + e.getMessage());
             }
+        }
 
-            try {
-                historyManager.remove(id);
-            } catch (Exception e) {
-                System.err.println("Ошибка при удалении эпика " + id + " из истории: " + e.getMessage());
+        try {
+            if (epic.getStartTime() != null) {
+                prioritizedTasks.remove(epic);
             }
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении эпика из приоритетных задач: " + e.getMessage());
+        }
 
-            epics.remove(id);
+        try {
+            historyManager.remove(id);
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении эпика " + id + " из истории: " + e.getMessage());
+        }
 
-        } finally {
-            try {
-                afterEpicDeletion(id);
-            } catch (Exception e) {
-                System.err.println("Ошибка в afterEpicDeletion: " + e.getMessage());
-            }
+        epics.remove(id);
+
+        markModified(TaskType.EPIC, TaskType.SUBTASK);
+        try {
+            afterEpicDeletion(id);
+        } catch (Exception e) {
+            System.err.println("Ошибка в afterEpicDeletion: " + e.getMessage());
         }
 
         if (deletionFailed) {
@@ -727,6 +1025,7 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public void deleteAllSubTasks() {
+        List<Integer> changedEpicIds = new ArrayList<>();
         try {
             subTasks.values().forEach(subTask -> {
                 try {
@@ -749,6 +1048,9 @@ public class InMemoryTaskManager implements TaskManager {
             }
 
             for (Epic epic : epics.values()) {
+                if (!epic.getSubTaskIds().isEmpty()) {
+                    changedEpicIds.add(epic.getId());
+                }
                 try {
                     epic.clearSubTaskIds();
                     updateEpicStatus(epic.getId());
@@ -759,7 +1061,9 @@ public class InMemoryTaskManager implements TaskManager {
             }
         } finally {
             try {
+                markModified(TaskType.SUBTASK, TaskType.EPIC);
                 afterAllSubTasksDeletion();
+                changedEpicIds.forEach(this::publishEpicUpdate);
             } catch (Exception e) {
                 System.err.println("Ошибка в afterAllSubTasksDeletion: " + e.getMessage());
             }
@@ -773,43 +1077,46 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public void deleteSubTaskById(int id) {
-        try {
-            validator.validatePositiveId(id);
-            SubTask subTask = subTasks.get(id);
-            if (subTask != null) {
-                try {
-                    prioritizedTasks.remove(subTask);
-                    removeTaskFromTimeSlots(subTask);
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении подзадачи из приоритетных/временных слотов: " + e.getMessage());
-                }
+        validator.validatePositiveId(id);
+        SubTask subTask = subTasks.get(id);
+        if (subTask == null) {
+            // Удалять нечего: версия и лента изменений не меняются
+            return;
+        }
 
-                subTasks.remove(id);
+        try {
+            prioritizedTasks.remove(subTask);
+            removeTaskFromTimeSlots(subTask);
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении подзадачи из приоритетных/временных слотов: " + e.getMessage());
+        }
 
-                Epic epic = epics.get(subTask.getEpicId());
-                if (epic != null) {
-                    try {
-                        epic.removeSubTaskId(id);
-                        updateEpicStatus(epic.getId());
-                        updateEpicTime(epic.getId());
-                    } catch (Exception e) {
-                        System.err.println("Ошибка при обновлении эпика " + epic.getId() + ": " + e.getMessage());
-                    }
-                }
+        subTasks.remove(id);
 
-                try {
-                    historyManager.remove(id);
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении подзадачи " + id + " из истории: " + e.getMessage());
-                }
-            }
-        } finally {
+        Epic epic = epics.get(subTask.getEpicId());
+        if (epic != null) {
             try {
-                afterSubTaskDeletion(id);
+                epic.removeSubTaskId(id);
+                updateEpicStatus(epic.getId());
+                updateEpicTime(epic.getId());
             } catch (Exception e) {
-                System.err.println("Ошибка в afterSubTaskDeletion: " + e.getMessage());
+                System.err.println("Ошибка при обновлении эпика " + epic.getId() + ": " + e.getMessage());
             }
         }
+
+        try {
+            historyManager.remove(id);
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении подзадачи " + id + " из истории: " + e.getMessage());
+        }
+
+        markModified(TaskType.SUBTASK, TaskType.EPIC);
+        try {
+            afterSubTaskDeletion(id);
+            publishEpicUpdate(subTask.getEpicId());
+        } catch (Exception e) {
+            System.err.println("Ошибка в afterSubTaskDeletion: " + e.getMessage());
+        }
     }
 
     /**
@@ -825,28 +1132,108 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
+    @Override
+    public long getModificationVersion() {
+        return modificationVersion.get();
+    }
+
+    @Override
+    public long getModificationVersion(TaskType type) {
+        return typeVersions.get(type).get();
+    }
+
+    @Override
+    public ChangeEventBus getChangeEventBus() {
+        return changeEventBus;
+    }
+
+    /**
+     * Публикует событие изменения с текущей версией менеджера.
+     * Хуки after* изменений публикуют события сами, поэтому наследники,
+     * переопределяющие хуки, должны вызывать реализацию базового класса.
+     * Внутри пакета событие откладывается до его завершения.
+     */
+    protected void publishChange(ChangeEvent.Action action, TaskType type, int id) {
+        ChangeEvent event = new ChangeEvent(modificationVersion.get(), action, type, id);
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        } else {
+            changeEventBus.publish(event);
+        }
+    }
+
+    /**
+     * Публикует обновление эпика, чьи подзадачи, статус или время изменились
+     * вместе с подзадачей. Удаленный к этому моменту эпик пропускается.
+     */
+    private void publishEpicUpdate(int epicId) {
+        if (epics.containsKey(epicId)) {
+            publishChange(ChangeEvent.Action.UPDATED, TaskType.EPIC, epicId);
+        }
+    }
+
+    /**
+     * Отмечает изменение коллекций: увеличивает общую версию и версии указанных типов.
+     * Вызывается перед хуками after*, поэтому наследникам не нужно вызывать его самим.
+     * Внутри пакета типы запоминаются, а версии увеличиваются один раз при его завершении.
+     *
+     * @param types типы задач, коллекции которых изменились
+     */
+    protected void markModified(TaskType... types) {
+        if (isBatchInProgress()) {
+            pendingModifiedTypes.addAll(List.of(types));
+            return;
+        }
+        bumpVersions(List.of(types));
+    }
+
+    /**
+     * Увеличивает общую версию и версии указанных типов
+     *
+     * @return новая версия
+     */
+    private long bumpVersions(Collection<TaskType> types) {
+        long version = modificationVersion.incrementAndGet();
+        for (TaskType type : types) {
+            typeVersions.get(type).set(version);
+        }
+        return version;
+    }
+
     protected void afterSubTaskDeletion(int subTaskId) {
+        publishChange(ChangeEvent.Action.DELETED, TaskType.SUBTASK, subTaskId);
     }
 
     protected void afterAllSubTasksDeletion() {
+        publishChange(ChangeEvent.Action.CLEARED, TaskType.SUBTASK, 0);
     }
 
     protected void afterEpicDeletion(int epicId) {
+        publishChange(ChangeEvent.Action.DELETED, TaskType.EPIC, epicId);
     }
 
     protected void afterAllEpicsDeletion() {
+        publishChange(ChangeEvent.Action.CLEARED, TaskType.EPIC, 0);
+        publishChange(ChangeEvent.Action.CLEARED, TaskType.SUBTASK, 0);
     }
 
     protected void afterTaskDeletion(int taskId) {
+        publishChange(ChangeEvent.Action.DELETED, TaskType.TASK, taskId);
     }
 
     protected void afterAllTasksDeletion() {
+        publishChange(ChangeEvent.Action.CLEARED, TaskType.TASK, 0);
     }
 
     protected void afterSubTaskUpdate(SubTask subTask) {
+        publishChange(ChangeEvent.Action.UPDATED, TaskType.SUBTASK, subTask.getId());
     }
 
     protected void afterTaskUpdate(Task task) {
+        publishChange(ChangeEvent.Action.UPDATED, TaskType.TASK, task.getId());
+    }
+
+    protected void afterTaskView(Task task) {
     }
 
     /**
@@ -923,11 +1310,14 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     protected void afterSubTaskCreation(SubTask subTask) {
+        publishChange(ChangeEvent.Action.CREATED, TaskType.SUBTASK, subTask.getId());
     }
 
     protected void afterEpicCreation(Epic epic) {
+        publishChange(ChangeEvent.Action.CREATED, TaskType.EPIC, epic.getId());
     }
 
     protected void afterTaskCreation(Task task) {
+        publishChange(ChangeEvent.Action.CREATED, TaskType.TASK, task.getId());
     }
 }
\ No newline at end of file
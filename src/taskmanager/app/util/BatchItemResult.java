@@ -0,0 +1,63 @@
+package taskmanager.app.util;
+
+/**
+ * Результат применения одного элемента пакета задач
+ */
+public class BatchItemResult {
+    /**
+     * Итог обработки элемента пакета
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        /**
+         * Элемент не прошел проверку, пакет отменен
+         */
+        FAILED,
+        /**
+         * Элемент был применен, но отменен вместе с пакетом
+         */
+        ROLLED_BACK,
+        /**
+         * Элемент был применен, но отменить его не удалось: пакет мог остаться применен частично
+         */
+        ROLLBACK_FAILED,
+        /**
+         * Элемент не обрабатывался, так как пакет отменен раньше
+         */
+        SKIPPED
+    }
+
+    private final int index;
+    private final int id;
+    private final Status status;
+    private final String error;
+
+    public BatchItemResult(int index, int id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    // Геттеры
+    public int getIndex() {
+        return index;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isApplied() {
+        return status == Status.CREATED || status == Status.UPDATED;
+    }
+}
@@ -2,9 +2,18 @@ package taskmanager.app.management;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
 import taskmanager.app.service.history.InMemoryHistoryManager;
 import taskmanager.app.service.manager.InMemoryTaskManager;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -32,4 +41,37 @@ class ManagersTest {
         assertNotNull(historyManager);
         assertInstanceOf(InMemoryHistoryManager.class, historyManager);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Менеджер по умолчанию восстанавливает задачи и историю после перезапуска")
+    void testGetDefault_ShouldRestoreTasksAndHistoryAfterRestart(@TempDir Path backup) throws Exception {
+        // Given
+        List<Path> files = List.of(Path.of("tasks.csv"), Path.of("tasks.csv.history"));
+        for (Path file : files) {
+            if (Files.exists(file)) {
+                Files.move(file, backup.resolve(file.getFileName()));
+            }
+        }
+        try {
+            TaskManager beforeRestart = Managers.getDefault();
+            int taskId = beforeRestart.createTask(new Task(0, "Task", "Description", StatusTask.NEW));
+            beforeRestart.getTaskById(taskId);
+            beforeRestart.flush();
+
+            // When
+            TaskManager afterRestart = Managers.getDefault();
+
+            // Then
+            assertEquals(1, afterRestart.getAllTasks().size());
+            assertEquals(List.of(taskId), afterRestart.getHistory().stream().map(Task::getId).toList());
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                Path saved = backup.resolve(file.getFileName());
+                if (Files.exists(saved)) {
+                    Files.move(saved, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+}
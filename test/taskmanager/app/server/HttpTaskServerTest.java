@@ -1,17 +1,36 @@
 package taskmanager.app.server;
 
+import com.google.gson.JsonParser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.io.TempDir;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.service.history.SessionHistoryManager;
+import taskmanager.app.service.manager.FileBackedTasksManager;
 import taskmanager.app.service.manager.InMemoryTaskManager;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HttpTaskServerTest {
 
@@ -71,4 +90,173 @@ class HttpTaskServerTest {
         assertNotNull(server);
         assertNotNull(server.getGson());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Параллельные клиенты на виртуальных потоках создают задачи без потерь")
+    void testConcurrentClientsOnVirtualThreads() throws Exception {
+        assertConcurrentClientsServed(true);
+    }
+
+    @Test
+    @DisplayName("Параллельные клиенты в пуле потоков создают задачи без потерь")
+    void testConcurrentClientsOnPlatformPool() throws Exception {
+        assertConcurrentClientsServed(false);
+    }
+
+    @Test
+    @DisplayName("Параллельные клиенты NIO сервера создают задачи без потерь")
+    void testConcurrentClientsOnNioServer() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setNioServer(true);
+        assertConcurrentClientsServed(config);
+    }
+
+    private void assertConcurrentClientsServed(boolean virtualThreads) throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setVirtualThreads(virtualThreads);
+        config.setWorkerThreads(4);
+        assertConcurrentClientsServed(config);
+    }
+
+    private void assertConcurrentClientsServed(ServerConfig config) throws Exception {
+        // Given
+        TaskManager manager = new InMemoryTaskManager();
+        int port = portCounter.getAndIncrement();
+        server = new HttpTaskServer(manager, port, config);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        int requests = 50;
+
+        // When
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String json = "{\"name\":\"Task " + i + "\",\"description\":\"Desc\",\"status\":\"NEW\"}";
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        // Then
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.get().statusCode());
+        }
+        assertEquals(requests, manager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Остановка записывает данные менеджера на диск")
+    void testStopShouldFlushManager() throws Exception {
+        // Given
+        AtomicInteger flushes = new AtomicInteger();
+        TaskManager manager = new InMemoryTaskManager() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        HttpTaskServer taskServer = new HttpTaskServer(manager, portCounter.getAndIncrement(), new ServerConfig());
+        taskServer.start();
+
+        // When
+        long started = System.nanoTime();
+        taskServer.stop(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(1, flushes.get());
+        assertTrue(System.nanoTime() - started < Duration.ofSeconds(5).toNanos(),
+                "Без выполняемых запросов остановка не должна ждать до срока");
+    }
+
+    @Test
+    @DisplayName("Токен клиента не попадает в журнал истории на диске")
+    void testBearerTokenShouldNotBePersistedInHistoryLog(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path file = tempDir.resolve("tasks.csv");
+        FileBackedTasksManager manager = new FileBackedTasksManager(file, new SessionHistoryManager());
+        int taskId = manager.createTask(new Task(0, "Task", "Desc", StatusTask.NEW));
+        int port = portCounter.getAndIncrement();
+        HttpTaskServer taskServer = new HttpTaskServer(manager, port, new ServerConfig());
+        taskServer.start();
+        String token = "super-secret-token-42";
+
+        // When
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/tasks/" + taskId))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        taskServer.stop(Duration.ofSeconds(1));
+
+        // Then
+        assertEquals(200, response.statusCode());
+        String historyLog = Files.readString(tempDir.resolve("tasks.csv.history"));
+        assertTrue(historyLog.contains(taskId + ",token:"), historyLog);
+        assertTrue(!historyLog.contains(token), "Журнал не должен содержать токен в открытом виде");
+    }
+
+    @Test
+    @DisplayName("Сервер по умолчанию после перезапуска отдает задачи и историю")
+    void testDefaultServerShouldRestoreStateAfterRestart(@TempDir Path backup) throws Exception {
+        // Given
+        List<Path> files = List.of(Path.of("tasks.csv"), Path.of("tasks.csv.history"));
+        for (Path file : files) {
+            if (Files.exists(file)) {
+                Files.move(file, backup.resolve(file.getFileName()));
+            }
+        }
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            int port = portCounter.getAndIncrement();
+            HttpTaskServer beforeRestart = new HttpTaskServer(port);
+            beforeRestart.start();
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"name\":\"Task\",\"description\":\"Desc\",\"status\":\"NEW\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            int taskId = JsonParser.parseString(created.body()).getAsJsonObject().get("id").getAsInt();
+            client.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/tasks/" + taskId))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            beforeRestart.stop(Duration.ofSeconds(1));
+
+            // When
+            int restartedPort = portCounter.getAndIncrement();
+            server = new HttpTaskServer(restartedPort);
+            server.start();
+            HttpResponse<String> tasks = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + restartedPort + "/tasks"))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> history = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + restartedPort + "/history"))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            // Then
+            assertEquals(201, created.statusCode());
+            assertEquals(200, tasks.statusCode());
+            assertEquals(1, JsonParser.parseString(tasks.body()).getAsJsonArray().size());
+            assertEquals(200, history.statusCode());
+            assertEquals(taskId, JsonParser.parseString(history.body()).getAsJsonArray()
+                    .get(0).getAsJsonObject().get("id").getAsInt());
+        } finally {
+            if (server != null) {
+                server.stop();
+                server = null;
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                Path saved = backup.resolve(file.getFileName());
+                if (Files.exists(saved)) {
+                    Files.move(saved, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+}
@@ -140,4 +140,25 @@ class LocalDateTimeAdapterTest {
             assertNull(result);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Кэш отформатированных значений")
+    class FormatCacheTest {
+
+        @Test
+        @DisplayName("Повторное форматирование возвращает тот же результат, что и форматтер")
+        void shouldMatchFormatterForRepeatedValues() {
+            // Given
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+            // When & Then
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 5000; i++) {
+                    LocalDateTime value = start.plusMinutes(i * 15L);
+                    assertEquals(value.format(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                            LocalDateTimeAdapter.format(value));
+                }
+            }
+        }
+    }
+}
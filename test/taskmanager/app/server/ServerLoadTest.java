@@ -0,0 +1,143 @@
+package taskmanager.app.server;
+
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
+import taskmanager.app.service.manager.InMemoryTaskManager;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение стандартного HTTP сервера и NIO сервера под нагрузкой чтения.
+ * Запускается вручную: {@code java taskmanager.app.server.ServerLoadTest [клиентов] [секунд]}.
+ * Каждый клиент в своем потоке отправляет последовательные запросы {@code GET /tasks}
+ * по постоянному соединению; замеряются пропускная способность и задержки.
+ * Ограничение частоты запросов отключено, чтобы замер упирался в сервер, а не в лимиты.
+ */
+public class ServerLoadTest {
+    private static final int TASKS = 100;
+    private static final int WARMUP_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.printf("Клиентов: %d, замер %d с, задач в ответе: %d%n", clients, seconds, TASKS);
+        for (boolean nio : new boolean[]{false, true}) {
+            Result result = run(nio, clients, seconds);
+            System.out.printf("%-12s %10.0f запросов/с, p50 %.2f мс, p99 %.2f мс, p99.9 %.2f мс, ошибок %d%n",
+                    nio ? "NIO:" : "Стандартный:", result.throughput(), result.p50Ms(), result.p99Ms(),
+                    result.p999Ms(), result.errors());
+        }
+    }
+
+    private static Result run(boolean nio, int clients, int seconds) throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setNioServer(nio);
+        config.setRateLimitEnabled(false);
+        config.setAdmissionControlEnabled(false);
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < TASKS; i++) {
+            manager.createTask(new Task(0, "Task " + i, "Description " + i, StatusTask.NEW,
+                    Duration.ofMinutes(30), start.plusHours(i)));
+        }
+        int port = freePort();
+        HttpTaskServer server = new HttpTaskServer(manager, port, config);
+        server.start();
+        try {
+            URI uri = URI.create("http://localhost:" + port + "/tasks");
+            load(uri, clients, WARMUP_SECONDS);
+            return load(uri, clients, seconds);
+        } finally {
+            server.stop(Duration.ofSeconds(1));
+        }
+    }
+
+    private static Result load(URI uri, int clients, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long started = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long errors = 0;
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) {
+                                errors++;
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    long[] result = Arrays.copyOf(latencies, count + 1);
+                    result[count] = errors;
+                    return result;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        long errors = 0;
+        List<long[]> perClient = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> future : futures) {
+            long[] result = future.get();
+            errors += result[result.length - 1];
+            perClient.add(result);
+            total += result.length - 1;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] result : perClient) {
+            System.arraycopy(result, 0, all, offset, result.length - 1);
+            offset += result.length - 1;
+        }
+        Arrays.sort(all);
+        return new Result(total / (elapsed / 1e9), percentileMs(all, 0.50), percentileMs(all, 0.99),
+                percentileMs(all, 0.999), errors);
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(double throughput, double p50Ms, double p99Ms, double p999Ms, long errors) {
+    }
+}
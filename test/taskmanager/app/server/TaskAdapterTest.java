@@ -0,0 +1,152 @@
+package taskmanager.app.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты для адаптеров задач, эпиков и подзадач")
+class TaskAdapterTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(Epic.class, new EpicAdapter())
+            .registerTypeAdapter(SubTask.class, new SubTaskAdapter())
+            .create();
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Задача записывается по схеме и читается обратно")
+    void testTask_shouldRoundTrip() {
+        // Given
+        Task task = new Task(3, "Task", "Desc", StatusTask.IN_PROGRESS,
+                Duration.ofMinutes(45), LocalDateTime.of(2024, 5, 1, 10, 0));
+
+        // When
+        String json = gson.toJson(task);
+        Task restored = gson.fromJson(json, Task.class);
+
+        // Then
+        assertEquals("{\"id\":3,\"name\":\"Task\",\"description\":\"Desc\",\"status\":\"IN_PROGRESS\","
+                + "\"startTime\":\"2024-05-01T10:00:00\",\"duration\":45}", json);
+        assertEquals(task, restored);
+        assertEquals(task.getStartTime(), restored.getStartTime());
+        assertEquals(task.getDuration(), restored.getDuration());
+    }
+
+    @Test
+    @DisplayName("Поля со значением null не записываются")
+    void testTask_shouldOmitNullFields() {
+        // Given
+        Task task = new Task(1, "Task", null, StatusTask.NEW);
+
+        // When
+        String json = gson.toJson(task);
+
+        // Then
+        assertEquals("{\"id\":1,\"name\":\"Task\",\"status\":\"NEW\"}", json);
+    }
+
+    @Test
+    @DisplayName("Подзадача и эпик сохраняют свои поля")
+    void testSubTaskAndEpic_shouldRoundTrip() {
+        // Given
+        SubTask subTask = new SubTask(5, "Sub", "Desc", StatusTask.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 5, 1, 12, 0), 4);
+        Epic epic = new Epic("Epic", "Desc");
+        epic.setId(4);
+        epic.addSubTaskId(5);
+        epic.setEndTime(LocalDateTime.of(2024, 5, 1, 12, 30));
+
+        // When
+        SubTask restoredSubTask = gson.fromJson(gson.toJson(subTask), SubTask.class);
+        String epicJson = gson.toJson(epic);
+        Epic restoredEpic = gson.fromJson(epicJson, Epic.class);
+
+        // Then
+        assertEquals(4, restoredSubTask.getEpicId());
+        assertEquals(StatusTask.DONE, restoredSubTask.getStatus());
+        assertEquals(List.of(5), restoredEpic.getSubTaskIds());
+        assertEquals(epic.getEndTime(), restoredEpic.getEndTime());
+        assertFalse(epicJson.contains("validator"));
+    }
+
+    @Test
+    @DisplayName("Эпики и подзадачи в списке задач записываются со своими полями")
+    void testTaskList_shouldWriteByRuntimeClass() {
+        // Given
+        Epic epic = new Epic("Epic", "Desc");
+        epic.setId(1);
+        epic.addSubTaskId(2);
+        List<Task> tasks = List.of(epic, new SubTask(2, "Sub", "Desc", StatusTask.NEW, null, null, 1));
+
+        // When
+        String json = gson.toJson(tasks, new TypeToken<List<Task>>() { }.getType());
+
+        // Then
+        assertTrue(json.contains("\"subTaskIds\":[2]"));
+        assertTrue(json.contains("\"epicId\":1"));
+    }
+
+    @Test
+    @DisplayName("Минимальный JSON читается со статусом NEW, неизвестные поля пропускаются")
+    void testRead_shouldApplyDefaultsAndSkipUnknownFields() {
+        // When
+        Epic epic = gson.fromJson("{\"name\":\"Epic\",\"extra\":{\"a\":[1,2]},\"validator\":{}}", Epic.class);
+
+        // Then
+        assertEquals("Epic", epic.getName());
+        assertEquals(StatusTask.NEW, epic.getStatus());
+        assertTrue(epic.getSubTaskIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Неизвестный статус отклоняется")
+    void testRead_shouldRejectUnknownStatus() {
+        // When & Then
+        assertThrows(RuntimeException.class,
+                () -> gson.fromJson("{\"name\":\"Task\",\"status\":\"LATER\"}", Task.class));
+    }
+
+    @Test
+    @DisplayName("Совпадает с отражением Gson по содержимому")
+    void testWrite_shouldMatchReflectiveOutput() {
+        // Given
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        SubTask subTask = new SubTask(5, "Sub", "Desc", StatusTask.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 5, 1, 12, 0), 4);
+
+        // When
+        JsonObject expected = reflective.toJsonTree(subTask).getAsJsonObject();
+        JsonObject actual = gson.toJsonTree(subTask).getAsJsonObject();
+
+        // Then
+        assertEquals(expected, actual);
+    }
+}
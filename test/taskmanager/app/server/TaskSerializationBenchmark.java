@@ -0,0 +1,155 @@
+package taskmanager.app.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
+import taskmanager.app.server.cbor.CborWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сравнение скорости сериализации списков задач рефлексией Gson, собственными адаптерами
+ * и адаптерами в двоичный формат CBOR.
+ * Запускается вручную: {@code java taskmanager.app.server.TaskSerializationBenchmark [размер списка]}.
+ * Списки записываются так же, как в обработчиках: поэлементно в один потоковый JsonWriter.
+ */
+public class TaskSerializationBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<Task> tasks = createTasks(size);
+
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        Gson adapters = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(Task.class, new TaskAdapter())
+                .registerTypeAdapter(Epic.class, new EpicAdapter())
+                .registerTypeAdapter(SubTask.class, new SubTaskAdapter())
+                .create();
+
+        System.out.printf("Список из %d элементов, %d замеров%n", tasks.size(), MEASURED_ROUNDS);
+        double reflectiveMs = measure(reflective, tasks, false);
+        double adaptersMs = measure(adapters, tasks, false);
+        double cborMs = measure(adapters, tasks, true);
+        System.out.printf("Рефлексия: %.2f мс на список%n", reflectiveMs);
+        System.out.printf("Адаптеры:  %.2f мс на список, ускорение %.2fx%n", adaptersMs, reflectiveMs / adaptersMs);
+        System.out.printf("CBOR:      %.2f мс на список, ускорение %.2fx%n", cborMs, reflectiveMs / cborMs);
+        System.out.printf("Размер JSON: %d символов, CBOR: %d байт%n",
+                writeList(adapters, tasks, false), writeList(adapters, tasks, true));
+    }
+
+    private static List<Task> createTasks(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 1; i <= size; i++) {
+            LocalDateTime startTime = start.plusHours(i);
+            switch (i % 3) {
+                case 0 -> tasks.add(new Task(i, "Task " + i, "Description " + i, StatusTask.NEW,
+                        Duration.ofMinutes(30), startTime));
+                case 1 -> {
+                    Epic epic = new Epic("Epic " + i, "Description " + i);
+                    epic.setId(i);
+                    epic.addSubTaskId(i + 1);
+                    epic.setStartTime(startTime);
+                    epic.setDuration(Duration.ofMinutes(30));
+                    epic.setEndTime(startTime.plusMinutes(30));
+                    tasks.add(epic);
+                }
+                default -> tasks.add(new SubTask(i, "SubTask " + i, "Description " + i, StatusTask.DONE,
+                        Duration.ofMinutes(30), startTime, i - 1));
+            }
+        }
+        return tasks;
+    }
+
+    private static double measure(Gson gson, List<Task> tasks, boolean cbor) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            writeList(gson, tasks, cbor);
+        }
+        long started = System.nanoTime();
+        long chars = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            chars += writeList(gson, tasks, cbor);
+        }
+        long elapsed = System.nanoTime() - started;
+        if (chars == 0) {
+            throw new IllegalStateException("Пустой вывод");
+        }
+        return elapsed / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+
+    /**
+     * @return число записанных символов JSON или байт CBOR
+     */
+    private static long writeList(Gson gson, List<Task> tasks, boolean cbor) throws IOException {
+        CountingWriter counter = new CountingWriter();
+        CountingOutputStream bytes = new CountingOutputStream();
+        JsonWriter writer = cbor ? new CborWriter(new BufferedOutputStream(bytes)) : gson.newJsonWriter(counter);
+        writer.beginArray();
+        for (Task task : tasks) {
+            gson.toJson(task, task.getClass(), writer);
+        }
+        writer.endArray();
+        writer.flush();
+        return cbor ? bytes.count : counter.count;
+    }
+
+    /**
+     * Поток, который только подсчитывает байты
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count += length;
+        }
+    }
+
+    /**
+     * Писатель, который только подсчитывает символы, чтобы замер не зависел от буфера
+     */
+    private static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String value, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
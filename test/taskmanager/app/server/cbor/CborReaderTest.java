@@ -0,0 +1,143 @@
+package taskmanager.app.server.cbor;
+
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты для читателя CBOR")
+class CborReaderTest {
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private static CborReader reader(String hex) {
+        return new CborReader(new ByteArrayInputStream(HexFormat.of().parseHex(hex)));
+    }
+
+    @Test
+    @DisplayName("Читает записанное писателем")
+    void testRead_shouldRoundTripWriterOutput() throws IOException {
+        // Given
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (CborWriter writer = new CborWriter(buffer)) {
+            writer.beginObject();
+            writer.name("id").value(42);
+            writer.name("name").value("Задача");
+            writer.name("ids").beginArray().value(-7).value(100_000L).endArray();
+            writer.name("ratio").value(0.25);
+            writer.name("done").value(false);
+            writer.endObject();
+        }
+        CborReader reader = new CborReader(new ByteArrayInputStream(buffer.toByteArray()));
+
+        // When
+        reader.beginObject();
+        assertEquals("id", reader.nextName());
+        assertEquals(42, reader.nextInt());
+        assertEquals("name", reader.nextName());
+        assertEquals("Задача", reader.nextString());
+        assertEquals("ids", reader.nextName());
+        reader.beginArray();
+        assertEquals(-7, reader.nextLong());
+        assertEquals("100000", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("ratio", reader.nextName());
+        assertEquals(0.25, reader.nextDouble());
+        assertEquals("done", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        reader.endObject();
+
+        // Then
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    @DisplayName("Читает контейнеры определенной длины, теги и float16")
+    void testRead_shouldSupportDefiniteLengthsAndTags() throws IOException {
+        // Given: {"a": [1, 1.5]}, число с тегом 1, null
+        CborReader reader = reader("a1" + "6161" + "82" + "01" + "f93e00" + "c11a5f5e1000" + "f6");
+
+        // When
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextInt());
+        assertEquals(1.5, reader.nextDouble());
+        reader.endArray();
+        reader.endObject();
+
+        // Then
+        assertEquals(1600000000L, reader.nextLong());
+        assertEquals(JsonToken.NULL, reader.peek());
+        reader.nextNull();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    @DisplayName("Пропускает вложенные значения")
+    void testSkipValue_shouldSkipNestedValues() throws IOException {
+        // Given: {"x": {"y": [1, "z"]}, "k": 5}
+        CborReader reader = reader("bf" + "6178" + "bf6179" + "9f01617aff" + "ff" + "616b" + "05" + "ff");
+
+        // When
+        reader.beginObject();
+        reader.nextName();
+        reader.skipValue();
+
+        // Then
+        assertEquals("k", reader.nextName());
+        assertEquals(5, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test
+    @DisplayName("Некорректные и оборванные данные приводят к ошибке")
+    void testRead_shouldRejectMalformedInput() {
+        // When & Then
+        assertThrows(EOFException.class, () -> reader("").peek());
+        assertThrows(EOFException.class, () -> {
+            CborReader reader = reader("bf6161");
+            reader.beginObject();
+            reader.nextName();
+            reader.nextInt();
+        });
+        assertThrows(MalformedJsonException.class, () -> {
+            CborReader reader = reader("a10101");
+            reader.beginObject();
+            reader.nextName();
+        });
+        assertThrows(MalformedJsonException.class, () -> reader("4161").peek());
+    }
+
+    @Test
+    @DisplayName("Глубина вложенности ограничена")
+    void testRead_shouldLimitDepth() {
+        // Given
+        CborReader reader = reader("81".repeat(CborReader.MAX_DEPTH + 1) + "01");
+
+        // When & Then
+        assertThrows(MalformedJsonException.class, () -> {
+            for (int i = 0; i <= CborReader.MAX_DEPTH; i++) {
+                reader.beginArray();
+            }
+        });
+    }
+}
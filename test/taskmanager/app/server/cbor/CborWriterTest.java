@@ -0,0 +1,84 @@
+package taskmanager.app.server.cbor;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты для писателя CBOR")
+class CborWriterTest {
+    private ByteArrayOutputStream buffer;
+    private CborWriter writer;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+        buffer = new ByteArrayOutputStream();
+        writer = new CborWriter(buffer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private String hex() {
+        return HexFormat.of().formatHex(buffer.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Целые числа кодируются минимальным числом байт")
+    void testIntegers_shouldUseShortestEncoding() throws IOException {
+        // When
+        writer.value(0).value(23).value(24).value(1000).value(-1).value(-500).value(Long.MAX_VALUE);
+
+        // Then
+        assertEquals("00" + "17" + "1818" + "1903e8" + "20" + "3901f3" + "1b7fffffffffffffff", hex());
+    }
+
+    @Test
+    @DisplayName("Объект записывается с неопределенной длиной, null-поля пропускаются")
+    void testObject_shouldSkipNullFields() throws IOException {
+        // Given
+        writer.setSerializeNulls(false);
+
+        // When
+        writer.beginObject();
+        writer.name("a").value(1);
+        writer.name("b").nullValue();
+        writer.name("c").value(true);
+        writer.endObject();
+        writer.close();
+
+        // Then
+        assertEquals("bf" + "6161" + "01" + "6163" + "f5" + "ff", hex());
+    }
+
+    @Test
+    @DisplayName("Строки и дробные числа кодируются по RFC 8949")
+    void testStringsAndDoubles() throws IOException {
+        // When
+        writer.beginArray();
+        writer.value("Ж");
+        writer.value(1.5);
+        writer.endArray();
+
+        // Then
+        assertEquals("9f" + "62d096" + "fb3ff8000000000000" + "ff", hex());
+    }
+
+    @Test
+    @DisplayName("Незавершенный документ при закрытии приводит к ошибке")
+    void testClose_shouldRejectIncompleteDocument() throws IOException {
+        // Given
+        writer.beginArray();
+
+        // When & Then
+        assertThrows(IOException.class, writer::close);
+    }
+}
@@ -0,0 +1,115 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты фильтра допуска запросов")
+class AdmissionFilterTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private AdmissionFilter filter;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) throws IOException {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        ServerConfig config = new ServerConfig();
+        config.setRouteConcurrencyLimits("/slow", 1, 1);
+        config.setAdaptiveConcurrency(false);
+        config.setRetryAfterSeconds(3);
+        filter = new AdmissionFilter(config, "/slow");
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/slow", exchange -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }).getFilters().add(filter);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private HttpRequest request(String method) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/slow"))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Запрос сверх ограничения сразу получает 503 с Retry-After")
+    void testDoFilter_shouldRejectExcessRequests() throws Exception {
+        // Given
+        CompletableFuture<HttpResponse<Void>> first =
+                client.sendAsync(request("GET"), HttpResponse.BodyHandlers.discarding());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // When
+        HttpResponse<String> rejected = client.send(request("GET"), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(503, rejected.statusCode());
+        assertEquals("3", rejected.headers().firstValue("Retry-After").orElseThrow());
+        assertTrue(rejected.body().contains("error"));
+        assertEquals(1, filter.getRejectedCount());
+
+        release.countDown();
+        assertEquals(204, first.get(5, TimeUnit.SECONDS).statusCode());
+        // Место освобождается после отправки ответа, поэтому клиент может получить его раньше
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (filter.getReadLimiter().getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, filter.getReadLimiter().getInFlight());
+    }
+
+    @Test
+    @DisplayName("Чтение и изменение ограничиваются раздельно")
+    void testDoFilter_shouldLimitReadsAndWritesSeparately() throws Exception {
+        // Given
+        CompletableFuture<HttpResponse<Void>> read =
+                client.sendAsync(request("GET"), HttpResponse.BodyHandlers.discarding());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<HttpResponse<Void>> write =
+                client.sendAsync(request("DELETE"), HttpResponse.BodyHandlers.discarding());
+        Thread.sleep(200);
+        release.countDown();
+
+        // Then
+        assertEquals(204, read.get(5, TimeUnit.SECONDS).statusCode());
+        assertEquals(204, write.get(5, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, filter.getRejectedCount());
+    }
+}
@@ -0,0 +1,106 @@
+package taskmanager.app.server.filters;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты ограничителя одновременных запросов")
+class ConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Запросы сверх ограничения отклоняются до освобождения места")
+    void testTryAcquire_shouldRejectOverLimit() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, false, 2.0);
+
+        // When & Then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(FAST);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Рост времени ответа снижает ограничение")
+    void testRelease_shouldDecreaseLimitOnLatencyGrowth() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, true, 2.0);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() < 100, "Ограничение должно снизиться: " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 1);
+    }
+
+    @Test
+    @DisplayName("После снижения ограничение восстанавливается при нагрузке и нормальном времени ответа")
+    void testRelease_shouldRecoverLimit() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, true, 2.0);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+        for (int i = 0; i < 30; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+        int reduced = limiter.getLimit();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            while (limiter.tryAcquire()) {
+                // заполняем все места
+            }
+            limiter.release(FAST);
+            while (limiter.getInFlight() > 0) {
+                limiter.release(FAST);
+            }
+        }
+
+        // Then
+        assertTrue(reduced < 20);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Без адаптации ограничение не меняется")
+    void testRelease_shouldKeepLimitWhenNotAdaptive() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, false, 2.0);
+
+        // When
+        limiter.tryAcquire();
+        limiter.release(FAST);
+        limiter.tryAcquire();
+        limiter.release(SLOW * 100);
+
+        // Then
+        assertEquals(10, limiter.getLimit());
+    }
+}
@@ -0,0 +1,109 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты фильтра плавной остановки")
+class DrainFilterTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final DrainFilter filter = new DrainFilter();
+    private HttpServer server;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) throws IOException {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/slow", exchange -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }).getFilters().add(filter);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private HttpRequest request() {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/slow"))
+                .GET()
+                .build();
+    }
+
+    @Test
+    @DisplayName("Принятый запрос завершается, новый получает 503")
+    void testStartDraining_shouldFinishAcceptedAndRejectNewRequests() throws Exception {
+        // Given
+        CompletableFuture<HttpResponse<Void>> accepted =
+                client.sendAsync(request(), HttpResponse.BodyHandlers.discarding());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // When
+        filter.startDraining();
+        HttpResponse<String> rejected = client.send(request(), HttpResponse.BodyHandlers.ofString());
+        release.countDown();
+
+        // Then
+        assertEquals(503, rejected.statusCode());
+        assertTrue(rejected.body().contains("error"));
+        assertEquals(204, accepted.get(5, TimeUnit.SECONDS).statusCode());
+        assertTrue(filter.awaitDrained(TimeUnit.SECONDS.toNanos(5)));
+        assertEquals(0, filter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Ожидание завершается по истечении времени, если запрос не закончился")
+    void testAwaitDrained_shouldTimeOut() throws Exception {
+        // Given
+        client.sendAsync(request(), HttpResponse.BodyHandlers.discarding());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        filter.startDraining();
+
+        // When
+        boolean drained = filter.awaitDrained(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then
+        assertFalse(drained);
+        assertEquals(1, filter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Без выполняемых запросов ожидание завершается сразу")
+    void testAwaitDrained_shouldReturnImmediatelyWhenIdle() throws Exception {
+        // When
+        filter.startDraining();
+
+        // Then
+        assertTrue(filter.awaitDrained(0));
+        assertTrue(filter.isDraining());
+    }
+}
@@ -0,0 +1,142 @@
+package taskmanager.app.server.filters;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+import taskmanager.app.server.ClientIdentity;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты фильтра ограничения частоты запросов")
+class RateLimitFilterTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpServer server;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private RateLimitFilter startServer(ServerConfig config) throws IOException {
+        RateLimitFilter filter = new RateLimitFilter(config, "/limited");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/limited", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }).getFilters().add(filter);
+        server.start();
+        return filter;
+    }
+
+    private HttpResponse<String> send(String method, String clientId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/limited"))
+                .header(ClientIdentity.CLIENT_ID_HEADER, clientId)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Клиент, исчерпавший бюджет, получает 429 с Retry-After, другие клиенты - нет")
+    void testDoFilter_shouldRejectClientOverBudget() throws Exception {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setRouteRateLimits("/limited", 0.1, 2, 0.1, 2);
+        RateLimitFilter filter = startServer(config);
+
+        // When
+        int first = send("GET", "alice").statusCode();
+        int second = send("GET", "alice").statusCode();
+        HttpResponse<String> rejected = send("GET", "alice");
+        int other = send("GET", "bob").statusCode();
+
+        // Then
+        assertEquals(204, first);
+        assertEquals(204, second);
+        assertEquals(429, rejected.statusCode());
+        assertTrue(Long.parseLong(rejected.headers().firstValue("Retry-After").orElseThrow()) >= 1);
+        assertTrue(rejected.body().contains("error"));
+        assertEquals(204, other);
+        assertEquals(1, filter.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Чтение и изменение расходуют раздельные бюджеты")
+    void testDoFilter_shouldLimitReadsAndWritesSeparately() throws Exception {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setRouteRateLimits("/limited", 0.1, 3, 0.1, 1);
+        startServer(config);
+
+        // When
+        int write = send("DELETE", "alice").statusCode();
+        int secondWrite = send("POST", "alice").statusCode();
+        int read = send("GET", "alice").statusCode();
+
+        // Then
+        assertEquals(204, write);
+        assertEquals(429, secondWrite);
+        assertEquals(204, read);
+    }
+
+    @Test
+    @DisplayName("Число отслеживаемых клиентов ограничено")
+    void testDoFilter_shouldBoundTrackedClients() throws Exception {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setRateLimitMaxClients(16);
+        RateLimitFilter filter = startServer(config);
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            assertEquals(204, send("GET", "client-" + i).statusCode());
+        }
+
+        // Then
+        assertTrue(filter.getTrackedClients() <= 16, "Клиентов: " + filter.getTrackedClients());
+    }
+
+    @Test
+    @DisplayName("Смена X-Client-Id на каждый запрос не обходит потолок IP адреса")
+    void testDoFilter_shouldLimitRotatingClientIds() throws Exception {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setRouteRateLimits("/limited", 0.1, 2, 0.1, 2);
+        config.setRateLimitClientsPerIp(2);
+        RateLimitFilter filter = startServer(config);
+
+        // When
+        int[] statuses = new int[10];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = send("GET", "rotating-" + i).statusCode();
+        }
+
+        // Then
+        for (int i = 0; i < 4; i++) {
+            assertEquals(204, statuses[i], "Запрос " + i);
+        }
+        for (int i = 4; i < statuses.length; i++) {
+            assertEquals(429, statuses[i], "Запрос " + i);
+        }
+        assertEquals(6, filter.getRejectedCount());
+        assertEquals(5, filter.getTrackedClients());
+    }
+}
@@ -0,0 +1,80 @@
+package taskmanager.app.server.filters;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты корзины токенов")
+class TokenBucketTest {
+    private static final long START = 1_000_000_000L;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Полная корзина пропускает запросы подряд до своей емкости")
+    void testTryConsume_shouldAllowBurstUpToCapacity() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 5, START);
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(START), "Запрос " + i + " должен пройти");
+        }
+        long wait = bucket.tryConsume(START);
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100), "Ожидание не больше интервала: " + wait);
+    }
+
+    @Test
+    @DisplayName("Токены пополняются со временем с заданной скоростью")
+    void testTryConsume_shouldRefillOverTime() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 2, START);
+        bucket.tryConsume(START);
+        bucket.tryConsume(START);
+        assertTrue(bucket.tryConsume(START) > 0);
+
+        // When
+        long afterOneToken = START + TimeUnit.MILLISECONDS.toNanos(100);
+
+        // Then
+        assertEquals(0, bucket.tryConsume(afterOneToken));
+        assertTrue(bucket.tryConsume(afterOneToken) > 0);
+    }
+
+    @Test
+    @DisplayName("Долгий простой не накапливает токенов больше емкости")
+    void testTryConsume_shouldNotAccumulateBeyondCapacity() {
+        // Given
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+
+        // When
+        long later = START + TimeUnit.HOURS.toNanos(1);
+        int allowed = 0;
+        while (bucket.tryConsume(later) == 0) {
+            allowed++;
+        }
+
+        // Then
+        assertEquals(3, allowed);
+    }
+
+    @Test
+    @DisplayName("Некорректные параметры корзины отклоняются")
+    void testConstructor_shouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
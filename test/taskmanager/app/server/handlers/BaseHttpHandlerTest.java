@@ -8,10 +8,23 @@ import com.sun.net.httpserver.HttpPrincipal;
 import org.junit.jupiter.api.*;
 import taskmanager.app.management.Managers;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.ServerConfig;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -223,6 +236,16 @@ class BaseHttpHandlerTest {
             }
         }
 
+        private static class NamedObject {
+            private final String name;
+            private final int id;
+
+            NamedObject(String name, int id) {
+                this.name = name;
+                this.id = id;
+            }
+        }
+
         @Nested
         @DisplayName("Отправка ответов")
         class SendResponseTest {
@@ -295,6 +318,348 @@ class BaseHttpHandlerTest {
                 assertTrue(outputStream.toString().contains(errorMessage));
             }
 
+            @Test
+            @DisplayName("По умолчанию должен отправлять компактный JSON")
+            void shouldSendCompactJsonByDefault() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+
+                // When
+                handler.sendSuccess(stubExchange, new NamedObject("test", 1));
+
+                // Then
+                assertEquals("{\"name\":\"test\",\"id\":1}", outputStream.toString());
+                assertEquals("Accept, Accept-Encoding", stubExchange.getResponseHeaders().getFirst("Vary"));
+            }
+
+            @Test
+            @DisplayName("Должен форматировать JSON по параметру запроса")
+            void shouldSendPrettyJsonForQueryParameter() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks?pretty=true"));
+
+                // When
+                handler.sendSuccess(stubExchange, new NamedObject("test", 1));
+
+                // Then
+                assertEquals("{\n  \"name\": \"test\",\n  \"id\": 1\n}", outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Должен форматировать JSON по параметру заголовка Accept")
+            void shouldSendPrettyJsonForAcceptHeader() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                stubExchange.getRequestHeaders().set("Accept", "application/json; pretty=true");
+
+                // When
+                handler.sendNotFound(stubExchange, "missing");
+
+                // Then
+                assertEquals("{\n  \"error\": \"missing\"\n}", outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Не должен форматировать JSON при pretty=false")
+            void shouldSendCompactJsonWhenPrettyDisabled() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks?pretty=false"));
+                stubExchange.getRequestHeaders().set("Accept", "application/json; pretty=true");
+
+                // When
+                handler.sendSuccess(stubExchange, new NamedObject("test", 1));
+
+                // Then
+                assertEquals("{\"name\":\"test\",\"id\":1}", outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Должен отправлять список потоково с chunked-кодированием")
+            void shouldStreamListResponse() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                List<NamedObject> items = Arrays.asList(
+                        new NamedObject("a", 1), null, new NamedObject("b", 2));
+
+                // When
+                handler.sendList(stubExchange, items);
+
+                // Then
+                assertEquals(200, stubExchange.getResponseCode());
+                assertEquals(0, stubExchange.getResponseLength());
+                assertEquals(gson.toJson(items), outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Должен отправлять пустой список как пустой массив")
+            void shouldStreamEmptyList() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks?pretty"));
+
+                // When
+                handler.sendList(stubExchange, List.of());
+
+                // Then
+                assertEquals("[]", outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Должен сжимать большой список gzip на лету")
+            void shouldGzipLargeList() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                stubExchange.getRequestHeaders().set("Accept-Encoding", "deflate, gzip");
+                List<NamedObject> items = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    items.add(new NamedObject("task " + i, i));
+                }
+
+                // When
+                handler.sendList(stubExchange, items);
+
+                // Then
+                assertEquals("gzip", stubExchange.getResponseHeaders().getFirst("Content-Encoding"));
+                assertEquals(0, stubExchange.getResponseLength());
+                byte[] compressed = outputStream.toByteArray();
+                String json = new String(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes(),
+                        StandardCharsets.UTF_8);
+                assertEquals(gson.toJson(items), json);
+                assertTrue(compressed.length < json.length());
+            }
+
+            @Test
+            @DisplayName("Не должен сжимать ответ меньше порога")
+            void shouldNotCompressSmallList() throws IOException {
+                // Given
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                stubExchange.getRequestHeaders().set("Accept-Encoding", "gzip");
+                List<NamedObject> items = List.of(new NamedObject("a", 1));
+
+                // When
+                handler.sendList(stubExchange, items);
+
+                // Then
+                assertNull(stubExchange.getResponseHeaders().getFirst("Content-Encoding"));
+                assertEquals(gson.toJson(items).length(), stubExchange.getResponseLength());
+                assertEquals(gson.toJson(items), outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Должен сжимать большой текстовый ответ deflate, если gzip исключен")
+            void shouldDeflateLargeTextWhenGzipRejected() throws IOException {
+                // Given
+                stubExchange.getRequestHeaders().set("Accept-Encoding", "gzip;q=0, deflate");
+                String response = "x".repeat(4096);
+
+                // When
+                handler.sendText(stubExchange, response, 200);
+
+                // Then
+                assertEquals("deflate", stubExchange.getResponseHeaders().getFirst("Content-Encoding"));
+                String body = new String(new InflaterInputStream(
+                        new ByteArrayInputStream(outputStream.toByteArray())).readAllBytes(), StandardCharsets.UTF_8);
+                assertEquals(response, body);
+            }
+
+            @Test
+            @DisplayName("Не должен сжимать ответ без Accept-Encoding")
+            void shouldNotCompressWithoutAcceptEncoding() throws IOException {
+                // Given
+                String response = "x".repeat(4096);
+
+                // When
+                handler.sendText(stubExchange, response, 200);
+
+                // Then
+                assertNull(stubExchange.getResponseHeaders().getFirst("Content-Encoding"));
+                assertEquals(response, outputStream.toString());
+            }
+
+            @Test
+            @DisplayName("Повторный ответ той же версии отдается из кэша уже сжатым")
+            void shouldServeRepeatedResponseFromCache() throws IOException {
+                // Given
+                List<NamedObject> items = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    items.add(new NamedObject("item" + i, i));
+                }
+                int[] builds = {0};
+                BaseHttpHandler.ResponseWriter writer = target -> {
+                    builds[0]++;
+                    handler.sendList(target, items);
+                };
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/epics"));
+                stubExchange.getRequestHeaders().set("Accept-Encoding", "gzip");
+                StubHttpExchange repeated = new StubHttpExchange();
+                ByteArrayOutputStream repeatedBody = new ByteArrayOutputStream();
+                repeated.setResponseBody(repeatedBody);
+                repeated.setRequestURI(URI.create("http://localhost:8080/epics"));
+                repeated.getRequestHeaders().set("Accept-Encoding", "gzip");
+
+                // When
+                handler.sendCached(stubExchange, 1, writer);
+                handler.sendCached(repeated, 1, writer);
+
+                // Then
+                assertEquals(1, builds[0]);
+                assertEquals(1, handler.responseCache.getHits());
+                assertEquals("gzip", repeated.getResponseHeaders().getFirst("Content-Encoding"));
+                assertEquals(repeatedBody.size(), repeated.getResponseLength());
+                assertArrayEquals(outputStream.toByteArray(), repeatedBody.toByteArray());
+                String body = new String(new GZIPInputStream(
+                        new ByteArrayInputStream(repeatedBody.toByteArray())).readAllBytes(), StandardCharsets.UTF_8);
+                assertEquals(gson.toJson(items), body);
+            }
+
+            @Test
+            @DisplayName("Ответ строится заново после изменения версии данных")
+            void shouldRebuildCachedResponseForNewVersion() throws IOException {
+                // Given
+                List<String> items = new ArrayList<>(List.of("a"));
+                BaseHttpHandler.ResponseWriter writer = target -> handler.sendList(target, items);
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/epics"));
+                handler.sendCached(stubExchange, 1, writer);
+                items.add("b");
+                StubHttpExchange changed = new StubHttpExchange();
+                ByteArrayOutputStream changedBody = new ByteArrayOutputStream();
+                changed.setResponseBody(changedBody);
+                changed.setRequestURI(URI.create("http://localhost:8080/epics"));
+
+                // When
+                handler.sendCached(changed, 2, writer);
+
+                // Then
+                assertEquals("[\"a\"]", outputStream.toString());
+                assertEquals("[\"a\",\"b\"]", changedBody.toString());
+                assertEquals(1, handler.responseCache.size());
+            }
+
+            @Test
+            @DisplayName("Одновременные одинаковые запросы получают один построенный ответ")
+            void shouldCoalesceConcurrentIdenticalRequests() throws Exception {
+                // Given
+                CountDownLatch building = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                AtomicInteger builds = new AtomicInteger();
+                BaseHttpHandler.ResponseWriter writer = target -> {
+                    builds.incrementAndGet();
+                    building.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handler.sendList(target, List.of("a", "b"));
+                };
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                StubHttpExchange concurrent = new StubHttpExchange();
+                ByteArrayOutputStream concurrentBody = new ByteArrayOutputStream();
+                concurrent.setResponseBody(concurrentBody);
+                concurrent.setRequestURI(URI.create("http://localhost:8080/tasks"));
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+                // When
+                Future<?> leader = executor.submit(() -> {
+                    handler.sendCached(stubExchange, 1, writer);
+                    return null;
+                });
+                assertTrue(building.await(5, TimeUnit.SECONDS));
+                Future<?> follower = executor.submit(() -> {
+                    handler.sendCached(concurrent, 1, writer);
+                    return null;
+                });
+                Thread.sleep(50);
+                release.countDown();
+                leader.get(5, TimeUnit.SECONDS);
+                follower.get(5, TimeUnit.SECONDS);
+                executor.shutdown();
+
+                // Then
+                assertEquals(1, builds.get());
+                assertEquals("[\"a\",\"b\"]", outputStream.toString());
+                assertEquals("[\"a\",\"b\"]", concurrentBody.toString());
+            }
+
+            @Test
+            @DisplayName("Запрос не ждет чужой ответ, который передается потоком медленному клиенту")
+            void shouldNotWaitForStalledStreamingLeader() throws Exception {
+                // Given
+                ServerConfig config = new ServerConfig();
+                config.setResponseCacheMaxEntryBytes(16);
+                BaseHttpHandler limited = new BaseHttpHandler(Managers.getDefault(), gson, config) {
+                    @Override
+                    public void handle(HttpExchange exchange) {
+                    }
+                };
+                String response = "x".repeat(100);
+                BaseHttpHandler.ResponseWriter writer = target -> limited.sendText(target, response, 200);
+                CountDownLatch stalled = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/epics"));
+                stubExchange.setResponseBody(new ByteArrayOutputStream() {
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        stalled.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+                StubHttpExchange concurrent = new StubHttpExchange();
+                ByteArrayOutputStream concurrentBody = new ByteArrayOutputStream();
+                concurrent.setResponseBody(concurrentBody);
+                concurrent.setRequestURI(URI.create("http://localhost:8080/epics"));
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+                try {
+                    // When
+                    Future<?> leader = executor.submit(() -> {
+                        limited.sendCached(stubExchange, 1, writer);
+                        return null;
+                    });
+                    assertTrue(stalled.await(5, TimeUnit.SECONDS));
+                    Future<?> follower = executor.submit(() -> {
+                        limited.sendCached(concurrent, 1, writer);
+                        return null;
+                    });
+
+                    // Then
+                    follower.get(5, TimeUnit.SECONDS);
+                    assertEquals(response, concurrentBody.toString());
+                    release.countDown();
+                    leader.get(5, TimeUnit.SECONDS);
+                } finally {
+                    release.countDown();
+                    executor.shutdown();
+                }
+            }
+
+            @Test
+            @DisplayName("Ответ больше предела кэша отправляется потоком и не кэшируется")
+            void shouldStreamResponseLargerThanCacheLimit() throws IOException {
+                // Given
+                ServerConfig config = new ServerConfig();
+                config.setResponseCacheMaxEntryBytes(16);
+                BaseHttpHandler limited = new BaseHttpHandler(Managers.getDefault(), gson, config) {
+                    @Override
+                    public void handle(HttpExchange exchange) {
+                    }
+                };
+                stubExchange.setRequestURI(URI.create("http://localhost:8080/epics"));
+                String response = "x".repeat(100);
+
+                // When
+                limited.sendCached(stubExchange, 1, target -> limited.sendText(target, response, 200));
+
+                // Then
+                assertEquals(200, stubExchange.getResponseCode());
+                assertEquals(response.length(), stubExchange.getResponseLength());
+                assertEquals(response, outputStream.toString());
+                assertEquals(0, limited.responseCache.size());
+            }
+
             @Test
             @DisplayName("Должен отправлять ответ 204 No Content")
             void shouldSendNoContentResponse() throws IOException {
@@ -327,6 +692,21 @@ class BaseHttpHandlerTest {
                 assertEquals("123", param);
             }
 
+            @Test
+            @DisplayName("Должен извлекать и декодировать параметр строки запроса")
+            void shouldExtractQueryParameter() {
+                // Given
+                URI uri = URI.create("http://localhost:8080/tasks?limit=10&name=a%20b&flag");
+                StubHttpExchange stubExchange = new StubHttpExchange();
+                stubExchange.setRequestURI(uri);
+
+                // When & Then
+                assertEquals("10", handler.getQueryParameter(stubExchange, "limit"));
+                assertEquals("a b", handler.getQueryParameter(stubExchange, "name"));
+                assertEquals("", handler.getQueryParameter(stubExchange, "flag"));
+                assertNull(handler.getQueryParameter(stubExchange, "cursor"));
+            }
+
             @Test
             @DisplayName("Должен возвращать null для несуществующего индекса")
             void shouldReturnNullForNonExistentIndex() {
@@ -0,0 +1,74 @@
+package taskmanager.app.server.handlers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import taskmanager.app.exception.RequestBodyTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedInputStreamTest {
+
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Тело ровно по пределу читается целиком")
+    void shouldReadBodyOfExactLimit() throws IOException {
+        // Given
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[100]), 100);
+
+        // When
+        byte[] body = in.readAllBytes();
+
+        // Then
+        assertEquals(100, body.length);
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    @DisplayName("Превышение предела обнаруживается при блочном и побайтовом чтении")
+    void shouldThrowWhenLimitExceeded() {
+        // Given
+        InputStream bulk = new BoundedInputStream(new ByteArrayInputStream(new byte[101]), 100);
+        InputStream single = new BoundedInputStream(new ByteArrayInputStream(new byte[2]), 1);
+
+        // When & Then
+        assertThrows(RequestBodyTooLargeException.class, bulk::readAllBytes);
+        assertThrows(RequestBodyTooLargeException.class, () -> {
+            single.read();
+            single.read();
+        });
+    }
+
+    @Test
+    @DisplayName("Чтение не запрашивает из источника больше, чем нужно для проверки предела")
+    void shouldNotReadFarBeyondLimit() throws IOException {
+        // Given
+        ByteArrayInputStream source = new ByteArrayInputStream(new byte[10_000]);
+        InputStream in = new BoundedInputStream(source, 10);
+
+        // When
+        assertThrows(RequestBodyTooLargeException.class, () -> in.read(new byte[8192]));
+
+        // Then
+        assertEquals(10_000 - 11, source.available());
+    }
+}
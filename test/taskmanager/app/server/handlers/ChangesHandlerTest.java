@@ -0,0 +1,142 @@
+package taskmanager.app.server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
+import taskmanager.app.management.TaskManager;
+import taskmanager.app.server.HttpTaskServer;
+import taskmanager.app.service.manager.InMemoryTaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты для обработчика ленты изменений")
+class ChangesHandlerTest {
+    private static final AtomicInteger PORT_COUNTER = new AtomicInteger(8181);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private TestInfo testInfo;
+    private int port;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) throws IOException {
+        this.testInfo = testInfo;
+        port = PORT_COUNTER.getAndIncrement();
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager, port);
+        gson = taskServer.getGson();
+
+        System.out.printf("🚀 Запуск теста: %s%n", testInfo.getDisplayName());
+        taskServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskServer.stop();
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    @Test
+    @DisplayName("Long-poll сразу возвращает уже произошедшие изменения")
+    void testLongPollReturnsMissedEvents() throws IOException, InterruptedException {
+        // Given
+        int taskId = manager.createTask(new Task(0, "Task 1", "Desc", StatusTask.NEW));
+
+        // When
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/changes?since=0")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        JsonArray events = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(1, events.size());
+        JsonObject event = events.get(0).getAsJsonObject();
+        assertEquals("CREATED", event.get("action").getAsString());
+        assertEquals("TASK", event.get("type").getAsString());
+        assertEquals(taskId, event.get("id").getAsInt());
+        assertEquals("1", response.headers().firstValue(ChangesHandler.VERSION_HEADER).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Long-poll дожидается следующего изменения")
+    void testLongPollWaitsForChange() throws Exception {
+        // Given
+        CompletableFuture<HttpResponse<String>> pending = client.sendAsync(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/changes?timeout=10")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // When
+        Thread.sleep(200);
+        manager.createTask(new Task(0, "Task 1", "Desc", StatusTask.NEW));
+
+        // Then
+        HttpResponse<String> response = pending.get(5, TimeUnit.SECONDS);
+        assertEquals(1, gson.fromJson(response.body(), JsonArray.class).size());
+    }
+
+    @Test
+    @DisplayName("Long-poll без изменений возвращает пустой массив по истечении времени")
+    void testLongPollTimesOut() throws IOException, InterruptedException {
+        // When
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/changes?since=0&timeout=0")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("[]", response.body());
+        assertEquals("0", response.headers().firstValue(ChangesHandler.VERSION_HEADER).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("SSE отправляет пропущенные и новые изменения")
+    void testEventStream() throws Exception {
+        // Given
+        manager.createTask(new Task(0, "Task 1", "Desc", StatusTask.NEW));
+        HttpResponse<Stream<String>> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/changes")))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", "0")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        Iterator<String> lines = response.body().iterator();
+
+        // When
+        assertEquals("id: 1", lines.next());
+        assertEquals("event: change", lines.next());
+        assertTrue(lines.next().startsWith("data: {"));
+        assertEquals("", lines.next());
+        manager.createTask(new Task(0, "Task 2", "Desc", StatusTask.NEW));
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+        assertEquals("id: 2", lines.next());
+        assertEquals("event: change", lines.next());
+        JsonObject event = gson.fromJson(lines.next().substring("data: ".length()), JsonObject.class);
+        assertEquals(2, event.get("version").getAsLong());
+    }
+}
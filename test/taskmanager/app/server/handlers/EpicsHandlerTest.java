@@ -360,6 +360,7 @@ class EpicsHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         // Then
-        assertEquals(400, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET, POST, DELETE", response.headers().firstValue("Allow").orElseThrow());
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import taskmanager.app.entity.StatusTask;
 import taskmanager.app.entity.Task;
 import taskmanager.app.management.TaskManager;
 import taskmanager.app.server.HttpTaskServer;
+import taskmanager.app.service.history.SessionHistoryManager;
 import taskmanager.app.service.manager.InMemoryTaskManager;
 
 import java.io.IOException;
@@ -114,7 +115,8 @@ class HistoryAndPrioritizedHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         // Then
-        assertEquals(400, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET", response.headers().firstValue("Allow").orElseThrow());
     }
 
     @Test
@@ -200,7 +202,8 @@ class HistoryAndPrioritizedHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         // Then
-        assertEquals(400, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET", response.headers().firstValue("Allow").orElseThrow());
     }
 
     @Test
@@ -321,4 +324,111 @@ class HistoryAndPrioritizedHandlerTest {
         assertEquals(1, prioritized.length);
         assertEquals("Task with time", prioritized[0].getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Каждый клиент получает свою историю просмотров")
+    void testHistoryIsPartitionedByClient() throws IOException, InterruptedException {
+        // Given
+        taskServer.stop();
+        manager = new InMemoryTaskManager(new SessionHistoryManager());
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+
+        int taskId1 = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+        int taskId2 = manager.createTask(new Task(manager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + taskId1))
+                .header("X-Client-Id", "alice")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + taskId2))
+                .header("Cookie", "theme=dark; KANBAN_SESSION=bob-session")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // When
+        HttpResponse<String> aliceHistory = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("X-Client-Id", "alice")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> bobHistory = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("Cookie", "KANBAN_SESSION=bob-session")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> anonymousHistory = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        Task[] alice = gson.fromJson(aliceHistory.body(), Task[].class);
+        Task[] bob = gson.fromJson(bobHistory.body(), Task[].class);
+        Task[] anonymous = gson.fromJson(anonymousHistory.body(), Task[].class);
+        assertEquals(1, alice.length);
+        assertEquals("Task 1", alice[0].getName());
+        assertEquals(1, bob.length);
+        assertEquals("Task 2", bob[0].getName());
+        assertEquals(0, anonymous.length);
+    }
+
+    @Test
+    @DisplayName("Постраничное получение приоритетных задач")
+    void testGetPrioritizedTasksPaged() throws IOException, InterruptedException {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        for (int i = 3; i >= 1; i--) {
+            manager.createTask(new Task(0, "Task " + i, "Desc", StatusTask.NEW,
+                    Duration.ofMinutes(5), start.plusHours(i)));
+        }
+
+        // When
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+        HttpResponse<String> second = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?limit=2&cursor=" + cursor))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        Task[] firstPage = gson.fromJson(first.body(), Task[].class);
+        assertEquals(2, firstPage.length);
+        assertEquals("Task 1", firstPage[0].getName());
+        assertEquals("Task 2", firstPage[1].getName());
+
+        Task[] secondPage = gson.fromJson(second.body(), Task[].class);
+        assertEquals(1, secondPage.length);
+        assertEquals("Task 3", secondPage[0].getName());
+        assertTrue(second.headers().firstValue("X-Next-Cursor").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Закэшированный приоритетный список обновляется после изменения задач")
+    void testPrioritizedCacheRefreshedAfterChange() throws IOException, InterruptedException {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        manager.createTask(new Task(0, "Task 1", "Desc", StatusTask.NEW, Duration.ofMinutes(5), start));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized"))
+                .GET()
+                .build();
+        HttpResponse<String> first = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> cached = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // When
+        manager.createTask(new Task(0, "Task 2", "Desc", StatusTask.NEW, Duration.ofMinutes(5), start.minusHours(1)));
+        HttpResponse<String> refreshed = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(first.body(), cached.body());
+        Task[] tasks = gson.fromJson(refreshed.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Task 2", tasks[0].getName());
+    }
+}
@@ -0,0 +1,89 @@
+package taskmanager.app.server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты для писателя с выбором полей")
+class ProjectingJsonWriterTest {
+    private final Gson gson = new Gson();
+    private StringWriter output;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+        output = new StringWriter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private Map<String, Object> entity() {
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("id", 1);
+        entity.put("name", "Epic");
+        entity.put("subTaskIds", List.of(2, 3));
+        entity.put("meta", Map.of("name", "nested"));
+        entity.put("status", "NEW");
+        return entity;
+    }
+
+    @Test
+    @DisplayName("У объекта остаются только выбранные поля, вложенные значения отбрасываются целиком")
+    void testObject_shouldKeepSelectedFields() throws IOException {
+        // Given
+        JsonWriter writer = new ProjectingJsonWriter(gson.newJsonWriter(output), Set.of("id", "status"), 1);
+
+        // When
+        gson.toJson(entity(), Map.class, writer);
+        writer.flush();
+
+        // Then
+        assertEquals("{\"id\":1,\"status\":\"NEW\"}", output.toString());
+    }
+
+    @Test
+    @DisplayName("У элементов массива фильтруются поля верхнего уровня")
+    void testArray_shouldFilterElementFields() throws IOException {
+        // Given
+        JsonWriter writer = new ProjectingJsonWriter(gson.newJsonWriter(output), Set.of("name", "meta"), 2);
+
+        // When
+        writer.beginArray();
+        gson.toJson(entity(), Map.class, writer);
+        gson.toJson(entity(), Map.class, writer);
+        writer.endArray();
+        writer.flush();
+
+        // Then
+        String element = "{\"name\":\"Epic\",\"meta\":{\"name\":\"nested\"}}";
+        assertEquals("[" + element + "," + element + "]", output.toString());
+    }
+
+    @Test
+    @DisplayName("Неизвестные поля дают пустой объект")
+    void testObject_shouldAllowUnknownFields() throws IOException {
+        // Given
+        JsonWriter writer = new ProjectingJsonWriter(gson.newJsonWriter(output), Set.of("missing"), 1);
+
+        // When
+        gson.toJson(entity(), Map.class, writer);
+        writer.flush();
+
+        // Then
+        assertEquals("{}", output.toString());
+    }
+}
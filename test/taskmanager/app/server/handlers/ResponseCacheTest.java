@@ -0,0 +1,81 @@
+package taskmanager.app.server.handlers;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты кэша готовых ответов")
+class ResponseCacheTest {
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private static ResponseCache.CachedResponse response(long version, int size) {
+        return new ResponseCache.CachedResponse(version, 200, Map.of("Content-Type", "application/json"),
+                new byte[size]);
+    }
+
+    @Test
+    @DisplayName("Ответ другой версии считается устаревшим и удаляется")
+    void testGet_shouldDropStaleResponse() {
+        // Given
+        ResponseCache cache = new ResponseCache(1_000, 100);
+        cache.put("/epics", response(1, 10));
+
+        // When
+        ResponseCache.CachedResponse current = cache.get("/epics", 1);
+        ResponseCache.CachedResponse stale = cache.get("/epics", 2);
+
+        // Then
+        assertNotNull(current);
+        assertNull(stale);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeBytes());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("При превышении бюджета вытесняются давно не запрашивавшиеся ответы")
+    void testPut_shouldEvictLeastRecentlyUsed() {
+        // Given
+        ResponseCache cache = new ResponseCache(100, 50);
+        cache.put("a", response(1, 40));
+        cache.put("b", response(1, 40));
+        cache.get("a", 1);
+
+        // When
+        cache.put("c", response(1, 40));
+
+        // Then
+        assertNotNull(cache.get("a", 1));
+        assertNull(cache.get("b", 1));
+        assertNotNull(cache.get("c", 1));
+        assertEquals(80, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Ответ больше предела не кэшируется")
+    void testPut_shouldRejectOversizedResponse() {
+        // Given
+        ResponseCache cache = new ResponseCache(1_000, 10);
+
+        // When
+        boolean stored = cache.put("a", response(1, 11));
+
+        // Then
+        assertFalse(stored);
+        assertEquals(0, cache.size());
+    }
+}
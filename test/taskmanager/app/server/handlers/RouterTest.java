@@ -0,0 +1,198 @@
+package taskmanager.app.server.handlers;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты маршрутизатора запросов")
+class RouterTest {
+    private Router router;
+    private List<String> calls;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        calls = new ArrayList<>();
+        router = new Router()
+                .add("GET", "/epics", (exchange, params) -> calls.add("all"))
+                .add("DELETE", "/epics", (exchange, params) -> calls.add("deleteAll"))
+                .add("GET", "/epics/{id}", (exchange, params) -> calls.add("epic " + params[0]))
+                .add("GET", "/epics/{id}/subtasks", (exchange, params) -> calls.add("subtasks " + params[0]))
+                .add("POST", "/epics/batch", (exchange, params) -> calls.add("batch"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private Router.Result dispatch(String method, String path) throws IOException, InterruptedException {
+        return router.dispatch(new StubHttpExchange(method, path));
+    }
+
+    @Test
+    @DisplayName("Маршруты с параметрами и без находятся по пути")
+    void testDispatch_shouldMatchTemplates() throws IOException, InterruptedException {
+        //When
+        assertEquals(Router.Result.DISPATCHED, dispatch("GET", "/epics"));
+        assertEquals(Router.Result.DISPATCHED, dispatch("GET", "/epics/42"));
+        assertEquals(Router.Result.DISPATCHED, dispatch("GET", "/epics/7/subtasks"));
+        assertEquals(Router.Result.DISPATCHED, dispatch("POST", "/epics/batch"));
+        assertEquals(Router.Result.DISPATCHED, dispatch("DELETE", "/epics/"));
+
+        //Then
+        assertEquals(List.of("all", "epic 42", "subtasks 7", "batch", "deleteAll"), calls);
+    }
+
+    @Test
+    @DisplayName("Неизвестный путь возвращает NOT_FOUND")
+    void testDispatch_shouldReportNotFound() throws IOException, InterruptedException {
+        //When & Then
+        assertEquals(Router.Result.NOT_FOUND, dispatch("GET", "/epics/1/history"));
+        assertEquals(Router.Result.NOT_FOUND, dispatch("GET", "/epicsx"));
+        assertEquals(Router.Result.NOT_FOUND, dispatch("GET", "/"));
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Нечисловой или слишком большой параметр возвращает BAD_PARAMETER")
+    void testDispatch_shouldReportBadParameter() throws IOException, InterruptedException {
+        //When & Then
+        assertEquals(Router.Result.BAD_PARAMETER, dispatch("GET", "/epics/abc"));
+        assertEquals(Router.Result.BAD_PARAMETER, dispatch("GET", "/epics/-1"));
+        assertEquals(Router.Result.BAD_PARAMETER, dispatch("GET", "/epics/2147483648"));
+        assertEquals(Router.Result.DISPATCHED, dispatch("GET", "/epics/2147483647"));
+        assertEquals(List.of("epic 2147483647"), calls);
+    }
+
+    @Test
+    @DisplayName("Незарегистрированный метод возвращает METHOD_NOT_ALLOWED с заголовком Allow")
+    void testDispatch_shouldReportAllowedMethods() throws IOException, InterruptedException {
+        //Given
+        StubHttpExchange exchange = new StubHttpExchange("PUT", "/epics");
+
+        //When
+        Router.Result result = router.dispatch(exchange);
+
+        //Then
+        assertEquals(Router.Result.METHOD_NOT_ALLOWED, result);
+        assertEquals("GET, DELETE", exchange.getResponseHeaders().getFirst("Allow"));
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Повторная регистрация маршрута запрещена")
+    void testAdd_shouldRejectDuplicateRoute() {
+        //When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> router.add("GET", "/epics/{epicId}", (exchange, params) -> { }));
+    }
+
+    private static class StubHttpExchange extends HttpExchange {
+        private final String method;
+        private final URI requestURI;
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+
+        StubHttpExchange(String method, String path) {
+            this.method = method;
+            this.requestURI = URI.create(path);
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return requestURI;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void sendResponseHeaders(int code, long length) {
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return -1;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package taskmanager.app.server.handlers;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты объединения одновременных вычислений")
+class SingleFlightTest {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, flights.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Одновременные вызовы с одним ключом получают результат одного вычисления")
+    void testExecute_shouldShareConcurrentComputation() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight.Call<String> call = () -> {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "result";
+        };
+        Future<String> leader = executor.submit(() -> flights.execute("key", call));
+        while (calls.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        // When
+        Future<String> follower1 = executor.submit(() -> flights.execute("key", call));
+        Future<String> follower2 = executor.submit(() -> flights.execute("key", call));
+        awaitCoalesced(2);
+        release.countDown();
+
+        // Then
+        assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        assertSame(leader.get(), follower1.get(5, TimeUnit.SECONDS));
+        assertSame(leader.get(), follower2.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Завершенное вычисление не переиспользуется")
+    void testExecute_shouldRecomputeAfterCompletion() throws IOException {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        flights.execute("key", () -> "r" + calls.incrementAndGet());
+        String second = flights.execute("key", () -> "r" + calls.incrementAndGet());
+
+        // Then
+        assertEquals("r2", second);
+        assertEquals(0, flights.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("При ошибке первого вызова ожидающие вычисляют результат сами")
+    void testExecute_shouldNotShareFailure() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Соединение разорвано");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> follower = executor.submit(() -> flights.execute("key", () -> "own"));
+        awaitCoalesced(1);
+        release.countDown();
+
+        // Then
+        Exception failure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, failure.getCause());
+        assertEquals("own", follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Отказ от разделения сразу отпускает ожидающих, пока первый вызов еще идет")
+    void testExecute_shouldReleaseWaitersOnDetach() throws Exception {
+        // Given
+        CountDownLatch detached = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("key", detach -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                assertTrue(detached.await(5, TimeUnit.SECONDS));
+                detach.run();
+                // Медленная передача ответа клиенту первого вызова
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "leader";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return "own";
+        }));
+        awaitCoalesced(1);
+
+        // When
+        detached.countDown();
+
+        // Then
+        try {
+            assertEquals("own", follower.get(5, TimeUnit.SECONDS));
+            assertEquals("late", flights.execute("key", () -> "late"));
+            assertEquals(1, flights.getCoalescedCount());
+        } finally {
+            release.countDown();
+        }
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+}
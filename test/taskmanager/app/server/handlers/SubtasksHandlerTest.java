@@ -305,7 +305,8 @@ class SubtasksHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         // Then
-        assertEquals(400, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET, POST, DELETE", response.headers().firstValue("Allow").orElseThrow());
         assertTrue(response.body().contains("Метод не поддерживается"));
     }
 
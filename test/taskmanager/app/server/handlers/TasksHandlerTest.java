@@ -8,19 +8,28 @@ import taskmanager.app.entity.Task;
 import taskmanager.app.exception.NotFoundException;
 import taskmanager.app.management.TaskManager;
 import taskmanager.app.server.HttpTaskServer;
+import taskmanager.app.server.ServerConfig;
+import taskmanager.app.server.cbor.Cbor;
+import taskmanager.app.server.cbor.CborReader;
+import taskmanager.app.server.cbor.CborWriter;
 import taskmanager.app.service.manager.InMemoryTaskManager;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -346,7 +355,8 @@ class TasksHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         // Then
-        assertEquals(400, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET, POST, DELETE", response.headers().firstValue("Allow").orElseThrow());
     }
 
     @Test
@@ -639,4 +649,353 @@ class TasksHandlerTest {
             assertEquals(1, manager.getAllTasks().size());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Постраничное получение задач по курсору")
+    void testGetTasksPaged() throws IOException, InterruptedException {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            manager.createTask(new Task(0, "Task " + i, "Desc", StatusTask.NEW));
+        }
+
+        // When
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks?limit=2")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+        HttpResponse<String> last = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks?limit=3&cursor=" + cursor)))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, first.statusCode());
+        Task[] firstPage = gson.fromJson(first.body(), Task[].class);
+        assertEquals(List.of("Task 1", "Task 2"), List.of(firstPage[0].getName(), firstPage[1].getName()));
+
+        assertEquals(200, last.statusCode());
+        Task[] lastPage = gson.fromJson(last.body(), Task[].class);
+        assertEquals(3, lastPage.length);
+        assertEquals("Task 3", lastPage[0].getName());
+        assertTrue(last.headers().firstValue("X-Next-Cursor").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Некорректные параметры страницы")
+    void testGetTasksPagedWithInvalidParameters() throws IOException, InterruptedException {
+        for (String query : List.of("limit=0", "limit=abc", "limit=100000", "cursor=abc")) {
+            // When
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(getUrl("/tasks?" + query)))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            // Then
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+
+    @Test
+    @DisplayName("Повторный запрос списка без изменений возвращает 304")
+    void testGetTasksNotModified() throws IOException, InterruptedException {
+        // Given
+        manager.createTask(new Task(0, "Task 1", "Desc", StatusTask.NEW));
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        // When
+        HttpResponse<String> unchanged = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        manager.createTask(new Task(0, "Task 2", "Desc", StatusTask.NEW));
+        HttpResponse<String> changed = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, first.statusCode());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+        assertEquals(etag, unchanged.headers().firstValue("ETag").orElseThrow());
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("Метка списка зависит от параметров запроса")
+    void testGetTasksEtagDependsOnQuery() throws IOException, InterruptedException {
+        // When
+        HttpResponse<String> full = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> pretty = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks?pretty=true")))
+                .header("If-None-Match", full.headers().firstValue("ETag").orElseThrow())
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, pretty.statusCode());
+    }
+
+    @Test
+    @DisplayName("Сжатие списка задач gzip по Accept-Encoding")
+    void testGetTasksGzip() throws IOException, InterruptedException {
+        // Given
+        for (int i = 1; i <= 100; i++) {
+            manager.createTask(new Task(0, "Task " + i, "Description " + i, StatusTask.NEW));
+        }
+
+        // When
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(100, gson.fromJson(json, Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("Пакетная загрузка задач в формате NDJSON")
+    void testBatchNdjson() throws IOException, InterruptedException {
+        // Given
+        int taskId = manager.createTask(new Task(0, "Task 1", "Description", StatusTask.NEW));
+        String body = gson.toJson(new Task(taskId, "Task 1", "Updated", StatusTask.DONE)) + "\n"
+                + gson.toJson(new Task(0, "Task 2", "Description", StatusTask.NEW)) + "\n";
+
+        // When
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/batch")))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(201, response.statusCode());
+        JsonObject[] results = gson.fromJson(response.body(), JsonObject[].class);
+        assertEquals("UPDATED", results[0].get("status").getAsString());
+        assertEquals("CREATED", results[1].get("status").getAsString());
+        assertEquals(2, manager.getAllTasks().size());
+        assertEquals(StatusTask.DONE, manager.getTaskById(taskId).getStatus());
+    }
+
+    @Test
+    @DisplayName("Пакет с пересечением по времени отклоняется целиком")
+    void testBatchArrayWithOverlap() throws IOException, InterruptedException {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Task> tasks = List.of(
+                new Task(0, "Task 1", "Description", StatusTask.NEW, Duration.ofMinutes(30), start),
+                new Task(0, "Task 2", "Description", StatusTask.NEW, Duration.ofMinutes(30), start));
+
+        // When
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/batch")))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(tasks)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(406, response.statusCode());
+        JsonObject[] results = gson.fromJson(response.body(), JsonObject[].class);
+        assertEquals("ROLLED_BACK", results[0].get("status").getAsString());
+        assertEquals("FAILED", results[1].get("status").getAsString());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пакет с некорректным JSON отклоняется")
+    void testBatchMalformed() throws IOException, InterruptedException {
+        // When
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/batch")))
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"name\": \"Task\"},"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(400, response.statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    private byte[] toCbor(Object value) throws IOException {
+        java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();
+        try (CborWriter writer = new CborWriter(buffer)) {
+            gson.toJson(value, value.getClass(), writer);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Создание задачи и получение списка в формате CBOR")
+    void testCreateAndListCbor() throws IOException, InterruptedException {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 30);
+        Task task = new Task(0, "Task 1", "Description", StatusTask.NEW, Duration.ofMinutes(45), start);
+
+        // When
+        HttpResponse<byte[]> created = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("Content-Type", Cbor.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(toCbor(task)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> list = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("Accept", Cbor.MEDIA_TYPE)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(201, created.statusCode());
+        assertEquals(Cbor.MEDIA_TYPE, created.headers().firstValue("Content-Type").orElseThrow());
+        Task createdTask = gson.fromJson(new CborReader(new ByteArrayInputStream(created.body())), Task.class);
+        assertEquals(start, manager.getTaskById(createdTask.getId()).getStartTime());
+
+        assertEquals(200, list.statusCode());
+        Task[] tasks = gson.fromJson(new CborReader(new ByteArrayInputStream(list.body())), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals(start, tasks[0].getStartTime());
+        assertEquals(Duration.ofMinutes(45), tasks[0].getDuration());
+        assertTrue(list.body().length < gson.toJson(tasks).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("Пакетная загрузка задач последовательностью CBOR")
+    void testBatchCbor() throws IOException, InterruptedException {
+        // Given
+        java.io.ByteArrayOutputStream body = new java.io.ByteArrayOutputStream();
+        body.write(toCbor(new Task(0, "Task 1", "Description", StatusTask.NEW)));
+        body.write(toCbor(new Task(0, "Task 2", "Description", StatusTask.IN_PROGRESS)));
+
+        // When
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/batch")))
+                .header("Content-Type", Cbor.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(201, response.statusCode());
+        JsonObject[] results = gson.fromJson(
+                new CborReader(new ByteArrayInputStream(response.body())), JsonObject[].class);
+        assertEquals(2, results.length);
+        assertEquals("CREATED", results[1].get("status").getAsString());
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Некорректный CBOR отклоняется с ошибкой в CBOR")
+    void testMalformedCbor() throws IOException, InterruptedException {
+        // When
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks")))
+                .header("Content-Type", Cbor.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new byte[]{(byte) 0xBF, 0x64, 'n', 'a'}))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(400, response.statusCode());
+        JsonObject error = gson.fromJson(new CborReader(new ByteArrayInputStream(response.body())), JsonObject.class);
+        assertTrue(error.has("error"));
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Параметр fields ограничивает поля списка и задачи")
+    void testFieldsProjection() throws IOException, InterruptedException {
+        // Given
+        int taskId = manager.createTask(new Task(0, "Task 1", "Long description", StatusTask.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 2, 1, 10, 0)));
+        manager.createTask(new Task(0, "Task 2", "Long description", StatusTask.DONE));
+
+        // When
+        HttpResponse<String> list = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks?fields=id,name,startTime")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> single = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/" + taskId + "?fields=status")))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, list.statusCode());
+        JsonObject[] tasks = gson.fromJson(list.body(), JsonObject[].class);
+        assertEquals(2, tasks.length);
+        assertEquals(Set.of("id", "name", "startTime"), tasks[0].keySet());
+        assertEquals(Set.of("id", "name"), tasks[1].keySet());
+        assertEquals("2025-02-01T10:00:00", tasks[0].get("startTime").getAsString());
+        assertEquals("{\"status\":\"NEW\"}", single.body());
+    }
+
+    @Test
+    @DisplayName("Параметр fields в CBOR сохраняет время числом минут")
+    void testFieldsProjectionCbor() throws IOException, InterruptedException {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 10, 0);
+        int taskId = manager.createTask(new Task(0, "Task 1", "Long description", StatusTask.NEW,
+                Duration.ofMinutes(30), start));
+
+        // When
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getUrl("/tasks/" + taskId + "?fields=id,startTime")))
+                .header("Accept", Cbor.MEDIA_TYPE)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals(Cbor.MEDIA_TYPE, response.headers().firstValue("Content-Type").orElseThrow());
+        JsonObject task = gson.fromJson(new CborReader(new ByteArrayInputStream(response.body())), JsonObject.class);
+        assertEquals(Set.of("id", "startTime"), task.keySet());
+        assertTrue(task.get("startTime").getAsJsonPrimitive().isNumber());
+        assertEquals(start.toEpochSecond(ZoneOffset.UTC) / 60, task.get("startTime").getAsLong());
+    }
+
+    @Test
+    @DisplayName("Тело больше предела отклоняется с 413 и с длиной, и потоком без длины")
+    void testOversizedBodyRejected() throws IOException, InterruptedException {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setMaxRequestBodyBytes(1024);
+        int limitedPort = PORT_COUNTER.getAndIncrement();
+        HttpTaskServer limitedServer = new HttpTaskServer(manager, limitedPort, config);
+        limitedServer.start();
+        byte[] body = gson.toJson(new Task(0, "Task", "x".repeat(4096), StatusTask.NEW))
+                .getBytes(StandardCharsets.UTF_8);
+        URI uri = URI.create(BASE_URL + limitedPort + "/tasks");
+
+        try {
+            // When
+            HttpResponse<String> declared = client.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> streamed = client.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            // Then
+            assertEquals(413, declared.statusCode());
+            assertEquals(413, streamed.statusCode());
+            assertTrue(gson.fromJson(streamed.body(), JsonObject.class).has("error"));
+            assertTrue(manager.getAllTasks().isEmpty());
+        } finally {
+            limitedServer.stop(Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package taskmanager.app.server.nio;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import taskmanager.app.server.ServerConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NioHttpServerTest {
+
+    private NioHttpServer server;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) throws IOException {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+        server = NioHttpServer.create(new InetSocketAddress("localhost", 0), 0, new ServerConfig());
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                sleep(200);
+            }
+            byte[] response = (exchange.getRequestURI().getPath() + ":"
+                    + new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(response);
+            }
+        });
+        server.createContext("/stream", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream os = exchange.getResponseBody()) {
+                for (int i = 0; i < 10_000; i++) {
+                    os.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        server.createContext("/direct", exchange -> {
+            ByteBuffer body = ByteBuffer.allocateDirect(5).put("hello".getBytes(StandardCharsets.UTF_8)).flip();
+            ((NioHttpExchange) exchange).sendResponse(200, body);
+        });
+        server.createContext("/fail", exchange -> {
+            throw new IllegalStateException("Сбой обработчика");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Соединение переиспользуется для последовательных запросов")
+    void shouldKeepConnectionAlive() throws IOException {
+        // Given
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+
+            // When
+            out.write(request("POST", "/echo/first", "a").getBytes(StandardCharsets.US_ASCII));
+            RawResponse first = readResponse(in);
+            out.write(request("POST", "/echo/second", "b").getBytes(StandardCharsets.US_ASCII));
+            RawResponse second = readResponse(in);
+
+            // Then
+            assertEquals(200, first.status());
+            assertEquals("/echo/first:a", first.body());
+            assertEquals(200, second.status());
+            assertEquals("/echo/second:b", second.body());
+        }
+    }
+
+    @Test
+    @DisplayName("Ответы на конвейер запросов приходят в порядке запросов")
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        // Given
+        String pipeline = request("POST", "/echo/slow", "1") + request("POST", "/echo/fast", "2")
+                + request("GET", "/echo/last", "");
+
+        try (Socket socket = connect()) {
+            // When
+            socket.getOutputStream().write(pipeline.getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+
+            // Then
+            assertEquals("/echo/slow:1", readResponse(in).body());
+            assertEquals("/echo/fast:2", readResponse(in).body());
+            assertEquals("/echo/last:", readResponse(in).body());
+        }
+    }
+
+    @Test
+    @DisplayName("Тело запроса в формате chunked собирается целиком")
+    void shouldReadChunkedRequestBody() throws IOException {
+        // Given
+        String chunked = "POST /echo/chunked HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "5\r\nhello\r\n" + "6;ext=1\r\n world\r\n" + "0\r\n\r\n";
+
+        try (Socket socket = connect()) {
+            // When
+            socket.getOutputStream().write(chunked.getBytes(StandardCharsets.US_ASCII));
+            RawResponse response = readResponse(socket.getInputStream());
+
+            // Then
+            assertEquals(200, response.status());
+            assertEquals("/echo/chunked:hello world", response.body());
+        }
+    }
+
+    @Test
+    @DisplayName("Слишком большое тело запроса отклоняется с 413 без чтения")
+    void shouldRejectOversizedBody() throws IOException {
+        // Given
+        String head = "POST /echo/big HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + (64L * 1024 * 1024)
+                + "\r\n\r\n";
+
+        try (Socket socket = connect()) {
+            // When
+            socket.getOutputStream().write(head.getBytes(StandardCharsets.US_ASCII));
+            RawResponse response = readResponse(socket.getInputStream());
+
+            // Then
+            assertEquals(413, response.status());
+            assertEquals("close", response.headers().get("connection"));
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    @DisplayName("Ответ неизвестной длины передается фрагментами клиенту HttpClient")
+    void shouldStreamChunkedResponse() throws Exception {
+        // Given
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri() + "/stream")).build();
+
+        // When
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        String[] lines = response.body().split("\n");
+        assertEquals(10_000, lines.length);
+        assertEquals("line 9999", lines[9999]);
+    }
+
+    @Test
+    @DisplayName("Готовый буфер отправляется как тело ответа")
+    void shouldSendDirectBuffer() throws Exception {
+        // Given
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri() + "/direct")).build();
+
+        // When
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), response.body());
+        assertEquals("5", response.headers().firstValue("Content-Length").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Ошибка обработчика до ответа превращается в 500, неизвестный путь - в 404")
+    void shouldAnswerFailuresAndUnknownPaths() throws Exception {
+        // Given
+        HttpClient client = HttpClient.newHttpClient();
+
+        // When
+        HttpResponse<String> failed = client.send(
+                HttpRequest.newBuilder(URI.create(baseUri() + "/fail")).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> unknown = client.send(
+                HttpRequest.newBuilder(URI.create(baseUri() + "/unknown")).build(), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(500, failed.statusCode());
+        assertEquals(404, unknown.statusCode());
+    }
+
+    @Test
+    @DisplayName("Запрос, передаваемый по байту дольше срока чтения, обрывается")
+    void shouldCloseSlowRequestAfterReadTimeout() throws Exception {
+        // Given
+        ServerConfig config = new ServerConfig();
+        config.setRequestReadTimeoutSeconds(1);
+        NioHttpServer slowServer = NioHttpServer.create(new InetSocketAddress("localhost", 0), 0, config);
+        slowServer.start();
+        byte[] head = ("GET /echo HTTP/1.1\r\nHost: localhost\r\nX-Slow: " + "a".repeat(100))
+                .getBytes(StandardCharsets.US_ASCII);
+        long started = System.nanoTime();
+
+        try (Socket socket = new Socket("localhost", slowServer.getAddress().getPort())) {
+            socket.setSoTimeout(5000);
+            // When
+            try {
+                for (byte b : head) {
+                    socket.getOutputStream().write(b);
+                    socket.getOutputStream().flush();
+                    sleep(100);
+                }
+            } catch (IOException e) {
+                // Сервер уже закрыл соединение
+            }
+            int read;
+            try {
+                read = socket.getInputStream().read();
+            } catch (SocketException e) {
+                read = -1;
+            }
+
+            // Then
+            assertEquals(-1, read);
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5),
+                    "Соединение должно закрыться по сроку чтения, а не по простою");
+        } finally {
+            slowServer.stop(0);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getAddress().getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private String baseUri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static String request(String method, String path, String body) {
+        return method + " " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                + body.getBytes(StandardCharsets.UTF_8).length + "\r\n\r\n" + body;
+    }
+
+    /**
+     * Читает один ответ с Content-Length из потока, не заходя в следующий ответ
+     */
+    private static RawResponse readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        byte[] body = in.readNBytes(Integer.parseInt(headers.getOrDefault("content-length", "0")));
+        return new RawResponse(Integer.parseInt(statusLine.split(" ")[1]), headers,
+                new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Соединение закрыто до конца ответа");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record RawResponse(int status, Map<String, String> headers, String body) {
+    }
+}
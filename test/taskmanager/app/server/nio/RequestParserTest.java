@@ -0,0 +1,142 @@
+package taskmanager.app.server.nio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestParserTest {
+
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Запрос, пришедший по одному байту, разбирается целиком")
+    void shouldParseRequestArrivingByteByByte() throws Exception {
+        // Given
+        RequestParser parser = new RequestParser(1024, 1024);
+        byte[] raw = "POST /tasks?x=1 HTTP/1.1\r\nHost: localhost\r\nContent-Length: 4\r\n\r\nbody"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        RequestParser.ParsedRequest request = null;
+        for (int i = 0; i < raw.length; i++) {
+            assertNull(request, "Запрос не должен быть готов до последнего байта");
+            request = parser.parse(ByteBuffer.wrap(raw, i, 1));
+        }
+
+        // Then
+        assertNotNull(request);
+        assertEquals("POST", request.method());
+        assertEquals("/tasks", request.uri().getPath());
+        assertEquals("x=1", request.uri().getQuery());
+        assertEquals("localhost", request.headers().getFirst("host"));
+        assertEquals("body", new String(request.body(), StandardCharsets.US_ASCII));
+        assertTrue(request.isKeepAlive());
+    }
+
+    @Test
+    @DisplayName("Разбор останавливается на границе запроса конвейера")
+    void shouldStopAtPipelinedRequestBoundary() throws Exception {
+        // Given
+        RequestParser parser = new RequestParser(1024, 1024);
+        ByteBuffer in = ByteBuffer.wrap(("GET /a HTTP/1.1\r\n\r\n" + "GET /b HTTP/1.0\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        RequestParser.ParsedRequest first = parser.parse(in);
+        int remaining = in.remaining();
+        RequestParser.ParsedRequest second = parser.parse(in);
+
+        // Then
+        assertEquals("/a", first.uri().getPath());
+        assertEquals("GET /b HTTP/1.0\r\n\r\n".length(), remaining);
+        assertEquals("/b", second.uri().getPath());
+        assertFalse(second.isKeepAlive());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Превышение ограничений дает 431 для заголовков и 413 для тела")
+    void shouldRejectOversizedHeadAndBody() {
+        // Given
+        ByteBuffer longHead = ByteBuffer.wrap(("GET /" + "a".repeat(200) + " HTTP/1.1\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer bigChunk = ByteBuffer.wrap("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n100\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        RequestParser.BadRequestException head = assertThrows(RequestParser.BadRequestException.class,
+                () -> new RequestParser(128, 128).parse(longHead));
+        RequestParser.BadRequestException body = assertThrows(RequestParser.BadRequestException.class,
+                () -> new RequestParser(128, 128).parse(bigChunk));
+
+        // Then
+        assertEquals(431, head.getStatusCode());
+        assertEquals(413, body.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Тело с большим Content-Length собирается по мере поступления данных")
+    void shouldAssembleLargeBodyArrivingInParts() throws Exception {
+        // Given
+        RequestParser parser = new RequestParser(1024, 1024 * 1024);
+        byte[] payload = new byte[100_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        byte[] head = ("POST / HTTP/1.1\r\nContent-Length: " + payload.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        assertNull(parser.parse(ByteBuffer.wrap(head)));
+        RequestParser.ParsedRequest request = null;
+        for (int offset = 0; offset < payload.length; offset += 3000) {
+            assertNull(request, "Запрос не должен быть готов до конца тела");
+            request = parser.parse(ByteBuffer.wrap(payload, offset, Math.min(3000, payload.length - offset)));
+        }
+
+        // Then
+        assertNotNull(request);
+        assertArrayEquals(payload, request.body());
+    }
+
+    @Test
+    @DisplayName("Неподдерживаемое кодирование тела дает 501 без значения клиента в сообщении")
+    void shouldRejectUnsupportedTransferEncodingWithoutEchoingIt() {
+        // Given
+        String encoding = "gzip\", \"injected\": \"1";
+        ByteBuffer in = ByteBuffer.wrap(("POST / HTTP/1.1\r\nTransfer-Encoding: " + encoding + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        RequestParser.BadRequestException error = assertThrows(RequestParser.BadRequestException.class,
+                () -> new RequestParser(1024, 1024).parse(in));
+
+        // Then
+        assertEquals(501, error.getStatusCode());
+        assertFalse(error.getMessage().contains("injected"), error.getMessage());
+    }
+}
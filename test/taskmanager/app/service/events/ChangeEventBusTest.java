@@ -0,0 +1,139 @@
+package taskmanager.app.service.events;
+
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.TaskType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты шины событий изменения")
+class ChangeEventBusTest {
+    private ChangeEventBus bus;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        bus = new ChangeEventBus(3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private static ChangeEvent created(long version) {
+        return new ChangeEvent(version, ChangeEvent.Action.CREATED, TaskType.TASK, (int) version);
+    }
+
+    @Test
+    @DisplayName("События с версии возвращаются в порядке публикации")
+    void testEventsSince_shouldReturnNewerEvents() {
+        //Given
+        bus.publish(created(1));
+        bus.publish(created(2));
+        bus.publish(created(3));
+
+        //When
+        List<ChangeEvent> events = bus.eventsSince(1);
+
+        //Then
+        assertEquals(List.of(created(2), created(3)), events);
+        assertEquals(3, bus.getLastVersion());
+    }
+
+    @Test
+    @DisplayName("Вытесненные из буфера события недоступны")
+    void testEventsSince_shouldReportGap() {
+        //Given
+        for (int version = 1; version <= 5; version++) {
+            bus.publish(created(version));
+        }
+
+        //When & Then
+        assertNull(bus.eventsSince(1));
+        assertEquals(List.of(created(3), created(4), created(5)), bus.eventsSince(2));
+    }
+
+    @Test
+    @DisplayName("Long-poll дожидается следующего события")
+    void testAwaitEventsSince_shouldWakeOnPublish() throws Exception {
+        //Given
+        CompletableFuture<List<ChangeEvent>> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bus.awaitEventsSince(0, 10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //When
+        Thread.sleep(50);
+        bus.publish(created(1));
+
+        //Then
+        assertEquals(List.of(created(1)), waiting.get(5, TimeUnit.SECONDS));
+        assertTrue(bus.awaitEventsSince(1, 10, TimeUnit.MILLISECONDS).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Подписчик получает новые события")
+    void testSubscription_shouldReceiveEvents() throws InterruptedException {
+        //Given
+        try (ChangeEventBus.Subscription subscription = bus.subscribe()) {
+
+            //When
+            bus.publish(created(1));
+
+            //Then
+            assertEquals(created(1), subscription.poll(1, TimeUnit.SECONDS));
+            assertNull(subscription.poll(10, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Медленный подписчик отключается при переполнении очереди")
+    void testSubscription_shouldDisconnectSlowConsumer() throws InterruptedException {
+        //Given
+        ChangeEventBus.Subscription subscription = bus.subscribe();
+
+        //When
+        bus.publish(created(1));
+        bus.publish(created(2));
+        bus.publish(created(3));
+
+        //Then
+        assertTrue(subscription.isOverflowed());
+        assertTrue(subscription.isClosed());
+        assertNull(subscription.poll(1, TimeUnit.SECONDS));
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Закрытие подписки будит ожидающий поток")
+    void testClose_shouldWakeWaitingConsumer() throws Exception {
+        //Given
+        ChangeEventBus.Subscription subscription = bus.subscribe();
+        CompletableFuture<ChangeEvent> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return subscription.poll(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //When
+        Thread.sleep(50);
+        subscription.close();
+
+        //Then
+        assertNull(waiting.get(5, TimeUnit.SECONDS));
+        assertFalse(subscription.isOverflowed());
+    }
+}
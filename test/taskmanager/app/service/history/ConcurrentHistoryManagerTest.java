@@ -0,0 +1,106 @@
+package taskmanager.app.service.history;
+
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты потокобезопасного менеджера истории")
+class ConcurrentHistoryManagerTest {
+    private ConcurrentHistoryManager historyManager;
+    private TestInfo testInfo;
+
+    private Task task1;
+    private Task task2;
+    private Task task3;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        historyManager = new ConcurrentHistoryManager();
+
+        task1 = new Task(1, "Task 1", "Task 1 description", StatusTask.NEW);
+        task2 = new Task(2, "Task 2", "Task 2 description", StatusTask.IN_PROGRESS);
+        task3 = new Task(3, "Task 3", "Task 3 description", StatusTask.DONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Чтение истории видит все ранее записанные события")
+    void testGetHistory_shouldApplyPendingEvents() {
+        //Given
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+
+        //When
+        historyManager.remove(task2.getId());
+
+        //Then
+        assertEquals(List.of(task3, task1), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Очистка удаляет и накопленные события")
+    void testClear_shouldDropPendingEvents() {
+        //Given
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        //When
+        historyManager.clear();
+
+        //Then
+        assertTrue(historyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Параллельные просмотры из многих потоков не теряются и не дублируются")
+    void testAdd_shouldAcceptViewsFromManyThreads() throws InterruptedException {
+        //Given
+        int threads = 8;
+        int viewsPerThread = 5_000;
+        int distinctIds = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //When
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < viewsPerThread; i++) {
+                    int id = (i * threads + offset) % distinctIds + 1;
+                    historyManager.add(new Task(id, "Task " + id, "Description", StatusTask.NEW));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        //Then
+        List<Task> history = historyManager.getHistory();
+        Set<Integer> ids = new HashSet<>();
+        history.forEach(task -> ids.add(task.getId()));
+        assertEquals(distinctIds, history.size());
+        assertEquals(distinctIds, ids.size());
+    }
+}
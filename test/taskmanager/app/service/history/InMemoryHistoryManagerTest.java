@@ -8,6 +8,11 @@ import taskmanager.app.management.Managers;
 import taskmanager.app.management.TaskManager;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -190,4 +195,85 @@ class InMemoryHistoryManagerTest {
         assertNotNull(retrievedTask, "Задача должна существовать");
         assertEquals(retrievedTask, historyManager.getHistory().getFirst());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("При переполнении вытесняется самый старый просмотр")
+    void testAdd_shouldEvictOldestWhenFull() {
+        //Given
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(2);
+        bounded.add(task1);
+        bounded.add(task2);
+
+        //When
+        bounded.add(task3);
+
+        //Then
+        assertEquals(List.of(task2, task3), bounded.getHistory());
+        assertEquals(2, bounded.size());
+    }
+
+    @Test
+    @DisplayName("Повторный просмотр защищает задачу от вытеснения")
+    void testAdd_shouldKeepRecentlyViewedTaskWhenFull() {
+        //Given
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(2);
+        bounded.add(task1);
+        bounded.add(task2);
+        bounded.add(task1);
+
+        //When
+        bounded.add(task3);
+
+        //Then
+        assertEquals(List.of(task1, task3), bounded.getHistory());
+    }
+
+    @Test
+    @DisplayName("Просмотры с истекшим временем жизни удаляются")
+    void testGetHistory_shouldDropExpiredViews() {
+        //Given
+        MutableClock clock = new MutableClock();
+        InMemoryHistoryManager expiring = new InMemoryHistoryManager(10, Duration.ofMinutes(5), clock);
+        expiring.add(task1);
+        clock.advance(Duration.ofMinutes(3));
+        expiring.add(task2);
+
+        //When
+        clock.advance(Duration.ofMinutes(3));
+
+        //Then
+        assertEquals(List.of(task2), expiring.getHistory());
+        assertEquals(1, expiring.size());
+    }
+
+    @Test
+    @DisplayName("Некорректные параметры ограничения истории отклоняются")
+    void testConstructor_shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new InMemoryHistoryManager(10, Duration.ZERO));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
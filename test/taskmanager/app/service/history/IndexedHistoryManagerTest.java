@@ -0,0 +1,145 @@
+package taskmanager.app.service.history;
+
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты менеджера истории на массивах")
+class IndexedHistoryManagerTest {
+    private IndexedHistoryManager historyManager;
+    private TestInfo testInfo;
+
+    private Task task1;
+    private Task task2;
+    private Task task3;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        historyManager = new IndexedHistoryManager(3);
+
+        task1 = new Task(1, "Task 1", "Task 1 description", StatusTask.NEW);
+        task2 = new Task(2, "Task 2", "Task 2 description", StatusTask.IN_PROGRESS);
+        task3 = new Task(3, "Task 3", "Task 3 description", StatusTask.DONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Добавление нескольких задач сохраняет порядок просмотра")
+    void testAddMultipleTasks() {
+        //When
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        //Then
+        assertEquals(List.of(task1, task2, task3), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Дубликат должен перемещаться в конец истории")
+    void testAdd_shouldMoveDuplicateTaskToEnd() {
+        //Given
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        //When
+        historyManager.add(task1);
+
+        //Then
+        assertEquals(List.of(task2, task1), historyManager.getHistory());
+        assertEquals(2, historyManager.size());
+    }
+
+    @Test
+    @DisplayName("Null задача не должна добавляться в историю")
+    void testAdd_shouldNotAddNullTask() {
+        //When
+        historyManager.add(null);
+
+        //Then
+        assertTrue(historyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("При переполнении вытесняется самый старый просмотр")
+    void testAdd_shouldEvictOldestWhenFull() {
+        //Given
+        Task task4 = new Task(4, "Task 4", "Task 4 description", StatusTask.NEW);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        //When
+        historyManager.add(task4);
+
+        //Then
+        assertEquals(List.of(task2, task3, task4), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Удаление задачи из середины истории")
+    void testRemove_shouldRemoveTaskFromHistory() {
+        //Given
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        //When
+        historyManager.remove(task2.getId());
+        historyManager.remove(999);
+
+        //Then
+        assertEquals(List.of(task1, task3), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Очистка истории освобождает все слоты")
+    void testClear_shouldClearHistory() {
+        //Given
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        //When
+        historyManager.clear();
+        historyManager.add(task3);
+
+        //Then
+        assertEquals(List.of(task3), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Поведение совпадает с InMemoryHistoryManager на случайной последовательности")
+    void testRandomOperations_shouldMatchLinkedImplementation() {
+        //Given
+        int capacity = 16;
+        IndexedHistoryManager indexed = new IndexedHistoryManager(capacity);
+        InMemoryHistoryManager linked = new InMemoryHistoryManager(capacity);
+        Random random = new Random(42);
+
+        //When & Then
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(64) + 1;
+            if (random.nextInt(4) == 0) {
+                indexed.remove(id);
+                linked.remove(id);
+            } else {
+                Task task = new Task(id, "Task " + id, "Description", StatusTask.NEW);
+                indexed.add(task);
+                linked.add(task);
+            }
+            assertEquals(linked.getHistory(), indexed.getHistory(), "Шаг " + i);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package taskmanager.app.service.history;
+
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты менеджера истории по сессиям")
+class SessionHistoryManagerTest {
+    private SessionHistoryManager historyManager;
+    private MutableClock clock;
+    private TestInfo testInfo;
+
+    private Task task1;
+    private Task task2;
+    private Task task3;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        clock = new MutableClock();
+        historyManager = new SessionHistoryManager(2, 2, Duration.ofMinutes(10), clock);
+
+        task1 = new Task(1, "Task 1", "Task 1 description", StatusTask.NEW);
+        task2 = new Task(2, "Task 2", "Task 2 description", StatusTask.IN_PROGRESS);
+        task3 = new Task(3, "Task 3", "Task 3 description", StatusTask.DONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SessionHistoryManager.unbindSession();
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    private void viewAs(String sessionId, Task task) {
+        SessionHistoryManager.bindSession(sessionId);
+        historyManager.add(task);
+    }
+
+    private List<Task> historyOf(String sessionId) {
+        SessionHistoryManager.bindSession(sessionId);
+        return historyManager.getHistory();
+    }
+
+    @Test
+    @DisplayName("Каждая сессия видит только свою историю")
+    void testGetHistory_shouldBePartitionedBySession() {
+        //When
+        viewAs("alice", task1);
+        viewAs("bob", task2);
+        viewAs("alice", task3);
+
+        //Then
+        assertEquals(List.of(task1, task3), historyOf("alice"));
+        assertEquals(List.of(task2), historyOf("bob"));
+        assertTrue(historyOf("carol").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Без привязки используется общая сессия")
+    void testAdd_shouldUseSharedSessionWhenUnbound() {
+        //When
+        historyManager.add(task1);
+
+        //Then
+        assertEquals(List.of(task1), historyManager.getHistory());
+        assertTrue(historyOf("alice").isEmpty());
+    }
+
+    @Test
+    @DisplayName("История сессии ограничена по размеру")
+    void testAdd_shouldBoundSessionHistory() {
+        //When
+        viewAs("alice", task1);
+        viewAs("alice", task2);
+        viewAs("alice", task3);
+
+        //Then
+        assertEquals(List.of(task2, task3), historyOf("alice"));
+        assertEquals(2, historyManager.getTotalEntries());
+    }
+
+    @Test
+    @DisplayName("Удаление задачи убирает ее из истории всех сессий")
+    void testRemove_shouldRemoveFromAllSessions() {
+        //Given
+        viewAs("alice", task1);
+        viewAs("bob", task1);
+        viewAs("bob", task2);
+
+        //When
+        historyManager.remove(task1.getId());
+
+        //Then
+        assertTrue(historyOf("alice").isEmpty());
+        assertEquals(List.of(task2), historyOf("bob"));
+        assertEquals(1, historyManager.getTotalEntries());
+    }
+
+    @Test
+    @DisplayName("Простаивающие сессии вытесняются")
+    void testAdd_shouldEvictIdleSessions() {
+        //Given
+        viewAs("alice", task1);
+        clock.advance(Duration.ofMinutes(11));
+
+        //When
+        viewAs("bob", task2);
+
+        //Then
+        assertEquals(1, historyManager.getSessionCount());
+        assertTrue(historyOf("alice").isEmpty());
+        assertEquals(1, historyManager.getTotalEntries());
+    }
+
+    @Test
+    @DisplayName("При превышении лимита вытесняется самая давняя сессия")
+    void testAdd_shouldEvictLeastRecentlyUsedSessionWhenFull() {
+        //Given
+        viewAs("alice", task1);
+        clock.advance(Duration.ofMinutes(1));
+        viewAs("bob", task2);
+
+        //When
+        viewAs("carol", task3);
+
+        //Then
+        assertEquals(2, historyManager.getSessionCount());
+        assertTrue(historyOf("alice").isEmpty());
+        assertEquals(List.of(task3), historyOf("carol"));
+    }
+
+    @Test
+    @DisplayName("Чтение истории продлевает сессию: вытесняется та, к которой не обращались")
+    void testGetHistory_shouldRefreshSessionForEviction() {
+        //Given
+        viewAs("alice", task1);
+        viewAs("bob", task2);
+        historyOf("alice");
+
+        //When
+        viewAs("carol", task3);
+
+        //Then
+        assertEquals(2, historyManager.getSessionCount());
+        assertEquals(List.of(task1), historyOf("alice"));
+        assertTrue(historyOf("bob").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Учет памяти отражает количество сессий и записей")
+    void testGetEstimatedMemoryBytes_shouldTrackSessionsAndEntries() {
+        //When
+        viewAs("alice", task1);
+        viewAs("alice", task2);
+        viewAs("bob", task1);
+
+        //Then
+        assertEquals(3, historyManager.getTotalEntries());
+        assertEquals(2 * SessionHistoryManager.SESSION_OVERHEAD_BYTES
+                        + 3 * SessionHistoryManager.ENTRY_OVERHEAD_BYTES,
+                historyManager.getEstimatedMemoryBytes());
+
+        historyManager.clear();
+        assertEquals(0, historyManager.getEstimatedMemoryBytes());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
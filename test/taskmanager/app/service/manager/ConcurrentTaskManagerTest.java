@@ -0,0 +1,181 @@
+package taskmanager.app.service.manager;
+
+import org.junit.jupiter.api.*;
+import taskmanager.app.entity.Epic;
+import taskmanager.app.entity.StatusTask;
+import taskmanager.app.entity.SubTask;
+import taskmanager.app.entity.Task;
+import taskmanager.app.management.TaskManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты потокобезопасной обертки менеджера задач")
+class ConcurrentTaskManagerTest {
+    private InMemoryTaskManager delegate;
+    private ConcurrentTaskManager manager;
+    private TestInfo testInfo;
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        this.testInfo = testInfo;
+        System.out.printf("🚀 Подготовка теста: %s%n", testInfo.getDisplayName());
+
+        delegate = new InMemoryTaskManager();
+        manager = new ConcurrentTaskManager(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.out.printf("✅ Тест завершен: %s%n%n", testInfo.getDisplayName());
+    }
+
+    @Test
+    @DisplayName("Повторная обертка возвращает тот же менеджер")
+    void testWrap_shouldNotWrapTwice() {
+        //When
+        TaskManager wrapped = ConcurrentTaskManager.wrap(manager);
+
+        //Then
+        assertSame(manager, wrapped);
+        assertNotSame(delegate, ConcurrentTaskManager.wrap(delegate));
+    }
+
+    @Test
+    @DisplayName("Операции передаются обернутому менеджеру")
+    void testOperations_shouldDelegate() throws Exception {
+        //Given
+        Task task = new Task(0, "Task", "Description", StatusTask.NEW);
+
+        //When
+        int id = manager.createTask(task);
+        Task loaded = manager.getTaskById(id);
+
+        //Then
+        assertEquals(task, loaded);
+        assertEquals(List.of(task), delegate.getAllTasks());
+        assertEquals(List.of(task), List.copyOf(manager.getHistory()));
+    }
+
+    @Test
+    @DisplayName("Параллельные создание и чтение не теряют задачи и не пересекаются по времени")
+    void testConcurrentAccess_shouldKeepManagerConsistent() throws InterruptedException {
+        //Given
+        int threads = 8;
+        int tasksPerThread = 200;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        Set<Throwable> failures = ConcurrentHashMap.newKeySet();
+
+        //When
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    ready.await();
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        int slot = manager.generateId();
+                        Task task = new Task(0, "Task " + slot, "Description", StatusTask.NEW,
+                                Duration.ofMinutes(5), start.plusMinutes(10L * slot));
+                        int id = manager.createTask(task);
+                        manager.getTaskById(id);
+                        manager.getPrioritizedTasks();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        ready.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        //Then
+        assertTrue(failures.isEmpty(), () -> "Ошибки в потоках: " + failures);
+        List<Task> tasks = manager.getAllTasks();
+        assertEquals(threads * tasksPerThread, tasks.size());
+        assertEquals(threads * tasksPerThread, manager.getPrioritizedTasks().size());
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        assertEquals(threads * tasksPerThread, ids.size());
+    }
+
+    @Test
+    @DisplayName("Список эпиков - снимок, не меняющийся при добавлении подзадач")
+    void testGetAllEpics_shouldReturnSnapshot() throws Exception {
+        //Given
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        List<Epic> epics = manager.getAllEpics();
+        List<Epic> page = manager.getEpicsPage(0, 10);
+
+        //When
+        manager.createSubTask(new SubTask("SubTask", "Description", epicId));
+
+        //Then
+        assertTrue(epics.get(0).getSubTaskIds().isEmpty());
+        assertTrue(page.get(0).getSubTaskIds().isEmpty());
+        assertEquals(1, manager.getAllEpics().get(0).getSubTaskIds().size());
+    }
+
+    @Test
+    @DisplayName("Чтение эпиков вне блокировки не ломается при параллельном создании подзадач")
+    void testConcurrentSubTaskCreation_shouldNotBreakEpicReaders() throws Exception {
+        //Given
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        int subTasks = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Set<Throwable> failures = ConcurrentHashMap.newKeySet();
+
+        //When
+        executor.submit(() -> {
+            try {
+                ready.await();
+                for (int i = 0; i < subTasks; i++) {
+                    manager.createSubTask(new SubTask("SubTask " + i, "Description", epicId));
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            } finally {
+                writing.set(false);
+            }
+        });
+        for (int r = 0; r < 2; r++) {
+            executor.submit(() -> {
+                try {
+                    ready.await();
+                    while (writing.get()) {
+                        for (Epic epic : manager.getAllEpics()) {
+                            long sum = 0;
+                            for (int id : epic.getSubTaskIds()) {
+                                sum += id;
+                            }
+                            assertTrue(sum >= 0);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        ready.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        //Then
+        assertTrue(failures.isEmpty(), () -> "Ошибки в потоках: " + failures);
+        assertEquals(subTasks, manager.getEpicById(epicId).getSubTaskIds().size());
+    }
+}
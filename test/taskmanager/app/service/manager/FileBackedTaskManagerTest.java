@@ -5,6 +5,9 @@ import org.junit.jupiter.api.io.TempDir;
 import taskmanager.app.entity.*;
 import taskmanager.app.exception.ManagerSaveException;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.service.events.ChangeEvent;
+import taskmanager.app.service.history.SessionHistoryManager;
+import taskmanager.app.util.BatchItemResult;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -13,6 +16,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,6 +105,154 @@ class FileBackedTaskManagerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Сохранение истории просмотров")
+    class HistoryPersistenceTest {
+
+        @Test
+        @DisplayName("История просмотров восстанавливается после перезапуска")
+        void testShouldRestoreHistoryAfterRestart() throws IOException {
+            //Given
+            int taskId1 = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            int taskId2 = manager.createTask(new Task(manager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+            int epicId = manager.createEpic(new Epic(manager.generateId(), "Epic 1", "Epic desc"));
+            manager.getTaskById(taskId1);
+            manager.getEpicById(epicId);
+            manager.getTaskById(taskId2);
+            manager.getTaskById(taskId1);
+
+            //When
+            manager.flush();
+            FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(testFile);
+
+            //Then
+            assertEquals(List.of(epicId, taskId2, taskId1),
+                    loadedManager.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Просмотры удаленных задач не восстанавливаются")
+        void testShouldSkipDeletedTasksOnRestore() throws IOException {
+            //Given
+            int taskId1 = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            int taskId2 = manager.createTask(new Task(manager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+            manager.getTaskById(taskId1);
+            manager.getTaskById(taskId2);
+            manager.deleteTaskById(taskId1);
+
+            //When
+            manager.flush();
+            FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(testFile);
+
+            //Then
+            assertEquals(List.of(taskId2), loadedManager.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Новый просмотр после загрузки попадает в конец восстановленной истории")
+        void testShouldAppendNewViewAfterLazyRestore() throws IOException {
+            //Given
+            int taskId1 = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            int taskId2 = manager.createTask(new Task(manager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+            manager.getTaskById(taskId1);
+            manager.getTaskById(taskId2);
+
+            //When
+            manager.flush();
+            FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(testFile);
+            loadedManager.getTaskById(taskId1);
+
+            //Then
+            assertEquals(List.of(taskId2, taskId1),
+                    loadedManager.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Сброс на диск сохраняет задачи и историю просмотров")
+        void testShouldFlushTasksAndHistory() throws IOException {
+            //Given
+            int taskId = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            manager.getTaskById(taskId);
+
+            //When
+            manager.flush();
+            FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(testFile);
+
+            //Then
+            assertEquals(1, loadedManager.getAllTasks().size());
+            assertEquals(List.of(taskId), loadedManager.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Журнал истории сжимается до текущего списка")
+        void testShouldCompactHistoryLog() throws IOException {
+            //Given
+            int taskId1 = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            int taskId2 = manager.createTask(new Task(manager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+
+            //When
+            for (int i = 0; i < HistoryLog.COMPACTION_MIN_RECORDS * 3; i++) {
+                manager.getTaskById(i % 2 == 0 ? taskId1 : taskId2);
+            }
+
+            //Then
+            Path historyLog = tempDir.resolve("test_tasks.csv.history");
+            assertTrue(Files.readAllLines(historyLog).size() <= HistoryLog.COMPACTION_MIN_RECORDS + 2);
+            manager.flush();
+            FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(testFile);
+            assertEquals(List.of(taskId1, taskId2),
+                    loadedManager.getHistory().stream().map(Task::getId).toList());
+        }
+
+        @Test
+        @DisplayName("История сохраняется отдельно для каждой сессии")
+        void testShouldRestoreHistoryPerSession() throws IOException {
+            //Given
+            FileBackedTasksManager sessionManager = new FileBackedTasksManager(testFile, new SessionHistoryManager());
+            int taskId1 = sessionManager.createTask(new Task(sessionManager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            int taskId2 = sessionManager.createTask(new Task(sessionManager.generateId(), "Task 2", "Desc 2", StatusTask.NEW));
+            try {
+                SessionHistoryManager.bindSession("alice");
+                sessionManager.getTaskById(taskId1);
+                SessionHistoryManager.bindSession("bob");
+                sessionManager.getTaskById(taskId2);
+
+                //When
+                sessionManager.flush();
+                FileBackedTasksManager loadedManager =
+                        FileBackedTasksManager.loadFromFile(testFile, new SessionHistoryManager());
+
+                //Then
+                SessionHistoryManager.bindSession("alice");
+                assertEquals(List.of(taskId1), loadedManager.getHistory().stream().map(Task::getId).toList());
+                SessionHistoryManager.bindSession("bob");
+                assertEquals(List.of(taskId2), loadedManager.getHistory().stream().map(Task::getId).toList());
+            } finally {
+                SessionHistoryManager.unbindSession();
+            }
+        }
+
+        @Test
+        @DisplayName("Просмотры дописываются в журнал пачкой, а не при каждом чтении")
+        void testShouldBatchHistoryAppends() throws IOException {
+            //Given
+            int taskId = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            Path historyLog = tempDir.resolve("test_tasks.csv.history");
+            manager.getTaskById(taskId);
+            manager.flush();
+            long linesAfterFirstView = Files.readAllLines(historyLog).size();
+
+            //When
+            manager.getTaskById(taskId);
+            long linesBeforeFlush = Files.readAllLines(historyLog).size();
+            manager.flush();
+
+            //Then
+            assertEquals(linesAfterFirstView, linesBeforeFlush);
+            assertEquals(linesAfterFirstView + 1, Files.readAllLines(historyLog).size());
+        }
+    }
+
     @Nested
     @DisplayName("CSV форматирование")
     class CsvFormattingTest {
@@ -144,6 +296,67 @@ class FileBackedTaskManagerTest {
     @DisplayName("Управление идентификаторами")
     class IdManagementTest {
 
+        @Test
+        @DisplayName("События изменения публикуются после автосохранения")
+        void testShouldPublishChangesAfterSave() throws IOException {
+            //Given
+            int taskId = manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+
+            //When
+            manager.deleteTaskById(taskId);
+
+            //Then
+            List<ChangeEvent> events = manager.getChangeEventBus().eventsSince(0);
+            assertEquals(List.of(ChangeEvent.Action.CREATED, ChangeEvent.Action.DELETED),
+                    events.stream().map(ChangeEvent::action).toList());
+            assertEquals(manager.getModificationVersion(), events.get(1).version());
+        }
+
+        @Test
+        @DisplayName("Пакет сохраняется в файл один раз")
+        void testShouldSaveBatchOnce() throws IOException {
+            //Given
+            AtomicInteger saves = new AtomicInteger();
+            FileBackedTasksManager countingManager = new FileBackedTasksManager(testFile) {
+                @Override
+                protected void save() {
+                    saves.incrementAndGet();
+                    super.save();
+                }
+            };
+            int epicId = countingManager.createEpic(new Epic("Epic", "Desc"));
+            saves.set(0);
+
+            //When
+            List<BatchItemResult> results = countingManager.applyBatch(List.of(
+                    new SubTask("Sub 1", "Desc", epicId),
+                    new SubTask("Sub 2", "Desc", epicId),
+                    new SubTask("Sub 3", "Desc", epicId)));
+
+            //Then
+            assertTrue(results.stream().allMatch(BatchItemResult::isApplied));
+            assertEquals(1, saves.get());
+            assertEquals(3, FileBackedTasksManager.loadFromFile(testFile).getAllSubTasks().size());
+        }
+
+        @Test
+        @DisplayName("Отмененный пакет не сохраняется")
+        void testShouldNotSaveFailedBatch() throws IOException {
+            //Given
+            manager.createTask(new Task(manager.generateId(), "Task 1", "Desc 1", StatusTask.NEW));
+            String saved = Files.readString(testFile);
+
+            //When
+            List<BatchItemResult> results = manager.applyBatch(List.of(
+                    new Task(0, "Task 2", "Desc 2", StatusTask.NEW),
+                    new SubTask("Sub", "Desc", 999)));
+
+            //Then
+            assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus());
+            assertEquals(saved, Files.readString(testFile));
+            assertEquals(1, manager.getAllTasks().size());
+        }
+
         @Test
         @DisplayName("Тест генерации ID")
         void testShouldGenerateId() throws IOException {
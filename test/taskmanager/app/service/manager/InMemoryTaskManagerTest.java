@@ -5,14 +5,18 @@ import taskmanager.app.entity.Epic;
 import taskmanager.app.entity.StatusTask;
 import taskmanager.app.entity.SubTask;
 import taskmanager.app.entity.Task;
+import taskmanager.app.entity.TaskType;
 import taskmanager.app.exception.NotFoundException;
 import taskmanager.app.management.Managers;
 import taskmanager.app.management.TaskManager;
+import taskmanager.app.service.events.ChangeEvent;
 import taskmanager.app.service.history.InMemoryHistoryManager;
+import taskmanager.app.util.BatchItemResult;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -633,6 +637,46 @@ class InMemoryTaskManagerTest {
             assertEquals(retrievedTask1, history.iterator().next());
         }
 
+        @Test
+        @DisplayName("Получение истории: порядок просмотра не должен меняться при чтении")
+        void testGetHistory_shouldNotReorderHistory() throws IOException {
+            // Given
+            Task task1 = new Task(taskManager.generateId(), "Task 1",
+                    "Task 1 description", StatusTask.NEW);
+            Task task2 = new Task(taskManager.generateId(), "Task 2",
+                    "Task 2 description", StatusTask.NEW);
+            int taskId1 = taskManager.createTask(task1);
+            int taskId2 = taskManager.createTask(task2);
+            taskManager.getTaskById(taskId1);
+            taskManager.getTaskById(taskId2);
+
+            // When
+            List<Task> first = new ArrayList<>(taskManager.getHistory());
+            List<Task> second = new ArrayList<>(taskManager.getHistory());
+
+            // Then
+            assertEquals(List.of(taskId1, taskId2), first.stream().map(Task::getId).toList());
+            assertEquals(first, second);
+        }
+
+        @Test
+        @DisplayName("Получение истории: должна возвращаться актуальная версия задачи")
+        void testGetHistory_shouldReturnCurrentVersionOfTask() throws IOException {
+            // Given
+            Task task = new Task(taskManager.generateId(), "Task 1",
+                    "Task 1 description", StatusTask.NEW);
+            int taskId = taskManager.createTask(task);
+            taskManager.getTaskById(taskId);
+
+            // When
+            taskManager.updateTask(new Task(taskId, "Task 1", "Updated description", StatusTask.DONE));
+
+            // Then
+            Task fromHistory = taskManager.getHistory().iterator().next();
+            assertEquals(StatusTask.DONE, fromHistory.getStatus());
+            assertEquals("Updated description", fromHistory.getDescription());
+        }
+
         @Test
         @DisplayName("Удаление задачи: задача должна удаляться из истории")
         void testShouldRemoveTaskFromHistoryWhenTaskDeleted() throws IOException {
@@ -1333,4 +1377,308 @@ class InMemoryTaskManagerTest {
             assertThrows(RuntimeException.class, () -> taskManager.createTask(task2));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Тесты пакетного применения")
+    class BatchTest {
+
+        @Test
+        @DisplayName("Пакет создает и обновляет задачи и подзадачи")
+        void testApplyBatch_shouldCreateAndUpdate() throws IOException {
+            // Given
+            int taskId = taskManager.createTask(new Task(0, "Task", "Description", StatusTask.NEW));
+            int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+            long version = taskManager.getModificationVersion();
+
+            // When
+            List<BatchItemResult> results = taskManager.applyBatch(List.of(
+                    new Task(taskId, "Task", "Updated", StatusTask.DONE),
+                    new Task(0, "Task 2", "Description", StatusTask.NEW),
+                    new SubTask("SubTask", "Description", epicId)));
+
+            // Then
+            assertEquals(List.of(BatchItemResult.Status.UPDATED, BatchItemResult.Status.CREATED,
+                            BatchItemResult.Status.CREATED),
+                    results.stream().map(BatchItemResult::getStatus).toList());
+            assertEquals(StatusTask.DONE, taskManager.getTaskById(taskId).getStatus());
+            assertEquals(2, taskManager.getAllTasks().size());
+            assertEquals(epicId, taskManager.getAllSubTasks().getFirst().getEpicId());
+            assertEquals(4, taskManager.getChangeEventBus().eventsSince(version).size());
+        }
+
+        @Test
+        @DisplayName("Ошибка элемента отменяет весь пакет")
+        void testApplyBatch_shouldRollbackOnFailure() throws IOException {
+            // Given
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+            int taskId = taskManager.createTask(new Task(0, "Task", "Description", StatusTask.NEW,
+                    Duration.ofMinutes(30), start));
+            long version = taskManager.getModificationVersion();
+
+            // When
+            List<BatchItemResult> results = taskManager.applyBatch(List.of(
+                    new Task(taskId, "Task", "Updated", StatusTask.DONE, Duration.ofMinutes(30), start.plusHours(1)),
+                    new Task(0, "Task 2", "Description", StatusTask.NEW, Duration.ofMinutes(30), start.plusHours(2)),
+                    new Task(0, "Task 3", "Description", StatusTask.NEW, Duration.ofMinutes(30), start.plusHours(2)),
+                    new Task(0, "Task 4", "Description", StatusTask.NEW)));
+
+            // Then
+            assertEquals(List.of(BatchItemResult.Status.ROLLED_BACK, BatchItemResult.Status.ROLLED_BACK,
+                            BatchItemResult.Status.FAILED, BatchItemResult.Status.SKIPPED),
+                    results.stream().map(BatchItemResult::getStatus).toList());
+            assertTrue(results.get(2).getError().contains("пересекается"));
+            assertEquals(1, taskManager.getAllTasks().size());
+            Task task = taskManager.getTaskById(taskId);
+            assertEquals(StatusTask.NEW, task.getStatus());
+            assertEquals(start, task.getStartTime());
+            assertEquals(List.of(taskId), taskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+            assertTrue(taskManager.getChangeEventBus().eventsSince(version).isEmpty());
+            assertEquals(version, taskManager.getModificationVersion());
+        }
+
+        @Test
+        @DisplayName("Неудачная отмена элемента отражается в результатах пакета")
+        void testApplyBatch_shouldReportFailedUndo() throws IOException {
+            // Given
+            InMemoryTaskManager failingUndo = new InMemoryTaskManager() {
+                @Override
+                public void deleteTaskById(int id) {
+                    throw new IllegalStateException("Хранилище недоступно");
+                }
+            };
+            long version = failingUndo.getModificationVersion();
+
+            // When
+            List<BatchItemResult> results = failingUndo.applyBatch(List.of(
+                    new Task(0, "Task 1", "Description", StatusTask.NEW),
+                    new Task(0, "Task 1", "Description", StatusTask.NEW)));
+
+            // Then
+            assertEquals(List.of(BatchItemResult.Status.ROLLBACK_FAILED, BatchItemResult.Status.FAILED),
+                    results.stream().map(BatchItemResult::getStatus).toList());
+            assertTrue(results.get(0).getError().contains("Хранилище недоступно"));
+            assertEquals(1, failingUndo.getAllTasks().size());
+            assertTrue(failingUndo.getModificationVersion() > version);
+        }
+
+        @Test
+        @DisplayName("Откат пакета освобождает время отмененных задач")
+        void testApplyBatch_rollbackShouldFreeTimeSlots() throws IOException {
+            // Given
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+            taskManager.applyBatch(List.of(
+                    new Task(0, "Task 1", "Description", StatusTask.NEW, Duration.ofMinutes(30), start),
+                    new Task(0, "Task 1", "Duplicate", StatusTask.NEW)));
+
+            // When
+            int taskId = taskManager.createTask(new Task(0, "Task 1", "Description", StatusTask.NEW,
+                    Duration.ofMinutes(30), start));
+
+            // Then
+            assertEquals(List.of(taskId), taskManager.getAllTasks().stream().map(Task::getId).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Тесты постраничной выдачи")
+    class PagingTest {
+
+        @Test
+        @DisplayName("Страницы задач идут по возрастанию id без пропусков и повторов")
+        void testTasksPage_shouldWalkAllTasksInIdOrder() throws IOException {
+            // Given
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                ids.add(taskManager.createTask(new Task("Task " + i, "Description")));
+            }
+
+            // When
+            List<Integer> walked = new ArrayList<>();
+            int afterId = 0;
+            List<Task> page;
+            while (!(page = taskManager.getTasksPage(afterId, 3)).isEmpty()) {
+                assertTrue(page.size() <= 3);
+                page.forEach(task -> walked.add(task.getId()));
+                afterId = page.get(page.size() - 1).getId();
+            }
+
+            // Then
+            assertEquals(ids, walked);
+        }
+
+        @Test
+        @DisplayName("Страница начинается после удаленного элемента-курсора")
+        void testEpicsPage_shouldSkipDeletedCursor() throws IOException {
+            // Given
+            int first = taskManager.createEpic(new Epic("Epic 1", "Description"));
+            int second = taskManager.createEpic(new Epic("Epic 2", "Description"));
+            int third = taskManager.createEpic(new Epic("Epic 3", "Description"));
+            taskManager.deleteEpicById(second);
+
+            // When
+            List<Epic> page = taskManager.getEpicsPage(second, 10);
+
+            // Then
+            assertEquals(List.of(third), page.stream().map(Epic::getId).toList());
+            assertEquals(2, taskManager.getEpicsPage(0, 10).size());
+            assertEquals(first, taskManager.getEpicsPage(0, 1).get(0).getId());
+        }
+
+        @Test
+        @DisplayName("Страницы приоритетного списка идут по времени начала")
+        void testPrioritizedTasksPage_shouldFollowStartTime() throws IOException {
+            // Given
+            LocalDateTime start = LocalDateTime.of(2025, 9, 8, 10, 0);
+            Task late = new Task(0, "Late", "Description", StatusTask.NEW, Duration.ofMinutes(30), start.plusHours(2));
+            Task early = new Task(0, "Early", "Description", StatusTask.NEW, Duration.ofMinutes(30), start);
+            Task middle = new Task(0, "Middle", "Description", StatusTask.NEW, Duration.ofMinutes(30), start.plusHours(1));
+            taskManager.createTask(late);
+            taskManager.createTask(early);
+            taskManager.createTask(middle);
+
+            // When
+            List<Task> firstPage = taskManager.getPrioritizedTasksPage(null, 0, 2);
+            Task last = firstPage.get(1);
+            List<Task> secondPage = taskManager.getPrioritizedTasksPage(last.getStartTime(), last.getId(), 2);
+
+            // Then
+            assertEquals(List.of("Early", "Middle"), firstPage.stream().map(Task::getName).toList());
+            assertEquals(List.of("Late"), secondPage.stream().map(Task::getName).toList());
+        }
+
+        @Test
+        @DisplayName("Неположительный размер страницы отклоняется")
+        void testPage_shouldRejectNonPositiveLimit() {
+            assertThrows(IllegalArgumentException.class, () -> taskManager.getSubTasksPage(0, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Тесты версий изменений")
+    class ModificationVersionTest {
+
+        @Test
+        @DisplayName("Версия растет при изменениях и не меняется при чтении")
+        void testModificationVersion_shouldGrowOnlyOnChanges() throws IOException {
+            // Given
+            long initial = taskManager.getModificationVersion();
+            int taskId = taskManager.createTask(new Task("Task", "Description"));
+            long afterCreate = taskManager.getModificationVersion();
+
+            // When
+            taskManager.getTaskById(taskId);
+            taskManager.getAllTasks();
+
+            // Then
+            assertTrue(afterCreate > initial);
+            assertEquals(afterCreate, taskManager.getModificationVersion());
+            taskManager.deleteTaskById(taskId);
+            assertTrue(taskManager.getModificationVersion() > afterCreate);
+        }
+
+        @Test
+        @DisplayName("Изменения публикуются в шину событий с версией")
+        void testChangeEvents_shouldBePublished() throws IOException {
+            // Given
+            int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+            int subTaskId = taskManager.createSubTask(new SubTask("SubTask", "Description", epicId));
+
+            // When
+            taskManager.deleteAllEpics();
+
+            // Then
+            List<ChangeEvent> events = taskManager.getChangeEventBus().eventsSince(0);
+            assertEquals(List.of(
+                    new ChangeEvent(1, ChangeEvent.Action.CREATED, TaskType.EPIC, epicId),
+                    new ChangeEvent(2, ChangeEvent.Action.CREATED, TaskType.SUBTASK, subTaskId),
+                    new ChangeEvent(2, ChangeEvent.Action.UPDATED, TaskType.EPIC, epicId),
+                    new ChangeEvent(3, ChangeEvent.Action.CLEARED, TaskType.SUBTASK, 0),
+                    new ChangeEvent(3, ChangeEvent.Action.UPDATED, TaskType.EPIC, epicId),
+                    new ChangeEvent(4, ChangeEvent.Action.CLEARED, TaskType.EPIC, 0),
+                    new ChangeEvent(4, ChangeEvent.Action.CLEARED, TaskType.SUBTASK, 0)), events);
+        }
+
+        @Test
+        @DisplayName("Перенос подзадачи публикует обновление обоих эпиков")
+        void testChangeEvents_shouldPublishEpicUpdatesForSubTaskChanges() throws IOException {
+            // Given
+            int firstEpicId = taskManager.createEpic(new Epic("Epic 1", "Description"));
+            int secondEpicId = taskManager.createEpic(new Epic("Epic 2", "Description"));
+            int subTaskId = taskManager.createSubTask(new SubTask("SubTask", "Description", firstEpicId));
+            long version = taskManager.getModificationVersion();
+
+            // When
+            taskManager.updateSubTask(new SubTask(subTaskId, "SubTask", "Description", StatusTask.DONE, secondEpicId));
+            taskManager.deleteSubTaskById(subTaskId);
+
+            // Then
+            List<ChangeEvent> events = taskManager.getChangeEventBus().eventsSince(version);
+            assertEquals(List.of(
+                    new ChangeEvent(version + 1, ChangeEvent.Action.UPDATED, TaskType.SUBTASK, subTaskId),
+                    new ChangeEvent(version + 1, ChangeEvent.Action.UPDATED, TaskType.EPIC, secondEpicId),
+                    new ChangeEvent(version + 1, ChangeEvent.Action.UPDATED, TaskType.EPIC, firstEpicId),
+                    new ChangeEvent(version + 2, ChangeEvent.Action.DELETED, TaskType.SUBTASK, subTaskId),
+                    new ChangeEvent(version + 2, ChangeEvent.Action.UPDATED, TaskType.EPIC, secondEpicId)), events);
+        }
+
+        @Test
+        @DisplayName("Удаление несуществующей задачи не меняет версию и не публикует событий")
+        void testDeleteMissing_shouldNotPublishChange() throws IOException {
+            // Given
+            taskManager.createTask(new Task(0, "Task", "Description", StatusTask.NEW));
+            long version = taskManager.getModificationVersion();
+
+            // When
+            taskManager.deleteTaskById(999);
+            taskManager.deleteSubTaskById(999);
+            assertThrows(RuntimeException.class, () -> taskManager.deleteTaskById(-1));
+
+            // Then
+            assertEquals(version, taskManager.getModificationVersion());
+            assertTrue(taskManager.getChangeEventBus().eventsSince(version).isEmpty());
+            assertEquals(1, taskManager.getAllTasks().size());
+        }
+
+        @Test
+        @DisplayName("Отклоненное обновление не меняет версию и не публикует событий")
+        void testRejectedUpdate_shouldNotPublishChange() throws IOException {
+            // Given
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+            int firstId = taskManager.createTask(new Task(0, "Task 1", "Description", StatusTask.NEW,
+                    Duration.ofMinutes(30), start));
+            int secondId = taskManager.createTask(new Task(0, "Task 2", "Description", StatusTask.NEW,
+                    Duration.ofMinutes(30), start.plusHours(1)));
+            long version = taskManager.getModificationVersion();
+            long taskVersion = taskManager.getModificationVersion(TaskType.TASK);
+
+            // When
+            assertThrows(RuntimeException.class, () -> taskManager.updateTask(new Task(secondId, "Task 2",
+                    "Description", StatusTask.NEW, Duration.ofMinutes(30), start.plusMinutes(10))));
+
+            // Then
+            assertEquals(version, taskManager.getModificationVersion());
+            assertEquals(taskVersion, taskManager.getModificationVersion(TaskType.TASK));
+            assertTrue(taskManager.getChangeEventBus().eventsSince(version).isEmpty());
+            assertEquals(start.plusHours(1), taskManager.getTaskById(secondId).getStartTime());
+            assertEquals(start, taskManager.getTaskById(firstId).getStartTime());
+        }
+
+        @Test
+        @DisplayName("Версии коллекций меняются только у затронутых типов")
+        void testModificationVersion_shouldTrackCollections() throws IOException {
+            // Given
+            int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+            long taskVersion = taskManager.getModificationVersion(TaskType.TASK);
+            long epicVersion = taskManager.getModificationVersion(TaskType.EPIC);
+
+            // When
+            taskManager.createSubTask(new SubTask("SubTask", "Description", epicId));
+
+            // Then
+            assertEquals(taskVersion, taskManager.getModificationVersion(TaskType.TASK));
+            assertTrue(taskManager.getModificationVersion(TaskType.EPIC) > epicVersion);
+            assertEquals(taskManager.getModificationVersion(),
+                    taskManager.getModificationVersion(TaskType.SUBTASK));
+        }
+    }
+}